@@ -0,0 +1,11 @@
+package com.vacancyparser.archive;
+
+/**
+ * Страница, прочитанная из архива
+ * @param url адрес страницы
+ * @param contentType Content-Type ответа
+ * @param fetchedAt время загрузки (мс)
+ * @param body несжатое тело ответа
+ */
+public record ArchivedPage(String url, String contentType, long fetchedAt, byte[] body) {
+}
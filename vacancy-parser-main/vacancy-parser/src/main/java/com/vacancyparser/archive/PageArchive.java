@@ -0,0 +1,526 @@
+package com.vacancyparser.archive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Архив загруженных страниц: только дозапись в файлы-сегменты, адресация по SHA-256 тела
+ * (одинаковая страница хранится один раз), сжатие Deflater с предустановленным словарём хоста.
+ * Индекс «хэш → сегмент и смещение» держится в памяти и восстанавливается сканированием сегментов при старте.
+ *
+ * <p>Запись в сегменте:
+ * <pre>
+ *   int     magic "VPA1"
+ *   int     длина полезной нагрузки
+ *   payload: byte[32] sha-256 тела, UTF host, UTF url, UTF contentType,
+ *            long fetchedAt, int id словаря, int длина тела, сжатое тело
+ *   int     CRC32 полезной нагрузки
+ * </pre>
+ * Запись, оборванная падением процесса, отбрасывается при сканировании, и сегмент обрезается до неё.
+ *
+ * <p>Словарь хоста — последние {@link #DICTIONARY_SIZE} байт первой заархивированной страницы хоста
+ * (разметка карточек у страниц одного сайта почти совпадает). Словари лежат рядом с сегментами
+ * в файлах {@code dict-<host>-<id>.bin} и не меняются, иначе старые записи не распаковать.
+ *
+ * <p>Объём архива ограничен {@code parser.archive.max.size}: когда архив его превышает, самые старые сегменты
+ * удаляются целиком вместе с их записями в индексе. Текущий сегмент не удаляется.
+ */
+@Component
+@Slf4j
+public class PageArchive {
+
+    static final int MAGIC = 0x56504131;
+    static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+    private static final Pattern DICTIONARY_NAME = Pattern.compile("dict-(.+)-([0-9a-f]{8})\\.bin");
+
+    /**
+     * Положение страницы в архиве
+     * @param segment номер сегмента
+     * @param offset смещение записи в сегменте
+     * @param host хост страницы
+     * @param url адрес страницы
+     * @param fetchedAt время загрузки (мс)
+     */
+    public record Location(int segment, long offset, String host, String url, long fetchedAt) {
+    }
+
+    /**
+     * Статистика архива
+     * @param pages уникальных страниц
+     * @param segments файлов-сегментов
+     * @param rawBytes несжатый объём
+     * @param storedBytes объём на диске
+     */
+    public record Stats(int pages, int segments, long rawBytes, long storedBytes) {
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long segmentSize;
+    private final long maxSize;
+    private final int level;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<String, Dictionary> dictionariesByHost = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> dictionariesById = new ConcurrentHashMap<>();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    // Несжатый и сжатый объём записей по сегментам — для статистики после удаления сегмента
+    private final Map<Integer, long[]> segmentBytes = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    private FileChannel segment;
+    private int firstSegment;
+    private int segmentNumber;
+    private long segmentPosition;
+
+    private record Dictionary(int id, byte[] bytes) {
+    }
+
+    public PageArchive(@Value("${parser.archive.enabled:true}") boolean enabled,
+                       @Value("${parser.archive.dir:./data/archive}") String dir,
+                       @Value("${parser.archive.segment.size:67108864}") long segmentSize,
+                       @Value("${parser.archive.max.size:1073741824}") long maxSize,
+                       @Value("${parser.archive.compression.level:6}") int level) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.level = level;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        loadDictionaries();
+        List<Integer> segments = segmentNumbers();
+        for (int number : segments) {
+            scan(number, number == segments.get(segments.size() - 1));
+        }
+        firstSegment = segments.isEmpty() ? 1 : segments.get(0);
+        segmentNumber = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        openSegment(segmentNumber);
+        synchronized (writeLock) {
+            enforceMaxSize();
+        }
+        log.info("Page archive {}: {} pages in {} segments", dir, index.size(), Math.max(1, segments.size()));
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            closeSegment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Дописывает страницу в архив, если такого тела в нём ещё нет
+     * @param url адрес страницы
+     * @param contentType Content-Type ответа
+     * @param body тело ответа
+     * @return true, если страница добавлена
+     */
+    public boolean append(String url, String contentType, byte[] body) {
+        return append(url, contentType, body, body.length);
+    }
+
+    /**
+     * Дописывает страницу из первых {@code length} байт буфера
+     */
+    public boolean append(String url, String contentType, byte[] body, int length) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] hash = sha256(body, length);
+        String key = HexFormat.of().formatHex(hash);
+        if (index.containsKey(key)) {
+            return false;
+        }
+        String host = host(url);
+        long fetchedAt = System.currentTimeMillis();
+        byte[] record;
+        try {
+            record = encode(hash, host, url, contentType, fetchedAt, dictionaryFor(host, body, length), body, length);
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to archive {}: {}", url, e.getMessage());
+            return false;
+        }
+
+        synchronized (writeLock) {
+            if (index.containsKey(key)) {
+                return false;
+            }
+            try {
+                if (segmentPosition > 0 && segmentPosition + record.length > segmentSize) {
+                    closeSegment();
+                    openSegment(++segmentNumber);
+                    enforceMaxSize();
+                }
+                long offset = segmentPosition;
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                segmentPosition += record.length;
+                index.put(key, new Location(segmentNumber, offset, host, url, fetchedAt));
+                addSegmentBytes(segmentNumber, length, record.length);
+            } catch (IOException e) {
+                log.warn("Failed to archive {}: {}", url, e.getMessage());
+                return false;
+            }
+        }
+        rawBytes.addAndGet(length);
+        storedBytes.addAndGet(record.length);
+        return true;
+    }
+
+    /**
+     * Страницы архива в порядке записи на диск — так чтение идёт последовательно
+     */
+    public List<Location> entries() {
+        List<Location> entries = new ArrayList<>(index.values());
+        entries.sort(Comparator.comparingInt(Location::segment).thenComparingLong(Location::offset));
+        return entries;
+    }
+
+    /**
+     * Читает и распаковывает страницу
+     */
+    public ArchivedPage read(Location location) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+            channel.position(location.offset());
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+            Record record = readRecord(in);
+            if (record == null) {
+                throw new IOException("Corrupted archive record at " + location);
+            }
+            return new ArchivedPage(record.url, record.contentType, record.fetchedAt, inflate(record));
+        }
+    }
+
+    public Stats getStats() {
+        int segments = enabled ? Math.max(1, segmentNumber - firstSegment + 1) : 0;
+        return new Stats(index.size(), segments, rawBytes.get(), storedBytes.get());
+    }
+
+    /**
+     * Удаляет самые старые сегменты, пока архив больше {@code maxSize}. Вызывается под {@code writeLock}.
+     * Страница из удалённого сегмента пропадает из индекса и при следующей загрузке архивируется заново.
+     */
+    private void enforceMaxSize() {
+        if (maxSize <= 0) {
+            return;
+        }
+        while (storedBytes.get() > maxSize && firstSegment < segmentNumber) {
+            int oldest = firstSegment;
+            try {
+                Files.deleteIfExists(segmentPath(oldest));
+            } catch (IOException e) {
+                log.warn("Failed to delete archive segment {}: {}", oldest, e.getMessage());
+                return;
+            }
+            firstSegment++;
+            index.values().removeIf(location -> location.segment() == oldest);
+            long[] bytes = segmentBytes.remove(oldest);
+            if (bytes != null) {
+                rawBytes.addAndGet(-bytes[0]);
+                storedBytes.addAndGet(-bytes[1]);
+            }
+            log.info("Deleted archive segment {} to keep the archive under {} bytes", oldest, maxSize);
+        }
+    }
+
+    private void addSegmentBytes(int number, long raw, long stored) {
+        long[] bytes = segmentBytes.computeIfAbsent(number, n -> new long[2]);
+        bytes[0] += raw;
+        bytes[1] += stored;
+    }
+
+    private Dictionary dictionaryFor(String host, byte[] body, int length) {
+        return dictionariesByHost.computeIfAbsent(host, h -> {
+            byte[] bytes = Arrays.copyOfRange(body, Math.max(0, length - DICTIONARY_SIZE), length);
+            int id = (int) crc32(bytes);
+            try {
+                Files.write(dir.resolve("dict-" + fileSafe(h) + "-" + String.format("%08x", id) + ".bin"), bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to store archive dictionary for " + h, e);
+            }
+            dictionariesById.put(id, bytes);
+            log.info("Created archive dictionary {} for host {} ({} bytes)", String.format("%08x", id), h, bytes.length);
+            return new Dictionary(id, bytes);
+        });
+    }
+
+    private byte[] encode(byte[] hash, String host, String url, String contentType, long fetchedAt,
+                          Dictionary dictionary, byte[] body, int length) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setDictionary(dictionary.bytes());
+            deflater.setInput(body, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(length / 4 + 256);
+            DataOutputStream out = new DataOutputStream(payload);
+            out.write(hash);
+            out.writeUTF(host);
+            out.writeUTF(url);
+            out.writeUTF(contentType != null ? contentType : "");
+            out.writeLong(fetchedAt);
+            out.writeInt(dictionary.id());
+            out.writeInt(length);
+            byte[] buffer = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] bytes = payload.toByteArray();
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 12);
+            DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeInt(MAGIC);
+            recordOut.writeInt(bytes.length);
+            recordOut.write(bytes);
+            recordOut.writeInt((int) crc32(bytes));
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final class Record {
+        String host;
+        String url;
+        String contentType;
+        long fetchedAt;
+        int dictionaryId;
+        int rawLength;
+        byte[] hash;
+        byte[] compressed;
+        int size;
+    }
+
+    /**
+     * @return запись или null, если запись оборвана или повреждена
+     */
+    private static Record readRecord(DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int length = in.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            byte[] payload = in.readNBytes(length);
+            if (payload.length < length || in.readInt() != (int) crc32(payload)) {
+                return null;
+            }
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+            Record record = new Record();
+            record.hash = data.readNBytes(32);
+            record.host = data.readUTF();
+            record.url = data.readUTF();
+            record.contentType = data.readUTF();
+            record.fetchedAt = data.readLong();
+            record.dictionaryId = data.readInt();
+            record.rawLength = data.readInt();
+            record.compressed = data.readAllBytes();
+            record.size = 12 + length;
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private byte[] inflate(Record record) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(record.compressed);
+            byte[] body = new byte[record.rawLength];
+            int read = 0;
+            while (read < body.length) {
+                int n = inflater.inflate(body, read, body.length - read);
+                if (n == 0 && inflater.needsDictionary()) {
+                    byte[] dictionary = dictionariesById.get(record.dictionaryId);
+                    if (dictionary == null) {
+                        throw new IOException("Missing archive dictionary " + String.format("%08x", record.dictionaryId));
+                    }
+                    inflater.setDictionary(dictionary);
+                } else if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated archive record " + record.url);
+                }
+                read += n;
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted archive record " + record.url, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void scan(int number, boolean last) throws IOException {
+        Path path = segmentPath(number);
+        long offset = 0;
+        try (InputStream file = Files.newInputStream(path)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file, 256 * 1024));
+            Record record;
+            while ((record = readRecord(in)) != null) {
+                index.putIfAbsent(HexFormat.of().formatHex(record.hash),
+                        new Location(number, offset, record.host, record.url, record.fetchedAt));
+                rawBytes.addAndGet(record.rawLength);
+                storedBytes.addAndGet(record.size);
+                addSegmentBytes(number, record.rawLength, record.size);
+                offset += record.size;
+            }
+        }
+        long size = Files.size(path);
+        if (offset < size) {
+            if (last) {
+                // Хвост последнего сегмента оборван падением процесса — дальше пишем поверх
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(offset);
+                }
+                log.warn("Truncated {} bytes of incomplete records in {}", size - offset, path);
+            } else {
+                log.warn("Skipped {} bytes of corrupted records in {}", size - offset, path);
+            }
+        }
+    }
+
+    private void loadDictionaries() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "dict-*.bin")) {
+            List<Path> sorted = new ArrayList<>();
+            files.forEach(sorted::add);
+            sorted.sort(Comparator.naturalOrder());
+            for (Path file : sorted) {
+                Matcher matcher = DICTIONARY_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                byte[] bytes = Files.readAllBytes(file);
+                int id = (int) crc32(bytes);
+                if (id != Integer.parseUnsignedInt(matcher.group(2), 16)) {
+                    log.warn("Archive dictionary {} is corrupted, skipping", file);
+                    continue;
+                }
+                dictionariesById.put(id, bytes);
+                dictionariesByHost.putIfAbsent(matcher.group(1), new Dictionary(id, bytes));
+            }
+        }
+    }
+
+    private List<Integer> segmentNumbers() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        numbers.sort(Comparator.naturalOrder());
+        return numbers;
+    }
+
+    private void openSegment(int number) throws IOException {
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segmentPosition = segment.size();
+        segment.position(segmentPosition);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force(false);
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Failed to close archive segment {}: {}", segmentNumber, e.getMessage());
+        }
+        segment = null;
+    }
+
+    private Path segmentPath(int number) {
+        return dir.resolve(String.format("segment-%06d.dat", number));
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "unknown";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private static String fileSafe(String host) {
+        return host.replaceAll("[^a-z0-9.-]", "_");
+    }
+
+    private static byte[] sha256(byte[] body, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(body, 0, length);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long crc32(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
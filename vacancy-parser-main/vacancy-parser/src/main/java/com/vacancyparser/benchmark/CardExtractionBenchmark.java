@@ -0,0 +1,105 @@
+package com.vacancyparser.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.parser.CardExtractor;
+import com.vacancyparser.parser.VacancyParser;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH бенчмарк извлечения карточек одной страницы hh.ru: последовательно и параллельно в ForkJoin пуле
+ * ({@link CardExtractor}), как {@link ParsingBenchmark} сравнивает stream и parallelStream.
+ * Точка, где {@code parallel} обгоняет {@code serial}, — порог {@code parser.extract.parallel.threshold}.
+ * Карточки берутся из архива {@code -Dbenchmark.archive.dir} (по умолчанию ./data/archive) и повторяются
+ * до {@code cards} штук; если архив пуст — из синтетической страницы. Размер пула — {@code -Dbenchmark.parallelism}
+ * (по умолчанию по числу ядер, но не меньше 2, чтобы параллельный путь вообще работал).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class CardExtractionBenchmark {
+
+    @Param({"5", "10", "20", "50", "100", "200"})
+    public int cards;
+
+    @Param({"serial", "parallel"})
+    public String mode;
+
+    private Document page;
+    private VacancyParser parser;
+    private CardExtractor cardExtractor;
+
+    @Setup
+    public void setup() throws IOException {
+        // Логи разбора каждой страницы исказили бы замер
+        ((Logger) LoggerFactory.getLogger("com.vacancyparser")).setLevel(Level.WARN);
+
+        List<String> recorded = new ArrayList<>();
+        for (byte[] body : PageParseBenchmark.recordedPages(
+                Paths.get(System.getProperty("benchmark.archive.dir", "./data/archive")))) {
+            for (Element card : Jsoup.parse(new String(body, StandardCharsets.UTF_8), "https://hh.ru")
+                    .select("div[data-qa='vacancy-serp__vacancy']")) {
+                recorded.add(card.outerHtml());
+            }
+        }
+        if (recorded.isEmpty()) {
+            page = Jsoup.parse(PageParseBenchmark.syntheticPage(cards), "https://hh.ru");
+        } else {
+            StringBuilder html = new StringBuilder("<html><body><div data-qa=\"vacancy-serp__results\">");
+            for (int i = 0; i < cards; i++) {
+                html.append(recorded.get(i % recorded.size()));
+            }
+            page = Jsoup.parse(html.append("</div></body></html>").toString(), "https://hh.ru");
+        }
+
+        int parallelism = Integer.getInteger("benchmark.parallelism",
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        cardExtractor = mode.equals("parallel") ? new CardExtractor(0, parallelism) : CardExtractor.serial();
+        parser = new VacancyParser();
+        parser.setCardExtractor(cardExtractor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cardExtractor.shutdown();
+    }
+
+    @Benchmark
+    public List<Vacancy> extractHhRu() {
+        return parser.extractHhRu(page);
+    }
+
+    /**
+     * Запуск бенчмарков с профилировщиком аллокаций
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CardExtractionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .result("jmh-card-extraction.txt")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.TEXT)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,162 @@
+package com.vacancyparser.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.fetch.FetchedPage;
+import com.vacancyparser.fetch.HedgingPolicy;
+import com.vacancyparser.fetch.HostLatencyTracker;
+import com.vacancyparser.fetch.HostRateLimiter;
+import com.vacancyparser.fetch.PageFetcher;
+import com.vacancyparser.fetch.ResponseCache;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.pipeline.CrawlPipeline;
+import com.vacancyparser.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH бенчмарк режимов потоков обхода ({@code parser.execution.mode}): {@code pages} проходов одновременно
+ * загружают по странице через {@link CrawlPipeline} и настоящий {@link PageFetcher} с локальной заглушки,
+ * которая отвечает через {@code latencyMillis}.
+ * <ul>
+ *     <li>{@code platform-N} — проходы и загрузки в пулах по N платформенных потоков;</li>
+ *     <li>{@code virtual} — виртуальный поток на проход и на загрузку, предел — слоты хоста ({@code pages}).</li>
+ * </ul>
+ * Время операции показывает, сколько загрузок идёт одновременно, {@code gc.alloc.rate.norm} — память на проход
+ * (запускать с профилировщиком GC, {@code main} добавляет его сам), а пик потоков ОС печатается после итерации.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class FetchConcurrencyBenchmark {
+
+    @Param({"platform-32", "platform-256", "virtual"})
+    public String mode;
+
+    @Param({"1000"})
+    public int pages;
+
+    @Param({"250"})
+    public int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CrawlPipeline pipeline;
+    private ExecutorService crawls;
+    private PageFetcher pageFetcher;
+    private String baseUrl;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] page = PageParseBenchmark.syntheticPage(20).getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        // Заглушка не должна быть узким местом: каждый запрос в своём виртуальном потоке
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(serverExecutor);
+        server.createContext("/search", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(page);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/search?page=";
+
+        boolean virtual = mode.equals("virtual");
+        int threads = virtual ? 0 : Integer.parseInt(mode.substring(mode.indexOf('-') + 1));
+        MetricsService metricsService = new MetricsService(new SimpleMeterRegistry());
+        // Слоты хоста не ограничивают платформенный режим: там предел — размер пулов
+        HostRateLimiter rateLimiter = new HostRateLimiter(metricsService, 1_000_000, 1_000_000,
+                pages, pages, pages, 0.5, 60_000);
+        HostLatencyTracker latencyTracker = new HostLatencyTracker(metricsService, 30_000, 2_000, 3, 20);
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(metricsService, latencyTracker, false, 0, 100);
+        String tmp = Files.createTempDirectory("fetch-benchmark").toString();
+        ResponseCache responseCache = new ResponseCache(false, tmp, 0, 0, false, 0);
+        PageArchive pageArchive = new PageArchive(false, tmp, 0, 0, 6);
+        pageFetcher = new PageFetcher(rateLimiter, hedgingPolicy, latencyTracker, responseCache, pageArchive,
+                10_000, 10 * 1024 * 1024, 32);
+        pipeline = new CrawlPipeline(metricsService, virtual ? "virtual" : "platform",
+                Math.max(1, threads), threads * 2, 0, 32, 1, 32, 16);
+        crawls = pipeline.newCrawlExecutor(Math.max(1, threads));
+    }
+
+    @TearDown
+    public void tearDown() {
+        crawls.shutdownNow();
+        pipeline.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportThreads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.println("  peak OS threads: " + threads.getPeakThreadCount());
+        threads.resetPeakThreadCount();
+    }
+
+    /**
+     * {@code pages} проходов, каждый загружает одну страницу; операция заканчивается с последней загрузкой
+     */
+    @Benchmark
+    public long fetchPages() throws Exception {
+        List<Future<Integer>> results = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            String url = baseUrl + (next++);
+            results.add(crawls.submit(() -> pipeline.fetch(() -> {
+                try (FetchedPage page = pageFetcher.fetchBody(url, baseUrl, CrawlContext.unbounded())) {
+                    return page.getLength();
+                }
+            }, CrawlContext.unbounded())));
+        }
+        long bytes = 0;
+        for (Future<Integer> result : results) {
+            bytes += result.get();
+        }
+        return bytes;
+    }
+
+    /**
+     * Запуск бенчмарков с профилировщиком аллокаций
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FetchConcurrencyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .result("jmh-fetch-concurrency.txt")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.TEXT)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
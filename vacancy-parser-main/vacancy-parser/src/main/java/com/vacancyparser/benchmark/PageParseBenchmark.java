@@ -0,0 +1,190 @@
+package com.vacancyparser.benchmark;
+
+import com.vacancyparser.archive.ArchivedPage;
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.fetch.BodyBufferPool;
+import com.vacancyparser.fetch.PageFetcher;
+import com.vacancyparser.parser.ResultSlicer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JMH бенчмарк разбора страницы выдачи: через строку, из массива байт, потоком с распаковкой
+ * в буфер из пула и только контейнера результатов, найденного {@link ResultSlicer} (как в PageFetcher).
+ * Запускать с профилировщиком GC ({@code main} добавляет его сам),
+ * смотреть {@code gc.alloc.rate.norm} — байты на страницу.
+ * Страницы берутся из архива {@code -Dbenchmark.archive.dir} (по умолчанию ./data/archive),
+ * если он пуст — используется синтетическая страница hh.ru.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class PageParseBenchmark {
+
+    private static final String BASE_URI = "https://hh.ru/search/vacancy?text=java";
+
+    private List<byte[]> pages;
+    private List<byte[]> gzippedPages;
+    private BodyBufferPool bufferPool;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        pages = recordedPages(Paths.get(System.getProperty("benchmark.archive.dir", "./data/archive")));
+        if (pages.isEmpty()) {
+            pages = List.of(syntheticPage(50).getBytes(StandardCharsets.UTF_8));
+        }
+        gzippedPages = new ArrayList<>();
+        for (byte[] page : pages) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(page);
+            }
+            gzippedPages.add(compressed.toByteArray());
+        }
+        bufferPool = new BodyBufferPool(1, 256 * 1024, 4 * 1024 * 1024);
+    }
+
+    private int nextPage() {
+        next = (next + 1) % pages.size();
+        return next;
+    }
+
+    /**
+     * Прежний путь: тело целиком в массив, затем в строку, затем DOM
+     */
+    @Benchmark
+    public Document parseFromString() {
+        byte[] body = pages.get(nextPage()).clone();
+        return Jsoup.parse(new String(body, StandardCharsets.UTF_8), BASE_URI);
+    }
+
+    /**
+     * Тело целиком в массив, DOM из потока над массивом
+     */
+    @Benchmark
+    public Document parseFromByteArray() throws IOException {
+        byte[] body = pages.get(nextPage()).clone();
+        return Jsoup.parse(new ByteArrayInputStream(body), "UTF-8", BASE_URI);
+    }
+
+    /**
+     * Распаковка gzip потоком прямо в парсер, копия байтов в буфер из пула (путь без среза)
+     */
+    @Benchmark
+    public Document parseFromStream() throws IOException {
+        BodyBufferPool.Buffer buffer = bufferPool.acquire();
+        try (InputStream in = buffer.capture(
+                new GZIPInputStream(new ByteArrayInputStream(gzippedPages.get(nextPage())), 16 * 1024), Long.MAX_VALUE)) {
+            return Jsoup.parse(in, "UTF-8", BASE_URI);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Текущий путь: тело дочитывается в буфер из пула, парсер получает только контейнер результатов
+     */
+    @Benchmark
+    public Document parseSlice() throws IOException {
+        BodyBufferPool.Buffer buffer = bufferPool.acquire();
+        try {
+            try (InputStream in = buffer.capture(
+                    new GZIPInputStream(new ByteArrayInputStream(gzippedPages.get(nextPage())), 16 * 1024), Long.MAX_VALUE)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return PageFetcher.parse(buffer.array(), buffer.size(), "text/html; charset=utf-8", BASE_URI, ResultSlicer.HH);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    static List<byte[]> recordedPages(Path dir) throws IOException {
+        List<byte[]> pages = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return pages;
+        }
+        PageArchive archive = new PageArchive(true, dir.toString(), Long.MAX_VALUE, 0, 6);
+        archive.open();
+        try {
+            for (PageArchive.Location location : archive.entries()) {
+                ArchivedPage page = archive.read(location);
+                pages.add(page.body());
+            }
+        } finally {
+            archive.close();
+        }
+        return pages;
+    }
+
+    /**
+     * Страница выдачи в разметке hh.ru: шапка со скриптами и SVG-спрайтом, карточки, подвал
+     */
+    static String syntheticPage(int cards) {
+        StringBuilder html = new StringBuilder(256 * 1024);
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Вакансии java</title>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<script>window.__state").append(i).append(" = {\"config\":{\"features\":[")
+                    .append("\"a\",\"b\",\"c\",".repeat(100)).append("\"z\"]}};</script>");
+        }
+        html.append("</head><body><svg style=\"display:none\">");
+        for (int i = 0; i < 200; i++) {
+            html.append("<symbol id=\"icon-").append(i).append("\" viewBox=\"0 0 24 24\"><path d=\"M12 2L2 7l10 5 10-5-10-5z")
+                    .append(" M2 17l10 5 10-5M2 12l10 5 10-5\"/></symbol>");
+        }
+        html.append("</svg><header class=\"supernova-navi\">").append("<a class=\"supernova-link\" href=\"/\">Меню</a>".repeat(100))
+                .append("</header><main><div data-qa=\"vacancy-serp__results\" id=\"a11y-main-content\">");
+        for (int i = 0; i < cards; i++) {
+            html.append("<div data-qa=\"vacancy-serp__vacancy\" class=\"vacancy-serp-item\">")
+                    .append("<h2><a data-qa=\"vacancy-serp__vacancy-title\" class=\"bloko-link\" href=\"https://hh.ru/vacancy/")
+                    .append(100000 + i).append("\">Java разработчик ").append(i).append("</a></h2>")
+                    .append("<span data-qa=\"vacancy-serp__vacancy-compensation\">от 200 000 ₽</span>")
+                    .append("<a data-qa=\"vacancy-serp__vacancy-employer\" href=\"/employer/").append(i).append("\">Компания ")
+                    .append(i % 10).append("</a>")
+                    .append("<div data-qa=\"vacancy-serp__vacancy-address\">Москва</div>")
+                    .append("<div data-qa=\"vacancy-serp__vacancy_snippet_requirement\">Опыт Spring Boot, PostgreSQL, Kafka</div>")
+                    .append("</div>");
+        }
+        html.append("</div></main><footer>").append("<a class=\"footer-link\" href=\"/about\">О компании</a>".repeat(200))
+                .append("</footer></body></html>");
+        return html.toString();
+    }
+
+    /**
+     * Запуск бенчмарков с профилировщиком аллокаций
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PageParseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .result("jmh-page-parse.txt")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.TEXT)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,17 @@
+package com.vacancyparser.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Миграции схемы, которые должны отработать до {@code ddl-auto} Hibernate
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor vacancyKeyMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor(VacancyKeyMigration.BEAN_NAME);
+    }
+}
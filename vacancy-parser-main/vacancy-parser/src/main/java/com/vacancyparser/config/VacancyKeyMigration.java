@@ -0,0 +1,110 @@
+package com.vacancyparser.config;
+
+import com.vacancyparser.parser.UrlCanonicalizer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Переводит таблицу {@code vacancies} из существующей БД на ключ {@code (source, externalId)}.
+ * Раньше ключом был уникальный {@code source_url}, а {@code ddl-auto=update} не умеет ни добавить
+ * NOT NULL колонку к заполненной таблице, ни удалить старый индекс. Поэтому до Hibernate колонка
+ * {@code external_id} добавляется и заполняется здесь: адреса приводятся к каноническим
+ * ({@link UrlCanonicalizer}), из дублей, совпавших после приведения, остаётся самая ранняя строка,
+ * старые индексы {@code idx_source_url} и {@code idx_source} удаляются. Повторный запуск, в том числе
+ * после падения посередине, доделывает оставшееся; на новой или уже переведённой БД ничего не делает.
+ */
+@Slf4j
+@Component(VacancyKeyMigration.BEAN_NAME)
+public class VacancyKeyMigration {
+
+    public static final String BEAN_NAME = "vacancyKeyMigration";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VacancyKeyMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!exists("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'VACANCIES'")) {
+            return;
+        }
+        boolean hasColumn = exists("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE UPPER(TABLE_NAME) = 'VACANCIES' AND UPPER(COLUMN_NAME) = 'EXTERNAL_ID'");
+        boolean migrated = hasColumn
+                && !exists("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_NAME) = 'VACANCIES' "
+                        + "AND UPPER(COLUMN_NAME) = 'EXTERNAL_ID' AND IS_NULLABLE = 'YES'")
+                && !exists("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE UPPER(CONSTRAINT_NAME) = 'IDX_SOURCE_URL'")
+                && !exists("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                        + "WHERE UPPER(INDEX_NAME) IN ('IDX_SOURCE_URL', 'IDX_SOURCE')");
+        if (migrated) {
+            return;
+        }
+        log.info("Migrating vacancies table to (source, externalId) keys");
+        if (!hasColumn) {
+            jdbcTemplate.execute("ALTER TABLE vacancies ADD COLUMN external_id BIGINT");
+        }
+        // Hibernate заводил уникальный индекс как ограничение
+        jdbcTemplate.execute("ALTER TABLE vacancies DROP CONSTRAINT IF EXISTS idx_source_url");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_source_url");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_source");
+
+        // Ключи строк, заполненных до прерванного запуска
+        Set<String> keys = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT source || ':' || external_id FROM vacancies WHERE external_id IS NOT NULL", String.class));
+        int updated = 0;
+        int removed = 0;
+        long lastId = 0;
+        while (true) {
+            List<Row> rows = jdbcTemplate.query(
+                    "SELECT id, source, source_url FROM vacancies WHERE external_id IS NULL AND id > ? "
+                            + "ORDER BY id FETCH FIRST " + BATCH_SIZE + " ROWS ONLY",
+                    (rs, i) -> new Row(rs.getLong("id"), rs.getString("source"), rs.getString("source_url")),
+                    lastId);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> duplicates = new ArrayList<>();
+            for (Row row : rows) {
+                UrlCanonicalizer canonicalizer = UrlCanonicalizer.forSource(row.source());
+                String canonical = canonicalizer.canonicalize(row.sourceUrl());
+                long externalId = canonicalizer.externalId(canonical);
+                if (keys.add(row.source() + ":" + externalId)) {
+                    updates.add(new Object[]{canonical, externalId, row.id()});
+                } else {
+                    duplicates.add(new Object[]{row.id()});
+                }
+            }
+            jdbcTemplate.batchUpdate("UPDATE vacancies SET source_url = ?, external_id = ? WHERE id = ?", updates);
+            jdbcTemplate.batchUpdate("DELETE FROM vacancies WHERE id = ?", duplicates);
+            updated += updates.size();
+            removed += duplicates.size();
+            lastId = rows.get(rows.size() - 1).id();
+        }
+
+        // Уникальный idx_source_external_id после этого добавит сам ddl-auto=update
+        jdbcTemplate.execute("ALTER TABLE vacancies ALTER COLUMN external_id SET NOT NULL");
+        log.info("Vacancies table migrated: {} rows keyed, {} duplicates removed", updated, removed);
+    }
+
+    private boolean exists(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count != null && count > 0;
+    }
+
+    private record Row(long id, String source, String sourceUrl) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.vacancyparser.controller;
+
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.dto.ArchiveReplayJobDto;
+import com.vacancyparser.service.ArchiveReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/archive")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final PageArchive pageArchive;
+    private final ArchiveReplayService replayService;
+
+    @GetMapping
+    public ResponseEntity<PageArchive.Stats> getStats() {
+        if (!pageArchive.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pageArchive.getStats());
+    }
+
+    /**
+     * Ставит в очередь повторное извлечение вакансий из архива страниц без обращения к сайтам
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<ArchiveReplayJobDto> replay(
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false, defaultValue = "false") boolean persist
+    ) {
+        if (!pageArchive.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        ArchiveReplayService.ReplayJob job;
+        try {
+            job = replayService.submit(source, persist);
+        } catch (RejectedExecutionException e) {
+            // Разбор уже идёт и ещё один ждёт — клиенту стоит повторить позже
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/archive/replay/" + job.getId()))
+                .body(toDto(job));
+    }
+
+    @GetMapping("/replay/{id}")
+    public ResponseEntity<ArchiveReplayJobDto> getReplay(@PathVariable String id) {
+        return replayService.getJob(id)
+                .map(job -> ResponseEntity.ok(toDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ArchiveReplayJobDto toDto(ArchiveReplayService.ReplayJob job) {
+        return new ArchiveReplayJobDto(job.getId(), job.getState().name(), job.getSource(), job.isPersist(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), job.getError(), job.getResult());
+    }
+}
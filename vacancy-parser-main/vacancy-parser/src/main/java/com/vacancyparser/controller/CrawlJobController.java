@@ -0,0 +1,71 @@
+package com.vacancyparser.controller;
+
+import com.vacancyparser.dto.CrawlJobDto;
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.job.CrawlJob;
+import com.vacancyparser.job.CrawlJobManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class CrawlJobController {
+
+    private final CrawlJobManager crawlJobManager;
+
+    @GetMapping
+    public ResponseEntity<List<CrawlJobDto>> getJobs() {
+        List<CrawlJobDto> dtos = crawlJobManager.getJobs().stream()
+                .map(CrawlJobController::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(dtos);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CrawlJobDto> getJob(@PathVariable String id) {
+        return crawlJobManager.getJob(id)
+                .map(job -> ResponseEntity.ok(toDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Отменяет задание: закрывает незавершённые HTTP-запросы и освобождает воркеры
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<CrawlJobDto> cancelJob(@PathVariable String id) {
+        return crawlJobManager.cancel(id)
+                .map(job -> ResponseEntity.ok(toDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    static CrawlJobDto toDto(CrawlJob job) {
+        List<SearchCrawlResult> urls = job.getResults();
+        LocalDateTime startedAt = job.getStartedAt();
+        LocalDateTime finishedAt = job.getFinishedAt();
+        Long durationMs = null;
+        if (startedAt != null) {
+            durationMs = Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+        }
+        return new CrawlJobDto(
+                job.getId(),
+                job.getState().name(),
+                job.getCreatedAt(),
+                startedAt,
+                finishedAt,
+                durationMs,
+                urls.stream().mapToInt(SearchCrawlResult::getPagesFetched).sum(),
+                urls.stream().mapToInt(SearchCrawlResult::getVacanciesFound).sum(),
+                urls.stream().mapToInt(SearchCrawlResult::getVacanciesSaved).sum(),
+                job.getError(),
+                urls
+        );
+    }
+}
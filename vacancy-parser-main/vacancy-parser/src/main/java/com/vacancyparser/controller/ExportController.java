@@ -0,0 +1,46 @@
+package com.vacancyparser.controller;
+
+import com.vacancyparser.export.ExportFormat;
+import com.vacancyparser.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/vacancies")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            WebRequest webRequest
+    ) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = "\"export-" + exportFormat.getExtension() + "-" + exportService.getDataVersion() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        String fileName = "vacancies." + exportFormat.getExtension() + ".gz";
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(out -> exportService.export(exportFormat, out));
+    }
+}
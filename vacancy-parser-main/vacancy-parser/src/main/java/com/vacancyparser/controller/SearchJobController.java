@@ -0,0 +1,75 @@
+package com.vacancyparser.controller;
+
+import com.vacancyparser.dto.SearchJobDto;
+import com.vacancyparser.dto.SearchJobRequest;
+import com.vacancyparser.model.SearchJob;
+import com.vacancyparser.service.SearchJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/search-jobs")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class SearchJobController {
+
+    private final SearchJobService searchJobService;
+
+    @GetMapping
+    public ResponseEntity<List<SearchJobDto>> getJobs() {
+        List<SearchJobDto> dtos = searchJobService.getAllJobs().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(dtos);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SearchJobDto> getJob(@PathVariable Long id) {
+        return searchJobService.getJob(id)
+                .map(job -> ResponseEntity.ok(toDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<SearchJobDto> createJob(@Valid @RequestBody SearchJobRequest request) {
+        SearchJob job = searchJobService.createJob(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(toDto(job));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<SearchJobDto> updateJob(@PathVariable Long id, @Valid @RequestBody SearchJobRequest request) {
+        return searchJobService.updateJob(id, request)
+                .map(job -> ResponseEntity.ok(toDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteJob(@PathVariable Long id) {
+        return searchJobService.deleteJob(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private SearchJobDto toDto(SearchJob job) {
+        return new SearchJobDto(
+                job.getId(),
+                job.getUrl(),
+                job.getSource(),
+                job.getPriority(),
+                job.getMaxPages(),
+                job.isEnabled(),
+                job.getLastRunAt(),
+                job.getLastRunDurationMs(),
+                job.getLastRunPages(),
+                job.getLastRunFound(),
+                job.getLastRunSaved(),
+                job.getLastError()
+        );
+    }
+}
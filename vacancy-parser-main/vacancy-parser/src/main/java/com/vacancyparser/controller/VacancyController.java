@@ -1,15 +1,25 @@
 package com.vacancyparser.controller;
 
+import com.vacancyparser.dto.CrawlJobDto;
+import com.vacancyparser.dto.FacetsDto;
 import com.vacancyparser.dto.ParseRequest;
 import com.vacancyparser.dto.VacancyDto;
+import com.vacancyparser.job.CrawlJob;
+import com.vacancyparser.job.CrawlJobManager;
 import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.service.FacetService;
 import com.vacancyparser.service.VacancyService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,19 +29,25 @@ import java.util.stream.Collectors;
 public class VacancyController {
 
     private final VacancyService vacancyService;
+    private final FacetService facetService;
+    private final CrawlJobManager crawlJobManager;
 
     @PostMapping("/parse")
-    public ResponseEntity<String> parseVacancies(@RequestBody ParseRequest request) {
+    public ResponseEntity<CrawlJobDto> parseVacancies(@RequestBody ParseRequest request) {
+        CrawlJob job;
         try {
-            vacancyService.parseVacancies(
+            job = crawlJobManager.submit(
                     request.getUrls(),
-                    request.getMaxPages() != null ? request.getMaxPages() : 10
+                    request.getMaxPages() != null ? request.getMaxPages() : 10,
+                    request.getDeadlineSeconds()
             );
-            return ResponseEntity.ok("Parsing started successfully");
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError()
-                    .body("Error starting parsing: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // Очередь заданий заполнена — клиенту стоит повторить позже
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(CrawlJobController.toDto(job));
     }
 
     @GetMapping("/answer")
@@ -88,6 +104,26 @@ public class VacancyController {
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<FacetsDto> getFacets(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false, defaultValue = "100") int limit,
+            WebRequest webRequest
+    ) {
+        if (limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Версия словаря меняется только при сохранении вакансий, поэтому подходит как ETag
+        String etag = "\"facets-" + facetService.getVersion() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(facetService.getFacets(prefix, limit));
+    }
+
     private VacancyDto toDto(Vacancy vacancy) {
         return new VacancyDto(
                 vacancy.getId(),
@@ -99,7 +135,12 @@ public class VacancyController {
                 vacancy.getPublishedDate(),
                 vacancy.getSourceUrl(),
                 vacancy.getSource(),
-                vacancy.getParsedAt()
+                vacancy.getParsedAt(),
+                vacancy.getDescription(),
+                vacancy.getSkills(),
+                vacancy.getExperience(),
+                vacancy.getEmploymentType(),
+                vacancy.getEnrichedAt()
         );
     }
 }
@@ -0,0 +1,21 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Итог повторного разбора архива страниц
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveReplayDto {
+    private int pages;
+    private int failedPages;
+    private long bytes;
+    private int vacanciesFound;
+    private int vacanciesSaved;
+    private int vacanciesUpdated;
+    private long durationMs;
+}
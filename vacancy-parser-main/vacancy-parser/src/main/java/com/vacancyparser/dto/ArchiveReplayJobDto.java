@@ -0,0 +1,25 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Задание повторного разбора архива страниц и, когда оно завершено, его итог
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveReplayJobDto {
+    private String id;
+    private String state;
+    private String source;
+    private boolean persist;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private ArchiveReplayDto result;
+}
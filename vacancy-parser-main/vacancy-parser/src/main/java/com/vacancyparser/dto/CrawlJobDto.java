@@ -0,0 +1,25 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlJobDto {
+    private String id;
+    private String state;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private int pagesFetched;
+    private int vacanciesFound;
+    private int vacanciesSaved;
+    private String error;
+    private List<SearchCrawlResult> urls;
+}
@@ -0,0 +1,13 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDto {
+    private String value;
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetsDto {
+    private long version;
+    private List<FacetValueDto> sources;
+    private List<FacetValueDto> cities;
+    private List<FacetValueDto> companies;
+}
@@ -12,4 +12,6 @@ import java.util.List;
 public class ParseRequest {
     private List<String> urls;
     private Integer maxPages;
+    // Дедлайн задания в секундах; если не задан — parser.jobs.deadline
+    private Integer deadlineSeconds;
 }
@@ -0,0 +1,35 @@
+package com.vacancyparser.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Итог (и текущий прогресс) прохода по одному поисковому URL.
+ * Поля пишет один поток прохода, а читают статусные запросы, поэтому они volatile.
+ */
+@Data
+@NoArgsConstructor
+public class SearchCrawlResult {
+
+    // SKIPPED — поиск уже проходит другой проход (в этом узле или в другом)
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED, SKIPPED }
+
+    private volatile String url;
+    private volatile String source;
+    private volatile Status status = Status.PENDING;
+    private volatile int pagesFetched;
+    private volatile int pagesSkipped;
+    private volatile int vacanciesFound;
+    private volatile int vacanciesSaved;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long durationMs;
+    private volatile String error;
+
+    public SearchCrawlResult(String url, String source) {
+        this.url = url;
+        this.source = source;
+    }
+}
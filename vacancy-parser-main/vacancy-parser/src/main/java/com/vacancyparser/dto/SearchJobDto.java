@@ -0,0 +1,25 @@
+package com.vacancyparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchJobDto {
+    private Long id;
+    private String url;
+    private String source;
+    private int priority;
+    private int maxPages;
+    private boolean enabled;
+    private LocalDateTime lastRunAt;
+    private Long lastRunDurationMs;
+    private Integer lastRunPages;
+    private Integer lastRunFound;
+    private Integer lastRunSaved;
+    private String lastError;
+}
@@ -0,0 +1,20 @@
+package com.vacancyparser.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchJobRequest {
+    @NotBlank
+    private String url;
+    private String source;
+    private Integer priority;
+    @Min(1)
+    private Integer maxPages;
+    private Boolean enabled;
+}
@@ -20,4 +20,9 @@ public class VacancyDto {
     private String sourceUrl;
     private String source;
     private LocalDateTime parsedAt;
+    private String description;
+    private String skills;
+    private String experience;
+    private String employmentType;
+    private LocalDateTime enrichedAt;
 }
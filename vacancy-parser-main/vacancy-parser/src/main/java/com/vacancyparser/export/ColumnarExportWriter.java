@@ -0,0 +1,161 @@
+package com.vacancyparser.export;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Компактный колоночный формат выгрузки (VPC1).
+ *
+ * <pre>
+ * файл       := "VPC1" rowGroup* varint(0)
+ * rowGroup   := varint(rows) idColumn column{14}
+ * idColumn   := zigzag-дельты id относительно предыдущей строки
+ * string     := varint(dictSize) (varint(len) utf8){dictSize} varint(index + 1){rows}   -- 0 = null
+ * date       := zigzag-дельты epoch-секунд (UTC) относительно предыдущей строки
+ * long       := zigzag-дельты значения относительно предыдущей строки (external_id)
+ * </pre>
+ * Порядок колонок — {@link ExportColumns#NAMES}.
+ *
+ * Строки буферизуются группами по {@code rowGroupSize}, поэтому память не зависит от размера таблицы.
+ */
+public class ColumnarExportWriter implements ExportRowWriter {
+
+    public static final byte[] MAGIC = {'V', 'P', 'C', '1'};
+
+    private static final int[] DATE_COLUMNS = {7, 10};
+    private static final int EXTERNAL_ID_COLUMN = 11;
+
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final long[] ids;
+    private final Object[][] columns;
+    private int rows;
+
+    public ColumnarExportWriter(OutputStream out, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.rowGroupSize = rowGroupSize;
+        this.ids = new long[rowGroupSize];
+        this.columns = new Object[ExportColumns.NAMES.length][rowGroupSize];
+        this.out.write(MAGIC);
+    }
+
+    @Override
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        ids[rows] = rs.getLong(1);
+        for (int column = 2; column <= ExportColumns.NAMES.length; column++) {
+            if (column == EXTERNAL_ID_COLUMN) {
+                columns[column - 1][rows] = rs.getLong(column);
+            } else {
+                columns[column - 1][rows] = isDate(column) ? epochSeconds(rs.getObject(column)) : rs.getString(column);
+            }
+        }
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            flushRowGroup();
+        }
+        writeVarLong(0);
+        out.flush();
+    }
+
+    private void flushRowGroup() throws IOException {
+        writeVarLong(rows);
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            writeVarLong(zigzag(ids[row] - previous));
+            previous = ids[row];
+        }
+        for (int column = 2; column <= ExportColumns.NAMES.length; column++) {
+            Object[] values = columns[column - 1];
+            if (column == EXTERNAL_ID_COLUMN) {
+                writeLongColumn(values);
+            } else if (isDate(column)) {
+                writeDateColumn(values);
+            } else {
+                writeStringColumn(values);
+            }
+            Arrays.fill(values, 0, rows, null);
+        }
+        rows = 0;
+    }
+
+    private void writeStringColumn(Object[] values) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] indexes = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            String value = (String) values[row];
+            indexes[row] = value == null ? 0 : dictionary.computeIfAbsent(value, v -> dictionary.size()) + 1;
+        }
+        String[] entries = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> entries[index] = value);
+        writeVarLong(entries.length);
+        for (String entry : entries) {
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+        for (int row = 0; row < rows; row++) {
+            writeVarLong(indexes[row]);
+        }
+    }
+
+    private void writeDateColumn(Object[] values) throws IOException {
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            long seconds = values[row] == null ? previous : (Long) values[row];
+            writeVarLong(zigzag(seconds - previous));
+            previous = seconds;
+        }
+    }
+
+    private void writeLongColumn(Object[] values) throws IOException {
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            long value = (Long) values[row];
+            writeVarLong(zigzag(value - previous));
+            previous = value;
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static boolean isDate(int column) {
+        return column == DATE_COLUMNS[0] || column == DATE_COLUMNS[1];
+    }
+
+    private static Long epochSeconds(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toEpochSecond(ZoneOffset.UTC);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.vacancyparser.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * CSV (RFC 4180) с заголовком; даты в ISO-8601
+ */
+public class CsvExportWriter implements ExportRowWriter {
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        for (int i = 0; i < ExportColumns.NAMES.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(ExportColumns.NAMES[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong(1)));
+        for (int column = 2; column <= ExportColumns.NAMES.length; column++) {
+            writer.write(',');
+            Object value = rs.getObject(column);
+            if (value instanceof Timestamp timestamp) {
+                writer.write(timestamp.toLocalDateTime().toString());
+            } else if (value != null) {
+                writeEscaped(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,21 @@
+package com.vacancyparser.export;
+
+/**
+ * Колонки выгрузки и SQL для курсора по таблице vacancies
+ */
+public final class ExportColumns {
+
+    public static final String[] NAMES = {
+            "id", "title", "company", "salary", "requirements", "city",
+            "published_date", "source_url", "source", "parsed_at",
+            "external_id", "description", "skills", "experience", "employment_type"
+    };
+
+    public static final String SELECT_SQL =
+            "SELECT id, title, company, salary, requirements, city, published_date, source_url, source, parsed_at, " +
+            "external_id, description, skills, experience, employment_type " +
+            "FROM vacancies ORDER BY id";
+
+    private ExportColumns() {
+    }
+}
@@ -0,0 +1,31 @@
+package com.vacancyparser.export;
+
+import java.util.Locale;
+
+/**
+ * Форматы выгрузки вакансий
+ */
+public enum ExportFormat {
+    CSV("csv"),
+    COLUMNAR("vpc");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Возвращает формат по имени из запроса
+     * @param name имя формата (csv, columnar)
+     * @return формат выгрузки
+     * @throws IllegalArgumentException если формат неизвестен
+     */
+    public static ExportFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,23 @@
+package com.vacancyparser.export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Потоковая запись строк выгрузки прямо из JDBC-курсора.
+ * Колонки ResultSet идут в порядке {@link ExportColumns#SELECT_SQL}.
+ */
+public interface ExportRowWriter {
+
+    /**
+     * Записывает текущую строку курсора
+     * @param rs курсор, установленный на строку
+     */
+    void writeRow(ResultSet rs) throws SQLException, IOException;
+
+    /**
+     * Дописывает хвост формата и сбрасывает буферы (поток не закрывается)
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,151 @@
+package com.vacancyparser.fetch;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Пул переиспользуемых буферов тела ответа. Тело страницы (для парсера, кэша ответов и архива страниц)
+ * читается в буфер из пула, а не в новый массив на каждую страницу.
+ * Буферы, выросшие больше {@code maxRetainedSize}, в пул не возвращаются.
+ * По мере записи буфер считает {@link XxHash64} тела: неизменившуюся страницу узнают без второго прохода.
+ */
+public class BodyBufferPool {
+
+    private final BlockingQueue<Buffer> pool;
+    private final int initialSize;
+    private final int maxRetainedSize;
+
+    public BodyBufferPool(int maxPooled, int initialSize, int maxRetainedSize) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+        this.initialSize = initialSize;
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    public Buffer acquire() {
+        return acquire(-1);
+    }
+
+    /**
+     * Берёт буфер из пула, а если пул пуст — создаёт новый по ожидаемому размеру тела.
+     * Когда одновременных загрузок больше, чем буферов в пуле (виртуальные потоки), новые буферы
+     * не выделяются по {@code initialSize} под каждую маленькую страницу.
+     * @param expectedSize ожидаемый размер тела (Content-Length), -1 — неизвестен
+     */
+    public Buffer acquire(long expectedSize) {
+        Buffer buffer = pool.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        return new Buffer(expectedSize > 0 ? (int) Math.min(expectedSize, initialSize) : initialSize);
+    }
+
+    public void release(Buffer buffer) {
+        buffer.size = 0;
+        buffer.hash.reset();
+        if (buffer.data.length <= maxRetainedSize) {
+            pool.offer(buffer);
+        }
+    }
+
+    /**
+     * Количество свободных буферов в пуле
+     */
+    public int available() {
+        return pool.size();
+    }
+
+    /**
+     * Растущий буфер. Данные действительны до возврата буфера в пул.
+     */
+    public static final class Buffer {
+
+        private final XxHash64 hash = new XxHash64();
+        private byte[] data;
+        private int size;
+
+        private Buffer(int initialSize) {
+            this.data = new byte[Math.max(1024, initialSize)];
+        }
+
+        public byte[] array() {
+            return data;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * XXH64 записанных в буфер байт
+         */
+        public long hash() {
+            return hash.digest();
+        }
+
+        /**
+         * Оборачивает поток так, что всё прочитанное из него копируется в буфер
+         * @param in исходный поток
+         * @param maxBytes предел тела, при превышении чтение прерывается {@link BodyTooLargeException}
+         * @return поток для парсера
+         */
+        public InputStream capture(InputStream in, long maxBytes) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        append(new byte[]{(byte) b}, 0, 1, maxBytes);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        append(b, off, n, maxBytes);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    // Пропуск без копирования испортил бы копию тела
+                    byte[] skipped = new byte[(int) Math.min(n, 8192)];
+                    int read = read(skipped, 0, skipped.length);
+                    return Math.max(0, read);
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+            };
+        }
+
+        private void append(byte[] b, int off, int len, long maxBytes) throws BodyTooLargeException {
+            if ((long) size + len > maxBytes) {
+                throw new BodyTooLargeException(maxBytes);
+            }
+            if (size + len > data.length) {
+                data = Arrays.copyOf(data, (int) Math.min(maxBytes, Math.max((long) data.length * 2, size + len)));
+            }
+            System.arraycopy(b, off, data, size, len);
+            hash.update(b, off, len);
+            size += len;
+        }
+    }
+
+    /**
+     * Тело ответа больше {@code parser.fetch.max.body.size}
+     */
+    public static class BodyTooLargeException extends IOException {
+        public BodyTooLargeException(long maxBytes) {
+            super("Response body exceeds " + maxBytes + " bytes");
+        }
+    }
+}
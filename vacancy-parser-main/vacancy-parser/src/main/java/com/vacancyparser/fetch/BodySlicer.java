@@ -0,0 +1,29 @@
+package com.vacancyparser.fetch;
+
+import java.util.Optional;
+
+/**
+ * Поиск нужного фрагмента тела ответа до построения DOM: парсер получает только его,
+ * а не всю страницу со скриптами, шапкой и подвалом
+ */
+@FunctionalInterface
+public interface BodySlicer {
+
+    /**
+     * Фрагмент тела
+     * @param start начало (включительно)
+     * @param end конец (не включительно)
+     */
+    record Range(int start, int end) {
+        public int length() {
+            return end - start;
+        }
+    }
+
+    /**
+     * @param body тело ответа
+     * @param length длина тела в массиве
+     * @return фрагмент или пусто — тогда разбирается вся страница
+     */
+    Optional<Range> find(byte[] body, int length);
+}
@@ -0,0 +1,100 @@
+package com.vacancyparser.fetch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Автоматический выключатель одного источника. После {@code failureThreshold} сбоев подряд
+ * переходит в OPEN и сразу отклоняет запросы; через {@code openMillis} пропускает один пробный
+ * запрос (HALF_OPEN): успех закрывает выключатель, сбой снова открывает его.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * Можно ли отправить запрос. В HALF_OPEN разрешается только один пробный запрос.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Источник ответил (в том числе ошибкой клиента, например 404)
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Временный сбой: таймаут, ошибка соединения или 5xx
+     */
+    synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Запрос не дал ответа о состоянии источника (отменён проходом)
+     */
+    synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Сколько миллисекунд выключатель ещё будет открыт (0 — не открыт)
+     */
+    synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openedAt + openNanos - clock.getAsLong()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.vacancyparser.fetch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Состояние выключателей источников в {@code /actuator/health}. Открытый выключатель значит, что
+ * недоступен внешний сайт, а не что неисправно приложение: статус всегда UP, состояния выключателей
+ * и список открытых — в деталях. Индикатор не входит в группы liveness и readiness
+ * ({@code management.endpoint.health.group.*}), так что сбой сайта не перезапускает экземпляры.
+ */
+@Component("sourceCircuitBreakers")
+@RequiredArgsConstructor
+public class CircuitBreakerHealthIndicator implements HealthIndicator {
+
+    private final ResilientFetcher resilientFetcher;
+
+    @Override
+    public Health health() {
+        Map<String, ResilientFetcher.BreakerStatus> statuses = resilientFetcher.getBreakerStatuses();
+        List<String> open = statuses.entrySet().stream()
+                .filter(entry -> CircuitBreaker.State.OPEN.name().equals(entry.getValue().state()))
+                .map(Map.Entry::getKey)
+                .toList();
+        return Health.up().withDetails(statuses).withDetail("open", open).build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.vacancyparser.fetch;
+
+import java.io.IOException;
+
+/**
+ * Источник отключён автоматическим выключателем: запрос не отправлялся
+ */
+public class CircuitOpenException extends IOException {
+
+    private final String source;
+
+    /**
+     * @param source источник
+     * @param retryInMillis через сколько будет пробный запрос
+     */
+    public CircuitOpenException(String source, long retryInMillis) {
+        super("Circuit breaker for " + source + " is open, next probe in " + retryInMillis + " ms");
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,66 @@
+package com.vacancyparser.fetch;
+
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+
+/**
+ * Загруженное, но ещё не разобранное тело страницы. Байты могут лежать в буфере из пула
+ * {@link BodyBufferPool}: после разбора страницу нужно закрыть, чтобы вернуть буфер.
+ */
+public final class FetchedPage implements AutoCloseable {
+
+    private final byte[] body;
+    private final int length;
+    private final String contentType;
+    private final String baseUri;
+    private final Runnable release;
+    private final boolean downloaded;
+    private boolean closed;
+
+    FetchedPage(byte[] body, int length, String contentType, String baseUri, Runnable release, boolean downloaded) {
+        this.body = body;
+        this.length = length;
+        this.contentType = contentType;
+        this.baseUri = baseUri;
+        this.release = release;
+        this.downloaded = downloaded;
+    }
+
+    /**
+     * Разбирает тело (или найденный {@code slicer} фрагмент)
+     * @param slicer поиск фрагмента, null — разбирать всё тело
+     * @return HTML-документ
+     */
+    public Document parse(BodySlicer slicer) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Page body already released: " + baseUri);
+        }
+        return PageFetcher.parse(body, length, contentType, baseUri, slicer);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Тело загружено из сети в этом запросе (а не взято из кэша ответов)
+     */
+    public boolean isDownloaded() {
+        return downloaded;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (release != null) {
+                release.run();
+            }
+        }
+    }
+}
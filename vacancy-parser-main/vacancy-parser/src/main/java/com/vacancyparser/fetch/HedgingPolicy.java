@@ -0,0 +1,102 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.service.MetricsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Политика дублирующих (hedged) запросов. Если сайт не ответил за p95 времени до заголовков ответа
+ * этого хоста (по {@link HostLatencyTracker}), отправляется второй такой же запрос и берётся тот,
+ * что ответит первым. Доля дублей ограничена
+ * бюджетом: каждый запрос добавляет {@code max.fraction} жетона, дубль тратит один,
+ * поэтому дополнительная нагрузка на сайт не превышает {@code max.fraction} от обычной.
+ * Пока по хосту мало замеров ({@code parser.fetch.timeout.min.samples}), дубли не отправляются.
+ */
+@Component
+public class HedgingPolicy {
+
+    // Сколько жетонов может накопиться за спокойный период
+    private static final double MAX_BUDGET = 10;
+    private static final double PERCENTILE = 0.95;
+
+    private final MetricsService metricsService;
+    private final HostLatencyTracker latencyTracker;
+    private final boolean enabled;
+    private final double maxFraction;
+    private final long minDelayMillis;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    public HedgingPolicy(MetricsService metricsService,
+                         HostLatencyTracker latencyTracker,
+                         @Value("${parser.fetch.hedge.enabled:true}") boolean enabled,
+                         @Value("${parser.fetch.hedge.max.fraction:0.05}") double maxFraction,
+                         @Value("${parser.fetch.hedge.min.delay:100}") long minDelayMillis) {
+        this.metricsService = metricsService;
+        this.latencyTracker = latencyTracker;
+        this.enabled = enabled;
+        this.maxFraction = maxFraction;
+        this.minDelayMillis = minDelayMillis;
+    }
+
+    /**
+     * Через сколько отправлять дубль запроса к хосту
+     * @return миллисекунды или -1, если дубль не нужен
+     */
+    public long hedgeDelayMillis(String host) {
+        if (!enabled) {
+            return -1;
+        }
+        HostState state = state(host);
+        synchronized (state) {
+            state.budget = Math.min(MAX_BUDGET, state.budget + maxFraction);
+            if (state.budget < 1) {
+                return -1;
+            }
+        }
+        long p95 = latencyTracker.percentile(host, HostLatencyTracker.Phase.TTFB, PERCENTILE);
+        return p95 < 0 ? -1 : Math.max(minDelayMillis, p95);
+    }
+
+    /**
+     * Тратит жетон бюджета на дубль
+     * @return false — бюджет исчерпан, дубль не отправлять
+     */
+    public boolean tryHedge(String host) {
+        HostState state = state(host);
+        synchronized (state) {
+            if (state.budget < 1) {
+                return false;
+            }
+            state.budget -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * Учитывает исход дубля
+     * @param won true — дубль ответил раньше исходного запроса
+     */
+    public void recordHedge(String host, boolean won) {
+        metricsService.incrementHedgedRequests(normalize(host), won);
+    }
+
+    private HostState state(String host) {
+        return hosts.computeIfAbsent(normalize(host), h -> new HostState());
+    }
+
+    private static String normalize(String host) {
+        return host == null ? "" : host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Бюджет дублей хоста
+     */
+    private static final class HostState {
+        private double budget;
+    }
+}
@@ -0,0 +1,111 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.service.MetricsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Гистограммы задержек по хостам и таймауты, выведенные из них. Отдельно учитываются время
+ * до заголовков ответа (TTFB) и полное время запроса с чтением тела. Таймаут этапа —
+ * p99 × {@code factor}, в пределах {@code min}..{@code parser.fetch.timeout}; пока замеров мало,
+ * действует верхняя граница. В гистограммы попадают только полученные ответы: сработавший таймаут
+ * считается отдельно ({@link #recordTimeout}), иначе зависшие соединения сами поднимали бы p99
+ * до прошлого таймаута и таймаут снова дорастал бы до верхней границы.
+ */
+@Component
+public class HostLatencyTracker {
+
+    // Доля свежих замеров: счётчики делятся пополам каждые DECAY_EVERY ответов хоста
+    private static final int DECAY_EVERY = 512;
+    private static final double TIMEOUT_PERCENTILE = 0.99;
+
+    /**
+     * Этап запроса
+     */
+    public enum Phase {
+        TTFB, TOTAL
+    }
+
+    private final MetricsService metricsService;
+    private final long maxTimeoutMillis;
+    private final long minTimeoutMillis;
+    private final double factor;
+    private final int minSamples;
+
+    private final Map<String, HostLatency> hosts = new ConcurrentHashMap<>();
+
+    public HostLatencyTracker(MetricsService metricsService,
+                              @Value("${parser.fetch.timeout:30000}") long maxTimeoutMillis,
+                              @Value("${parser.fetch.timeout.min:2000}") long minTimeoutMillis,
+                              @Value("${parser.fetch.timeout.factor:3}") double factor,
+                              @Value("${parser.fetch.timeout.min.samples:20}") int minSamples) {
+        this.metricsService = metricsService;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.minTimeoutMillis = Math.min(minTimeoutMillis, maxTimeoutMillis);
+        this.factor = factor;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Записывает задержку этапа
+     */
+    public void record(String host, Phase phase, long millis) {
+        latency(host).histogram(phase).record(Math.max(0, millis));
+    }
+
+    /**
+     * Учитывает сработавший таймаут этапа. На гистограмму и таймаут не влияет
+     */
+    public void recordTimeout(String host, Phase phase) {
+        metricsService.incrementHostTimeout(host == null ? "" : host.toLowerCase(Locale.ROOT),
+                phase.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Перцентиль задержки этапа
+     * @return миллисекунды или -1, если замеров меньше {@code minSamples}
+     */
+    public long percentile(String host, Phase phase, double p) {
+        LatencyHistogram histogram = latency(host).histogram(phase);
+        return histogram.getSamples() < Math.max(1, minSamples) ? -1 : histogram.percentile(p);
+    }
+
+    /**
+     * Таймаут этапа для хоста
+     */
+    public long timeoutMillis(String host, Phase phase) {
+        long p99 = percentile(host, phase, TIMEOUT_PERCENTILE);
+        if (p99 < 0) {
+            return maxTimeoutMillis;
+        }
+        return Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, (long) Math.ceil(p99 * factor)));
+    }
+
+    private HostLatency latency(String host) {
+        return hosts.computeIfAbsent(host == null ? "" : host.toLowerCase(Locale.ROOT), h -> {
+            HostLatency latency = new HostLatency();
+            metricsService.registerHostGauge("vacancy.fetch.host.timeout.ttfb", h, this,
+                    tracker -> tracker.timeoutMillis(h, Phase.TTFB), "Таймаут до заголовков ответа хоста, мс");
+            metricsService.registerHostGauge("vacancy.fetch.host.timeout.total", h, this,
+                    tracker -> tracker.timeoutMillis(h, Phase.TOTAL), "Таймаут всего запроса к хосту, мс");
+            metricsService.registerHostGauge("vacancy.fetch.host.latency.ttfb.p99", h, latency,
+                    l -> l.ttfb.percentile(TIMEOUT_PERCENTILE), "p99 времени до заголовков ответа хоста, мс");
+            metricsService.registerHostGauge("vacancy.fetch.host.latency.total.p99", h, latency,
+                    l -> l.total.percentile(TIMEOUT_PERCENTILE), "p99 времени всего запроса к хосту, мс");
+            return latency;
+        });
+    }
+
+    private static final class HostLatency {
+        private final LatencyHistogram ttfb = new LatencyHistogram(DECAY_EVERY);
+        private final LatencyHistogram total = new LatencyHistogram(DECAY_EVERY);
+
+        private LatencyHistogram histogram(Phase phase) {
+            return phase == Phase.TTFB ? ttfb : total;
+        }
+    }
+}
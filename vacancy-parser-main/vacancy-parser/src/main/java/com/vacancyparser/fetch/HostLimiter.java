@@ -0,0 +1,294 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель запросов к одному хосту: token bucket задаёт темп запросов,
+ * AIMD — число одновременных запросов. Лимит растёт на 1/limit за каждый быстрый успешный ответ,
+ * пришедший, когда заняты все слоты (примерно +1 за «окно» ответов под полной нагрузкой): пока запросов
+ * меньше предела, быстрые ответы ничего не говорят о запасе хоста. Уменьшается лимит
+ * в {@code decreaseFactor} раз на 429/503, ошибки соединения и медленные ответы — не чаще раза
+ * в {@link #DECREASE_COOLDOWN_NANOS}.
+ * Retry-After приостанавливает выдачу токенов до указанного времени.
+ * Фоновые запросы (дозагрузка карточек вакансий) не берут последний слот и последний токен
+ * и пропускают вперёд ждущие запросы выдачи: обход выдачи из-за них не замедляется.
+ */
+final class HostLimiter {
+
+    // Ответы, пришедшие до первого снижения, отражают ту же перегрузку — снижаем один раз
+    static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Ожидание прерывается периодически, чтобы заметить отмену прохода
+    private static final long MAX_WAIT_MILLIS = 250;
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double decreaseFactor;
+    private final long slowNanos;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+    private long blockedUntil;
+    private long lastDecrease;
+    private double limit;
+    private int inFlight;
+    // Запросы выдачи, ждущие слота: пока они есть, фоновые запросы не начинаются
+    private int waiting;
+
+    // Не монитор: виртуальный поток, ждущий слота в Object.wait, занял бы поток-носитель
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Condition backgroundReleased = lock.newCondition();
+
+    HostLimiter(double ratePerSecond, double burst, double initialLimit, double minLimit, double maxLimit,
+                double decreaseFactor, long slowMillis, LongSupplier clock) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.decreaseFactor = decreaseFactor;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.lastRefill = clock.getAsLong();
+        this.blockedUntil = lastRefill;
+        this.lastDecrease = lastRefill - DECREASE_COOLDOWN_NANOS;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Ждёт слот не дольше дедлайна прохода
+     * @param context дедлайн и отмена прохода
+     */
+    void acquire(CrawlContext context) throws InterruptedIOException {
+        acquire(context, false);
+    }
+
+    /**
+     * Ждёт слот не дольше дедлайна прохода
+     * @param context дедлайн и отмена прохода
+     * @param background фоновый запрос: уступает запросам выдачи
+     */
+    void acquire(CrawlContext context, boolean background) throws InterruptedIOException {
+        Condition condition = background ? backgroundReleased : released;
+        lock.lock();
+        try {
+            while (true) {
+                context.checkActive();
+                long waitNanos = tryAcquire(background);
+                if (waitNanos == 0) {
+                    // Освободившийся слот будит одного ожидающего; если слоты ещё есть (лимит вырос), будим следующего
+                    if (inFlight < (int) limit) {
+                        signalNext();
+                    }
+                    return;
+                }
+                long remaining = context.remainingMillis();
+                if (remaining <= 0) {
+                    throw new CrawlCancelledException("Deadline exceeded");
+                }
+                long waitMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                if (!background) {
+                    waiting++;
+                }
+                try {
+                    condition.await(Math.min(waitMillis, Math.min(remaining, MAX_WAIT_MILLIS)), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    context.checkActive();
+                    throw new InterruptedIOException("Interrupted while waiting for host permit");
+                } finally {
+                    if (!background) {
+                        waiting--;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пытается занять слот: свободный слот конкурентности и токен
+     * @return 0, если слот занят; иначе сколько наносекунд подождать перед повторной попыткой
+     *         ({@link Long#MAX_VALUE} — ждать освобождения слота)
+     */
+    long tryAcquire() {
+        return tryAcquire(false);
+    }
+
+    /**
+     * Пытается занять слот. Фоновому запросу нужны ещё один свободный слот и ещё один токен сверх своих,
+     * и ни одного ждущего запроса выдачи.
+     * @param background фоновый запрос
+     */
+    long tryAcquire(boolean background) {
+        int reserve = background ? 1 : 0;
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (inFlight >= (int) limit - reserve || (background && waiting > 0)) {
+                return Long.MAX_VALUE;
+            }
+            if (now - blockedUntil < 0) {
+                return blockedUntil - now;
+            }
+            refill(now);
+            if (tokens < 1 + reserve) {
+                return Math.max(1, (long) ((1 + reserve - tokens) / ratePerSecond * 1_000_000_000L));
+            }
+            tokens -= 1;
+            inFlight++;
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Берёт токен без слота конкурентности и без ожидания — для дубля запроса,
+     * который идёт под разрешением исходного
+     * @return false — токенов нет или хост попросил паузу
+     */
+    boolean tryTakeToken() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (now - blockedUntil < 0) {
+                return false;
+            }
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ответ получен
+     * @param latencyNanos время ответа
+     */
+    void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            signalNext();
+            if (latencyNanos > slowNanos) {
+                decrease();
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Хост просит снизить нагрузку (429/503)
+     * @param retryAfterMillis пауза из Retry-After, 0 — не указана
+     */
+    void onThrottled(long retryAfterMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNext();
+            decrease();
+            if (retryAfterMillis > 0) {
+                long until = clock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+                if (until - blockedUntil > 0) {
+                    blockedUntil = until;
+                    tokens = 0;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Таймаут или ошибка соединения — признак перегрузки хоста
+     */
+    void onFailure() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNext();
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Запрос отменён вызывающим — на лимит не влияет
+     */
+    void onCancelled() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Будит ждущий запрос выдачи, а если таких нет — фоновый
+     */
+    private void signalNext() {
+        if (waiting > 0) {
+            released.signal();
+        } else {
+            backgroundReleased.signal();
+        }
+    }
+
+    private void decrease() {
+        long now = clock.getAsLong();
+        if (now - lastDecrease < DECREASE_COOLDOWN_NANOS) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max(minLimit, limit * decreaseFactor);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed / 1_000_000_000.0 * ratePerSecond);
+            lastRefill = now;
+        }
+    }
+}
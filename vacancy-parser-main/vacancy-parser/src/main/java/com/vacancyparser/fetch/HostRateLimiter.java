@@ -0,0 +1,148 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничители запросов по хостам ({@link HostLimiter}). Каждый сайт получает свой темп
+ * и свой предел одновременных запросов, который подстраивается под ответы сайта:
+ * растёт, пока ответы быстрые, и падает на 429/503, таймаутах и медленных ответах.
+ * Текущий предел и число запросов в работе экспортируются метриками с тегом {@code host}.
+ */
+@Component
+@Slf4j
+public class HostRateLimiter {
+
+    private final MetricsService metricsService;
+    private final double rate;
+    private final double burst;
+    private final double initialLimit;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double decreaseFactor;
+    private final long slowMillis;
+
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(MetricsService metricsService,
+                           @Value("${parser.fetch.host.rate:2}") double rate,
+                           @Value("${parser.fetch.host.burst:4}") double burst,
+                           @Value("${parser.fetch.host.concurrency.initial:2}") double initialLimit,
+                           @Value("${parser.fetch.host.concurrency.min:1}") double minLimit,
+                           @Value("${parser.fetch.host.concurrency.max:16}") double maxLimit,
+                           @Value("${parser.fetch.host.decrease.factor:0.5}") double decreaseFactor,
+                           @Value("${parser.fetch.host.slow.threshold:5000}") long slowMillis) {
+        this.metricsService = metricsService;
+        this.rate = rate;
+        this.burst = burst;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.decreaseFactor = decreaseFactor;
+        this.slowMillis = slowMillis;
+    }
+
+    /**
+     * Ждёт разрешения на запрос к хосту
+     * @param host хост
+     * @param context дедлайн и отмена прохода
+     * @return разрешение, которое нужно закрыть одним из методов {@link Permit}
+     */
+    public Permit acquire(String host, CrawlContext context) throws InterruptedIOException {
+        return acquire(host, context, false);
+    }
+
+    /**
+     * Ждёт разрешения на запрос к хосту
+     * @param host хост
+     * @param context дедлайн и отмена прохода
+     * @param background фоновый запрос: не занимает последний слот и токен хоста и уступает запросам выдачи
+     * @return разрешение, которое нужно закрыть одним из методов {@link Permit}
+     */
+    public Permit acquire(String host, CrawlContext context, boolean background) throws InterruptedIOException {
+        HostLimiter limiter = limiter(host == null ? "" : host.toLowerCase(Locale.ROOT));
+        limiter.acquire(context, background);
+        return new Permit(host, limiter, System.nanoTime());
+    }
+
+    /**
+     * Берёт токен хоста для дубля запроса, не дожидаясь его
+     * @return false — токенов нет, дубль не отправлять
+     */
+    public boolean tryToken(String host) {
+        return limiter(host == null ? "" : host.toLowerCase(Locale.ROOT)).tryTakeToken();
+    }
+
+    /**
+     * Текущий предел одновременных запросов к хосту (0 — к хосту ещё не обращались)
+     */
+    public double getLimit(String host) {
+        HostLimiter limiter = limiters.get(host.toLowerCase(Locale.ROOT));
+        return limiter != null ? limiter.getLimit() : 0;
+    }
+
+    private HostLimiter limiter(String host) {
+        return limiters.computeIfAbsent(host, h -> {
+            HostLimiter limiter = new HostLimiter(rate, burst, initialLimit, minLimit, maxLimit,
+                    decreaseFactor, slowMillis, System::nanoTime);
+            metricsService.registerHostGauge("vacancy.fetch.host.concurrency.limit", h, limiter,
+                    HostLimiter::getLimit, "Текущий предел одновременных запросов к хосту");
+            metricsService.registerHostGauge("vacancy.fetch.host.in.flight", h, limiter,
+                    HostLimiter::getInFlight, "Запросы к хосту в работе");
+            return limiter;
+        });
+    }
+
+    /**
+     * Разрешение на один запрос. Результат запроса сообщается ровно один раз.
+     */
+    public final class Permit {
+
+        private final String host;
+        private final HostLimiter limiter;
+        private final long startedAt;
+
+        private Permit(String host, HostLimiter limiter, long startedAt) {
+            this.host = host;
+            this.limiter = limiter;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Сайт ответил
+         * @param status HTTP-статус
+         * @param retryAfterMillis пауза из Retry-After, 0 — не указана
+         */
+        public void completed(int status, long retryAfterMillis) {
+            if (status == 429 || status == 503) {
+                limiter.onThrottled(retryAfterMillis);
+                metricsService.incrementHostThrottled(host);
+                log.debug("Host {} answered {}, concurrency limit lowered to {}", host, status, limiter.getLimit());
+            } else {
+                limiter.onSuccess(System.nanoTime() - startedAt);
+            }
+        }
+
+        /**
+         * Таймаут или ошибка соединения
+         */
+        public void failed() {
+            limiter.onFailure();
+        }
+
+        /**
+         * Запрос отменён проходом
+         */
+        public void cancelled() {
+            limiter.onCancelled();
+        }
+    }
+}
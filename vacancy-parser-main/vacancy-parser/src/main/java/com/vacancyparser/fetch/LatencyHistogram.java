@@ -0,0 +1,81 @@
+package com.vacancyparser.fetch;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами (шаг 25%, от 1 мс до ~9 мин).
+ * Каждые {@code decayEvery} замеров счётчики делятся пополам, поэтому перцентили
+ * отражают в основном недавние ответы и подстраиваются под изменение скорости сайта.
+ */
+final class LatencyHistogram {
+
+    private static final double RATIO = 1.25;
+    private static final int BUCKETS = 60;
+    private static final long[] UPPER_BOUNDS = new long[BUCKETS];
+
+    static {
+        double bound = 1;
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER_BOUNDS[i] = (long) Math.ceil(bound);
+            bound *= RATIO;
+        }
+    }
+
+    private final long[] counts = new long[BUCKETS];
+    private final int decayEvery;
+    private long total;
+    private long samples;
+    private int sinceDecay;
+
+    LatencyHistogram(int decayEvery) {
+        this.decayEvery = Math.max(1, decayEvery);
+    }
+
+    synchronized void record(long millis) {
+        counts[bucket(millis)]++;
+        total++;
+        samples++;
+        if (++sinceDecay >= decayEvery) {
+            sinceDecay = 0;
+            total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] >>= 1;
+                total += counts[i];
+            }
+        }
+    }
+
+    /**
+     * Верхняя граница корзины, в которую попадает перцентиль
+     * @param p доля от 0 до 1
+     * @return миллисекунды или -1, если замеров нет
+     */
+    synchronized long percentile(double p) {
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return UPPER_BOUNDS[i];
+            }
+        }
+        return UPPER_BOUNDS[BUCKETS - 1];
+    }
+
+    /**
+     * Всего замеров за время жизни гистограммы
+     */
+    synchronized long getSamples() {
+        return samples;
+    }
+
+    private static int bucket(long millis) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (millis <= UPPER_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS - 1;
+    }
+}
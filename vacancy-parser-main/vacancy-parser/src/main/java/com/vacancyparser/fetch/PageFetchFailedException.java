@@ -0,0 +1,24 @@
+package com.vacancyparser.fetch;
+
+/**
+ * Страницу выдачи не удалось загрузить или разобрать: повторы исчерпаны, источник отключён
+ * выключателем или разбор упал. Проход поиска должен завершиться ошибкой, а не считать выдачу
+ * закончившейся, иначе страницы после неудачной окажутся за новой отметкой и будут потеряны.
+ */
+public class PageFetchFailedException extends RuntimeException {
+
+    private final String url;
+
+    /**
+     * @param url адрес страницы
+     * @param cause исходная ошибка ({@link java.io.IOException}, {@link CircuitOpenException} и т.п.)
+     */
+    public PageFetchFailedException(String url, Throwable cause) {
+        super("Failed to fetch page " + url + ": " + cause.getMessage(), cause);
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -0,0 +1,491 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Загрузка страниц выдачи через {@link HttpClient}. Таймауты до заголовков ответа и всего запроса
+ * подбираются по истории задержек хоста ({@link HostLatencyTracker}) и не превышают остаток
+ * дедлайна прохода, а сам запрос регистрируется в {@link CrawlContext}: отмена прохода
+ * отменяет future, и клиент закрывает соединение, не дожидаясь ответа.
+ * Темп и число одновременных запросов к каждому хосту задаёт {@link HostRateLimiter}.
+ * Если сайт долго не отвечает, по {@link HedgingPolicy} отправляется дубль запроса и берётся первый ответ.
+ * Ответы кэшируются в {@link ResponseCache}: повторный запрос в пределах окна свежести не уходит в сеть,
+ * а после него отправляется условным ({@code If-None-Match}/{@code If-Modified-Since}).
+ * Тело хэшируется ({@link XxHash64}) по мере чтения: если сайт прислал страницу выдачи байт в байт
+ * такой же, как уже обработанная версия, она не разбирается ({@link PageNotModifiedException.Reason#IDENTICAL}).
+ * Каждое загруженное тело дописывается в {@link PageArchive} для повторного разбора без сети.
+ * Загрузка и разбор разделены: {@link #fetchBody} только читает тело (с распаковкой) в буфер из пула,
+ * без промежуточной строки, а разбор {@link FetchedPage#parse} можно выполнить в другом потоке.
+ * С {@link BodySlicer} парсер получает только найденный фрагмент тела.
+ */
+@Slf4j
+@Component
+public class PageFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final Pattern CHARSET = Pattern.compile("(?i)charset=[\"']?([^\\s;\"'>/]+)");
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+    // Объявление кодировки в meta ищется только в начале документа
+    private static final int CHARSET_SNIFF_BYTES = 4096;
+
+    private final HttpClient httpClient;
+    private final HostRateLimiter rateLimiter;
+    private final HedgingPolicy hedgingPolicy;
+    private final HostLatencyTracker latencyTracker;
+    private final ResponseCache responseCache;
+    private final PageArchive pageArchive;
+    private final BodyBufferPool bufferPool;
+    private final long maxBodyBytes;
+
+    public PageFetcher(HostRateLimiter rateLimiter,
+                       HedgingPolicy hedgingPolicy,
+                       HostLatencyTracker latencyTracker,
+                       ResponseCache responseCache,
+                       PageArchive pageArchive,
+                       @Value("${parser.fetch.connect.timeout:10000}") long connectTimeoutMillis,
+                       @Value("${parser.fetch.max.body.size:10485760}") long maxBodyBytes,
+                       @Value("${parser.pipeline.fetch.threads:32}") int bufferPoolSize) {
+        this.rateLimiter = rateLimiter;
+        this.hedgingPolicy = hedgingPolicy;
+        this.latencyTracker = latencyTracker;
+        this.responseCache = responseCache;
+        this.pageArchive = pageArchive;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.maxBodyBytes = maxBodyBytes;
+        this.bufferPool = new BodyBufferPool(bufferPoolSize, INITIAL_BUFFER_SIZE, MAX_RETAINED_BUFFER_SIZE);
+    }
+
+    /**
+     * Загружает и разбирает страницу
+     * @param url адрес страницы
+     * @param referrer значение заголовка Referer
+     * @param context дедлайн и отмена прохода
+     * @return HTML-документ
+     */
+    public Document fetch(String url, String referrer, CrawlContext context) throws IOException {
+        return fetch(url, referrer, context, null);
+    }
+
+    /**
+     * Загружает страницу и разбирает только фрагмент, найденный {@code slicer}
+     * @param slicer поиск фрагмента, null — разбирать всю страницу
+     * @return HTML-документ из фрагмента или всей страницы, если фрагмент не найден
+     */
+    public Document fetch(String url, String referrer, CrawlContext context, BodySlicer slicer) throws IOException {
+        try (FetchedPage page = fetchBody(url, referrer, context)) {
+            return page.parse(slicer);
+        }
+    }
+
+    /**
+     * Загружает тело страницы без разбора
+     * @param url адрес страницы
+     * @param referrer значение заголовка Referer
+     * @param context дедлайн и отмена прохода
+     * @return тело страницы, которое нужно закрыть после разбора
+     * @throws PageNotModifiedException если вакансии этой версии страницы уже сохранены (в том числе
+     * если сайт прислал тело, совпадающее с обработанной версией)
+     */
+    public FetchedPage fetchBody(String url, String referrer, CrawlContext context) throws IOException {
+        return fetchBody(url, referrer, context, false);
+    }
+
+    /**
+     * Загружает страницу вакансии для дозагрузки подробностей. Запрос фоновый ({@link HostRateLimiter}):
+     * он не занимает последний слот хоста и уступает запросам выдачи. Кэш ответов и архив страниц
+     * хранят только выдачу, поэтому страница вакансии в них не попадает.
+     * @return тело страницы, которое нужно закрыть после разбора
+     */
+    public FetchedPage fetchDetail(String url, String referrer, CrawlContext context) throws IOException {
+        return fetchBody(url, referrer, context, true);
+    }
+
+    private FetchedPage fetchBody(String url, String referrer, CrawlContext context, boolean detail) throws IOException {
+        context.checkActive();
+        ResponseCache.Entry cached = detail ? null : responseCache.get(url).orElse(null);
+        if (cached != null && responseCache.isFresh(cached)) {
+            FetchedPage page = fromCache(url, cached, false);
+            if (page != null) {
+                return page;
+            }
+            cached = null;
+        }
+
+        URI uri = URI.create(url);
+        HostRateLimiter.Permit permit = rateLimiter.acquire(uri.getHost(), context, detail);
+        // Буфер берётся только под тело: тысячи запросов, ждущих заголовков, не держат по буферу
+        BodyBufferPool.Buffer buffer = null;
+        boolean handedOver = false;
+        try {
+            HttpResponse<InputStream> response;
+            boolean bodyRead = false;
+            long startedAt = System.nanoTime();
+            try {
+                response = send(uri, referrer, cached, context);
+                int status = response.statusCode();
+                if (status >= 200 && status < 300) {
+                    buffer = bufferPool.acquire(response.headers().firstValueAsLong("Content-Length").orElse(-1));
+                    readBody(response, buffer, context, startedAt);
+                    bodyRead = true;
+                    latencyTracker.record(uri.getHost(), HostLatencyTracker.Phase.TOTAL, elapsedMillis(startedAt));
+                } else {
+                    response.body().close();
+                }
+            } catch (CrawlCancelledException | InterruptedIOException e) {
+                permit.cancelled();
+                throw e;
+            } catch (BodyBufferPool.BodyTooLargeException e) {
+                // Сайт ответил, просто страница слишком большая — на предел хоста не влияет
+                permit.completed(200, 0);
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                permit.failed();
+                throw e;
+            }
+            int status = response.statusCode();
+            permit.completed(status, retryAfterMillis(response));
+            if (status == 304 && cached != null) {
+                responseCache.revalidated(url);
+                FetchedPage fromCache = fromCache(url, cached, true);
+                if (fromCache != null) {
+                    return fromCache;
+                }
+                // Тело пропало из кэша (запись уже удалена) — загружаем страницу заново
+                return fetchBody(url, referrer, context);
+            }
+            if (!bodyRead) {
+                throw new HttpStatusException("HTTP error fetching URL", status, url);
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            String finalUrl = response.uri().toString();
+            if (!detail) {
+                // Хэш тела посчитан при чтении; та же версия, что уже обработана, в кэше остаётся обработанной
+                boolean identical = responseCache.isProcessedBody(url, buffer.hash());
+                if (identical) {
+                    responseCache.revalidated(url);
+                } else {
+                    responseCache.store(url, response.headers().firstValue("ETag").orElse(null),
+                            response.headers().firstValue("Last-Modified").orElse(null),
+                            contentType, finalUrl, buffer.array(), buffer.size());
+                }
+                pageArchive.append(finalUrl, contentType, buffer.array(), buffer.size());
+                if (identical) {
+                    throw new PageNotModifiedException(url, PageNotModifiedException.Reason.IDENTICAL, buffer.size());
+                }
+            }
+            handedOver = true;
+            BodyBufferPool.Buffer body = buffer;
+            return new FetchedPage(body.array(), body.size(), contentType, finalUrl, () -> bufferPool.release(body), true);
+        } finally {
+            if (buffer != null && !handedOver) {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Читает тело ответа (с распаковкой gzip/deflate) в буфер из пула. Запрос вместе с чтением тела
+     * ограничен таймаутом всего запроса к хосту и прерывается отменой прохода: поток закрывается.
+     */
+    private void readBody(HttpResponse<InputStream> response, BodyBufferPool.Buffer buffer,
+                          CrawlContext context, long startedAt) throws IOException {
+        InputStream raw = response.body();
+        CompletableFuture<Void> guard = new CompletableFuture<>();
+        guard.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                closeQuietly(raw);
+            }
+        });
+        context.register(guard);
+        String host = response.uri().getHost();
+        long totalTimeout = latencyTracker.timeoutMillis(host, HostLatencyTracker.Phase.TOTAL);
+        long left = totalTimeout - elapsedMillis(startedAt);
+        guard.orTimeout(Math.max(1, Math.min(left, context.remainingMillis())), TimeUnit.MILLISECONDS);
+        try (InputStream in = buffer.capture(decode(raw, response), maxBodyBytes)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            if (guard.isCancelled()) {
+                context.checkActive();
+                throw new CrawlCancelledException("Fetch cancelled: " + response.uri());
+            }
+            if (guard.isCompletedExceptionally()) {
+                context.checkActive();
+                latencyTracker.recordTimeout(host, HostLatencyTracker.Phase.TOTAL);
+                throw new HttpTimeoutException("Response body timed out: " + response.uri());
+            }
+            throw e;
+        } finally {
+            guard.complete(null);
+            context.unregister(guard);
+        }
+    }
+
+    private static InputStream decode(InputStream in, HttpResponse<?> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+            case "deflate" -> new InflaterInputStream(in, new Inflater(), STREAM_BUFFER_SIZE);
+            default -> in;
+        };
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // Поток закрывается из-за отмены, ошибка закрытия не важна
+        }
+    }
+
+    /**
+     * Ответ из кэша: обработанная версия страницы не разбирается повторно
+     * @return тело или null, если тела в кэше уже нет
+     * @throws PageNotModifiedException если вакансии этой версии страницы уже сохранены
+     */
+    private FetchedPage fromCache(String url, ResponseCache.Entry entry, boolean revalidated) {
+        if (entry.processed()) {
+            throw new PageNotModifiedException(url, revalidated, entry.size());
+        }
+        Optional<byte[]> body = responseCache.body(url);
+        return body.map(bytes -> new FetchedPage(bytes, bytes.length, entry.contentType(), entry.finalUrl(), null, false))
+                .orElse(null);
+    }
+
+    /**
+     * Разбирает тело ответа с кодировкой из Content-Type
+     * @param body тело ответа
+     * @param contentType Content-Type ответа
+     * @param baseUri адрес для относительных ссылок
+     * @return HTML-документ
+     */
+    public static Document parse(byte[] body, String contentType, String baseUri) throws IOException {
+        return parse(body, body.length, contentType, baseUri, null);
+    }
+
+    /**
+     * Разбирает фрагмент тела, найденный {@code slicer}, или всё тело, если фрагмента нет.
+     * Кодировка берётся из Content-Type, а без неё — из meta в начале всего тела,
+     * потому что во фрагмент объявление кодировки не попадает.
+     * @param body тело ответа
+     * @param length длина тела в массиве
+     * @param contentType Content-Type ответа
+     * @param baseUri адрес для относительных ссылок
+     * @param slicer поиск фрагмента, null — разбирать всё тело
+     * @return HTML-документ
+     */
+    public static Document parse(byte[] body, int length, String contentType, String baseUri,
+                                 BodySlicer slicer) throws IOException {
+        Optional<BodySlicer.Range> range = slicer == null ? Optional.empty() : slicer.find(body, length);
+        if (range.isEmpty()) {
+            if (slicer != null) {
+                log.debug("No result container found in {}, parsing the whole page", baseUri);
+            }
+            return Jsoup.parse(new ByteArrayInputStream(body, 0, length), charset(contentType), baseUri);
+        }
+        String charset = charset(contentType);
+        if (charset == null) {
+            charset = charset(new String(body, 0, Math.min(length, CHARSET_SNIFF_BYTES), StandardCharsets.ISO_8859_1));
+        }
+        BodySlicer.Range slice = range.get();
+        return Jsoup.parse(new ByteArrayInputStream(body, slice.start(), slice.length()), charset, baseUri);
+    }
+
+    private HttpResponse<InputStream> send(URI uri, String referrer, ResponseCache.Entry cached, CrawlContext context) throws IOException {
+        // Ожидание разрешения могло съесть часть дедлайна
+        context.checkActive();
+        long ttfbTimeout = latencyTracker.timeoutMillis(uri.getHost(), HostLatencyTracker.Phase.TTFB);
+        long timeout = Math.min(ttfbTimeout, context.remainingMillis());
+        if (timeout <= 0) {
+            throw new CrawlCancelledException("Deadline exceeded");
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeout))
+                .header("User-Agent", USER_AGENT)
+                .header("Referer", referrer)
+                .header("Accept", "text/html,application/xhtml+xml")
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        // Условный запрос: неизменившаяся страница придёт как 304 без тела
+        if (cached != null && cached.etag() != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        if (cached != null && cached.lastModified() != null) {
+            builder.header("If-Modified-Since", cached.lastModified());
+        }
+        HttpRequest request = builder.build();
+        // Future завершается на заголовках ответа, тело читается потоком в readBody
+        long startedAt = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> future = context.register(
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        CompletableFuture<HttpResponse<InputStream>> hedge = null;
+        long hedgeStartedAt = 0;
+        try {
+            long hedgeDelay = hedgingPolicy.hedgeDelayMillis(uri.getHost());
+            if (hedgeDelay > 0 && hedgeDelay < timeout) {
+                try {
+                    future.get(hedgeDelay, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Дубль идёт под разрешением исходного запроса, но токен хоста берёт свой
+                    if (hedgingPolicy.tryHedge(uri.getHost()) && rateLimiter.tryToken(uri.getHost())) {
+                        hedgeStartedAt = System.nanoTime();
+                        hedge = context.register(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+                    }
+                }
+            }
+            HttpResponse<InputStream> response = hedge == null ? future.get() : firstOf(future, hedge).get();
+            boolean hedgeWon = hedge != null && hedge.isDone() && !hedge.isCompletedExceptionally()
+                    && hedge.getNow(null) == response;
+            // Замер — время того запроса, что ответил: иначе победа дубля завышала бы p95, от которого он зависит
+            latencyTracker.record(uri.getHost(), HostLatencyTracker.Phase.TTFB,
+                    elapsedMillis(hedgeWon ? hedgeStartedAt : startedAt));
+            if (hedge != null) {
+                hedgingPolicy.recordHedge(uri.getHost(), hedgeWon);
+            }
+            return response;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            context.checkActive();
+            throw new InterruptedIOException("Fetch interrupted: " + request.uri());
+        } catch (CancellationException e) {
+            context.checkActive();
+            throw new CrawlCancelledException("Fetch cancelled: " + request.uri());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpTimeoutException) {
+                context.checkActive();
+                // Таймаут не замер: иначе зависшие соединения поднимали бы p99, а с ним и таймаут
+                latencyTracker.recordTimeout(uri.getHost(), HostLatencyTracker.Phase.TTFB);
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            context.unregister(future);
+            if (hedge != null) {
+                context.unregister(hedge);
+            }
+        }
+    }
+
+    /**
+     * Первый успешный (2xx или 304) из двух одинаковых запросов. Второй отменяется, а если тоже успел
+     * ответить — его тело закрывается. Быстрый 429/503 не перебивает медленный нормальный ответ:
+     * ответ с ошибкой возвращается, только когда завершились оба запроса и успешного нет,
+     * а исключение — только если не удались оба.
+     */
+    private static CompletableFuture<HttpResponse<InputStream>> firstOf(CompletableFuture<HttpResponse<InputStream>> primary,
+                                                                       CompletableFuture<HttpResponse<InputStream>> hedge) {
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicReference<HttpResponse<InputStream>> fallback = new AtomicReference<>();
+        BiConsumer<HttpResponse<InputStream>, Throwable> onComplete = (response, failure) -> {
+            if (response != null && !isSuccessful(response.statusCode())) {
+                if (!fallback.compareAndSet(null, response)) {
+                    closeQuietly(response.body());
+                }
+            } else if (response != null && !winner.complete(response)) {
+                closeQuietly(response.body());
+            }
+            if (finished.incrementAndGet() == 2) {
+                HttpResponse<InputStream> error = fallback.get();
+                if (error != null) {
+                    if (!winner.complete(error)) {
+                        closeQuietly(error.body());
+                    }
+                } else if (failure != null) {
+                    winner.completeExceptionally(failure);
+                }
+            }
+        };
+        primary.whenComplete(onComplete);
+        hedge.whenComplete(onComplete);
+        winner.whenComplete((response, failure) -> {
+            primary.cancel(true);
+            hedge.cancel(true);
+        });
+        return winner;
+    }
+
+    private static boolean isSuccessful(int status) {
+        return status / 100 == 2 || status == 304;
+    }
+
+    /**
+     * Пауза из заголовка Retry-After: число секунд или HTTP-дата
+     * @return миллисекунды, 0 — заголовка нет или он не разобран
+     */
+    static long retryAfterMillis(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(until.getZone()), until).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static String charset(String contentType) {
+        Matcher matcher = CHARSET.matcher(contentType);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.vacancyparser.fetch;
+
+/**
+ * Страница не изменилась с последней обработанной версии (ответ 304, свежая запись кэша или
+ * тело, байт в байт совпавшее с обработанным). Разбор и сохранение страницы можно пропустить.
+ */
+public class PageNotModifiedException extends RuntimeException {
+
+    /**
+     * Как узнали, что страница не изменилась
+     */
+    public enum Reason {
+        // Запрос не отправлялся: запись кэша свежая
+        FRESH,
+        // Сайт ответил 304
+        REVALIDATED,
+        // Сайт прислал тело, но его хэш совпал с хэшем обработанной версии
+        IDENTICAL
+    }
+
+    private final Reason reason;
+    private final long bytesSaved;
+
+    /**
+     * @param url адрес страницы
+     * @param revalidated true — сайт ответил 304, false — запрос не отправлялся
+     * @param bytesSaved размер тела, которое не пришлось загружать
+     */
+    public PageNotModifiedException(String url, boolean revalidated, long bytesSaved) {
+        this(url, revalidated ? Reason.REVALIDATED : Reason.FRESH, bytesSaved);
+    }
+
+    /**
+     * @param url адрес страницы
+     * @param reason как узнали, что страница не изменилась
+     * @param bytesSaved размер тела, которое не пришлось загружать или разбирать
+     */
+    public PageNotModifiedException(String url, Reason reason, long bytesSaved) {
+        super("Page not modified: " + url);
+        this.reason = reason;
+        this.bytesSaved = bytesSaved;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public boolean isRevalidated() {
+        return reason == Reason.REVALIDATED;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+}
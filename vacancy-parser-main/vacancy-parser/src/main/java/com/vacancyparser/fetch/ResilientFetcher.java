@@ -0,0 +1,256 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка страниц с повторами и автоматическим выключателем по источнику поверх {@link PageFetcher}.
+ * Временные сбои (таймауты, ошибки соединения, 408, 429, 5xx) повторяются с экспоненциальной паузой
+ * и случайным разбросом, не выходя за дедлайн прохода. Остальные ошибки (404, слишком большое тело)
+ * не повторяются. Сбои подряд открывают {@link CircuitBreaker} источника: пока он открыт, запросы
+ * сразу завершаются {@link CircuitOpenException}, а не ждут таймаутов.
+ */
+@Component
+@Slf4j
+public class ResilientFetcher {
+
+    private final PageFetcher pageFetcher;
+    private final MetricsService metricsService;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ResilientFetcher(PageFetcher pageFetcher,
+                            MetricsService metricsService,
+                            @Value("${parser.fetch.retry.max.attempts:3}") int maxAttempts,
+                            @Value("${parser.fetch.retry.base.delay:500}") long baseDelayMillis,
+                            @Value("${parser.fetch.retry.max.delay:5000}") long maxDelayMillis,
+                            @Value("${parser.fetch.breaker.failure.threshold:5}") int failureThreshold,
+                            @Value("${parser.fetch.breaker.open.duration:30000}") long openMillis) {
+        this.pageFetcher = pageFetcher;
+        this.metricsService = metricsService;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Загружает и разбирает страницу источника
+     * @param source источник (hh, superjob, habr)
+     * @param url адрес страницы
+     * @param referrer значение заголовка Referer
+     * @param context дедлайн и отмена прохода
+     * @param slicer поиск фрагмента, null — разбирать всю страницу
+     * @return HTML-документ
+     * @throws CircuitOpenException если источник отключён выключателем
+     */
+    public Document fetch(String source, String url, String referrer, CrawlContext context,
+                          BodySlicer slicer) throws IOException {
+        return execute(source, url, context, () -> pageFetcher.fetch(url, referrer, context, slicer));
+    }
+
+    /**
+     * Загружает тело страницы источника без разбора. Для каждого тела, загруженного из сети,
+     * записывается, совпало ли оно с уже обработанной версией страницы.
+     * @return тело страницы, которое нужно закрыть после разбора
+     * @throws CircuitOpenException если источник отключён выключателем
+     */
+    public FetchedPage fetchBody(String source, String url, String referrer, CrawlContext context) throws IOException {
+        try {
+            FetchedPage page = execute(source, url, context, () -> pageFetcher.fetchBody(url, referrer, context));
+            if (page.isDownloaded()) {
+                metricsService.recordBodyCheck(source, false);
+            }
+            return page;
+        } catch (PageNotModifiedException e) {
+            if (e.getReason() == PageNotModifiedException.Reason.IDENTICAL) {
+                metricsService.recordBodyCheck(source, true);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Загружает страницу вакансии фоновым запросом ({@link PageFetcher#fetchDetail}). У дозагрузки свой
+     * выключатель ({@code <source>-detail}): её сбои не останавливают обход выдачи того же сайта.
+     * @return тело страницы, которое нужно закрыть после разбора
+     * @throws CircuitOpenException если дозагрузка источника отключена выключателем
+     */
+    public FetchedPage fetchDetail(String source, String url, String referrer, CrawlContext context) throws IOException {
+        return execute(source + "-detail", url, context, () -> pageFetcher.fetchDetail(url, referrer, context));
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T execute(String source, String url, CrawlContext context, Attempt<T> attempt) throws IOException {
+        CircuitBreaker breaker = breaker(source);
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            if (!breaker.tryAcquire()) {
+                metricsService.incrementBreakerRejected(source);
+                throw new CircuitOpenException(source, breaker.getRemainingOpenMillis());
+            }
+            try {
+                T result = attempt.run();
+                onSuccess(source, breaker);
+                return result;
+            } catch (PageNotModifiedException e) {
+                onSuccess(source, breaker);
+                throw e;
+            } catch (IOException e) {
+                if (!isTransient(e)) {
+                    if (isInterrupted(e)) {
+                        breaker.onIgnored();
+                    } else {
+                        // Сайт ответил, просто страница не подходит — источник исправен
+                        onSuccess(source, breaker);
+                    }
+                    throw e;
+                }
+                onFailure(source, breaker, e);
+                long delay = backoffMillis(attemptNumber);
+                if (attemptNumber >= maxAttempts || delay >= context.remainingMillis()) {
+                    throw e;
+                }
+                metricsService.incrementFetchRetries(source, reason(e));
+                log.warn("Fetch of {} failed: {}; retry {} of {} in {} ms",
+                        url, e.getMessage(), attemptNumber, maxAttempts - 1, delay);
+                pause(delay, context);
+            } catch (RuntimeException e) {
+                breaker.onIgnored();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Состояние выключателей по источникам
+     */
+    public Map<String, BreakerStatus> getBreakerStatuses() {
+        Map<String, BreakerStatus> statuses = new TreeMap<>();
+        breakers.forEach((source, breaker) -> statuses.put(source, new BreakerStatus(
+                breaker.getState().name(), breaker.getConsecutiveFailures(), breaker.getRemainingOpenMillis())));
+        return statuses;
+    }
+
+    /**
+     * Состояние выключателя источника
+     * @param state CLOSED, HALF_OPEN или OPEN
+     * @param consecutiveFailures сбоев подряд
+     * @param retryInMillis через сколько пробный запрос (для OPEN)
+     */
+    public record BreakerStatus(String state, int consecutiveFailures, long retryInMillis) {
+    }
+
+    /**
+     * Временный сбой, который имеет смысл повторить
+     */
+    static boolean isTransient(IOException e) {
+        if (e instanceof CircuitOpenException || e instanceof BodyBufferPool.BodyTooLargeException || isInterrupted(e)) {
+            return false;
+        }
+        if (e instanceof HttpStatusException status) {
+            int code = status.getStatusCode();
+            return code == 408 || code == 429 || (code >= 500 && code != 501);
+        }
+        // Таймауты, обрыв и отказ в соединении
+        return true;
+    }
+
+    private static boolean isInterrupted(IOException e) {
+        return e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    /**
+     * Экспоненциальная пауза с разбросом: половина фиксирована, половина случайна,
+     * чтобы повторы параллельных запросов не приходили на сайт одновременно
+     */
+    long backoffMillis(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long half = cap / 2;
+        return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+    }
+
+    private static String reason(IOException e) {
+        if (e instanceof HttpStatusException status) {
+            return String.valueOf(status.getStatusCode());
+        }
+        if (e instanceof HttpTimeoutException || e instanceof SocketTimeoutException) {
+            return "timeout";
+        }
+        return "io";
+    }
+
+    private static void pause(long delayMillis, CrawlContext context) throws InterruptedIOException {
+        // Пауза регистрируется в проходе: отмена прерывает её сразу
+        CompletableFuture<Void> pause = new CompletableFuture<>();
+        pause.completeOnTimeout(null, delayMillis, TimeUnit.MILLISECONDS);
+        context.register(pause);
+        try {
+            pause.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.checkActive();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        } catch (CancellationException | ExecutionException e) {
+            context.checkActive();
+            throw new CrawlCancelledException("Retry cancelled");
+        } finally {
+            context.unregister(pause);
+        }
+    }
+
+    private void onSuccess(String source, CircuitBreaker breaker) {
+        CircuitBreaker.State before = breaker.getState();
+        breaker.onSuccess();
+        if (before != CircuitBreaker.State.CLOSED) {
+            log.info("Circuit breaker for {} closed", source);
+        }
+    }
+
+    private void onFailure(String source, CircuitBreaker breaker, IOException e) {
+        CircuitBreaker.State before = breaker.getState();
+        breaker.onFailure();
+        if (before != CircuitBreaker.State.OPEN && breaker.getState() == CircuitBreaker.State.OPEN) {
+            metricsService.incrementBreakerOpened(source);
+            log.warn("Circuit breaker for {} opened after {} consecutive failures, last: {}",
+                    source, breaker.getConsecutiveFailures(), e.getMessage());
+        }
+    }
+
+    private CircuitBreaker breaker(String source) {
+        return breakers.computeIfAbsent(source, s -> {
+            CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openMillis, System::nanoTime);
+            metricsService.registerSourceGauge("vacancy.fetch.breaker.state", s, breaker,
+                    b -> b.getState().ordinal(), "Состояние выключателя источника: 0 — закрыт, 1 — пробный запрос, 2 — открыт");
+            return breaker;
+        });
+    }
+}
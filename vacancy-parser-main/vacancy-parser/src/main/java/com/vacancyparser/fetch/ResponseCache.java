@@ -0,0 +1,249 @@
+package com.vacancyparser.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Дисковый кэш ответов страниц выдачи с валидаторами {@code ETag}/{@code Last-Modified}.
+ * Тело ответа лежит в файле, индекс — в памяти (LRU); суммарный размер файлов не превышает
+ * {@code parser.fetch.cache.max.size}, при переполнении удаляются давно не использованные записи.
+ * Запись, обработка которой подтверждена через {@link #markProcessed(String)}, означает, что вакансии
+ * этой версии страницы уже сохранены — неизменившуюся страницу можно не разбирать повторно.
+ * Отдельно от тел хранится XXH64 последнего загруженного тела каждой страницы (до
+ * {@code parser.fetch.hash.max.entries} адресов): по нему узнаётся страница, которую сайт прислал
+ * заново без валидаторов, но байт в байт такой же, как обработанная версия.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    /**
+     * Запись кэша
+     * @param etag значение ETag или null
+     * @param lastModified значение Last-Modified или null
+     * @param contentType Content-Type ответа
+     * @param finalUrl адрес после редиректов (base URI документа)
+     * @param size размер тела в байтах
+     * @param storedAt время последней проверки актуальности (мс)
+     * @param processed вакансии этой версии уже сохранены
+     */
+    public record Entry(String etag, String lastModified, String contentType, String finalUrl,
+                        long size, long storedAt, boolean processed) {
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxBytes;
+    private final long freshMillis;
+    private final boolean hashEnabled;
+
+    // access-order: первой в обходе идёт давно не использованная запись
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, BodyHash> hashes;
+    private long totalBytes;
+
+    /**
+     * Хэш последнего загруженного тела страницы
+     * @param hash XXH64 тела
+     * @param processed вакансии этой версии уже сохранены
+     */
+    private record BodyHash(long hash, boolean processed) {
+    }
+
+    public ResponseCache(@Value("${parser.fetch.cache.enabled:true}") boolean enabled,
+                         @Value("${parser.fetch.cache.dir:${java.io.tmpdir}/vacancy-http-cache}") String dir,
+                         @Value("${parser.fetch.cache.max.size:52428800}") long maxBytes,
+                         @Value("${parser.fetch.cache.fresh.for:60000}") long freshMillis,
+                         @Value("${parser.fetch.hash.enabled:true}") boolean hashEnabled,
+                         @Value("${parser.fetch.hash.max.entries:10000}") int maxHashes) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        this.freshMillis = freshMillis;
+        this.hashEnabled = hashEnabled;
+        this.hashes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BodyHash> eldest) {
+                return size() > maxHashes;
+            }
+        };
+        if (enabled) {
+            clearDirectory();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return запись или пусто, если страницы нет в кэше
+     */
+    public synchronized Optional<Entry> get(String url) {
+        return enabled ? Optional.ofNullable(entries.get(url)) : Optional.empty();
+    }
+
+    /**
+     * Запись проверена (или сохранена) меньше {@code parser.fetch.cache.fresh.for} назад
+     */
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.storedAt() < freshMillis;
+    }
+
+    /**
+     * Читает тело ответа из кэша
+     * @return тело или пусто, если файл пропал
+     */
+    public Optional<byte[]> body(String url) {
+        try {
+            return Optional.of(Files.readAllBytes(file(url)));
+        } catch (IOException e) {
+            invalidate(url);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Сохраняет ответ 200. Новая версия страницы ещё не обработана.
+     */
+    public void store(String url, String etag, String lastModified, String contentType, String finalUrl, byte[] body) {
+        store(url, etag, lastModified, contentType, finalUrl, body, body.length);
+    }
+
+    /**
+     * Сохраняет ответ 200 из первых {@code length} байт буфера
+     */
+    public void store(String url, String etag, String lastModified, String contentType, String finalUrl,
+                      byte[] body, int length) {
+        if (!enabled || length > maxBytes) {
+            return;
+        }
+        Path target = file(url);
+        try {
+            Files.createDirectories(dir);
+            Path partial = Files.createTempFile(dir, "page-", ".part");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                out.write(body, 0, length);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to cache response of {}: {}", url, e.getMessage());
+            invalidate(url);
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(url, new Entry(etag, lastModified, contentType, finalUrl,
+                    length, System.currentTimeMillis(), false));
+            totalBytes += length - (previous != null ? previous.size() : 0);
+            evict();
+        }
+    }
+
+    /**
+     * Сайт ответил 304 — запись снова свежая
+     */
+    public synchronized void revalidated(String url) {
+        entries.computeIfPresent(url, (key, entry) -> new Entry(entry.etag(), entry.lastModified(), entry.contentType(),
+                entry.finalUrl(), entry.size(), System.currentTimeMillis(), entry.processed()));
+    }
+
+    /**
+     * Запоминает хэш только что загруженного тела страницы
+     * @param url адрес страницы
+     * @param hash XXH64 тела
+     * @return true — тело совпадает с версией, вакансии которой уже сохранены
+     */
+    public synchronized boolean isProcessedBody(String url, long hash) {
+        if (!hashEnabled) {
+            return false;
+        }
+        BodyHash last = hashes.get(url);
+        if (last != null && last.hash() == hash) {
+            return last.processed();
+        }
+        hashes.put(url, new BodyHash(hash, false));
+        return false;
+    }
+
+    /**
+     * Вакансии текущей версии страницы сохранены
+     */
+    public synchronized void markProcessed(String url) {
+        entries.computeIfPresent(url, (key, entry) -> entry.processed() ? entry : new Entry(entry.etag(),
+                entry.lastModified(), entry.contentType(), entry.finalUrl(), entry.size(), entry.storedAt(), true));
+        hashes.computeIfPresent(url, (key, last) -> last.processed() ? last : new BodyHash(last.hash(), true));
+    }
+
+    public void invalidate(String url) {
+        synchronized (this) {
+            Entry removed = entries.remove(url);
+            if (removed == null) {
+                return;
+            }
+            totalBytes -= removed.size();
+        }
+        deleteQuietly(file(url));
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue().size();
+            deleteQuietly(file(eldest.getKey()));
+        }
+    }
+
+    private Path file(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(HexFormat.of().formatHex(digest) + ".body");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Индекс не переживает перезапуск, поэтому файлы прошлого запуска не нужны
+    private void clearDirectory() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{body,part}")) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up response cache {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete cached response {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Объединение одновременных загрузок по ключу: первый вызов выполняет загрузку,
+ * остальные с тем же ключом дожидаются её результата вместо повторного запроса.
+ * Результат не кэшируется — после завершения загрузки следующий вызов выполнит её заново.
+ * @param <K> тип ключа
+ * @param <V> тип результата
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * Результат загрузки
+     * @param value значение
+     * @param shared true, если значение получено из чужой загрузки
+     */
+    public record Outcome<V>(V value, boolean shared) {
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Выполняет загрузку или присоединяется к уже идущей. Ожидание ограничено дедлайном
+     * вызывающего; если отменили проход, ведущий загрузку, ожидающий загружает сам.
+     * @param key ключ загрузки
+     * @param context дедлайн и отмена вызывающего
+     * @param loader загрузка
+     * @return результат и признак того, что он получен из чужой загрузки
+     */
+    public Outcome<V> execute(K key, CrawlContext context, Callable<V> loader) throws Exception {
+        while (true) {
+            context.checkActive();
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return new Outcome<>(lead(key, flight, loader), false);
+            }
+            try {
+                return new Outcome<>(await(existing, context), true);
+            } catch (CrawlCancelledException e) {
+                // Отменён ведущий, а не мы — повторяем загрузку в своём проходе
+                context.checkActive();
+            }
+        }
+    }
+
+    /**
+     * Количество загрузок, выполняющихся сейчас
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Callable<V> loader) throws Exception {
+        try {
+            V value = loader.call();
+            flight.complete(value);
+            return value;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+            if (!flight.isDone()) {
+                flight.completeExceptionally(new IllegalStateException("Load aborted"));
+            }
+        }
+    }
+
+    private V await(CompletableFuture<V> flight, CrawlContext context) throws Exception {
+        try {
+            return flight.get(context.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CrawlCancelledException("Deadline exceeded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.checkActive();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+}
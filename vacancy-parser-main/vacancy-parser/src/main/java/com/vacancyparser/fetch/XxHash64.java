@@ -0,0 +1,137 @@
+package com.vacancyparser.fetch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Потоковый XXH64: 64-битный некриптографический хэш, который считается по мере чтения тела ответа,
+ * без второго прохода по буферу. Данные подаются кусками через {@link #update}, итог — {@link #digest()};
+ * результат совпадает с эталонной реализацией xxHash.
+ */
+public final class XxHash64 {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long seed;
+    // Хвост меньше полосы в 32 байта, ждущий следующих данных
+    private final byte[] pending = new byte[STRIPE];
+    private int pendingSize;
+    private long totalLength;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    public XxHash64() {
+        this(0);
+    }
+
+    public XxHash64(long seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    /**
+     * Хэш массива целиком
+     */
+    public static long hash(byte[] data, int offset, int length) {
+        XxHash64 hash = new XxHash64();
+        hash.update(data, offset, length);
+        return hash.digest();
+    }
+
+    public void reset() {
+        v1 = seed + P1 + P2;
+        v2 = seed + P2;
+        v3 = seed;
+        v4 = seed - P1;
+        pendingSize = 0;
+        totalLength = 0;
+    }
+
+    public void update(byte[] data, int offset, int length) {
+        totalLength += length;
+        if (pendingSize + length < STRIPE) {
+            System.arraycopy(data, offset, pending, pendingSize, length);
+            pendingSize += length;
+            return;
+        }
+        int end = offset + length;
+        if (pendingSize > 0) {
+            int fill = STRIPE - pendingSize;
+            System.arraycopy(data, offset, pending, pendingSize, fill);
+            stripe(pending, 0);
+            offset += fill;
+            pendingSize = 0;
+        }
+        for (; offset + STRIPE <= end; offset += STRIPE) {
+            stripe(data, offset);
+        }
+        pendingSize = end - offset;
+        System.arraycopy(data, offset, pending, 0, pendingSize);
+    }
+
+    /**
+     * Хэш всех поданных данных; состояние не меняется, подавать данные можно и дальше
+     */
+    public long digest() {
+        long h;
+        if (totalLength >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += totalLength;
+        int i = 0;
+        for (; i + 8 <= pendingSize; i += 8) {
+            h ^= round(0, (long) LONG_LE.get(pending, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= pendingSize) {
+            h ^= ((int) INT_LE.get(pending, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < pendingSize; i++) {
+            h ^= (pending[i] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private void stripe(byte[] data, int offset) {
+        v1 = round(v1, (long) LONG_LE.get(data, offset));
+        v2 = round(v2, (long) LONG_LE.get(data, offset + 8));
+        v3 = round(v3, (long) LONG_LE.get(data, offset + 16));
+        v4 = round(v4, (long) LONG_LE.get(data, offset + 24));
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long h, long v) {
+        h ^= round(0, v);
+        return h * P1 + P4;
+    }
+}
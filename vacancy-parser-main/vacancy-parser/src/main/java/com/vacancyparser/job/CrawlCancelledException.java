@@ -0,0 +1,10 @@
+package com.vacancyparser.job;
+
+/**
+ * Проход прерван: задание отменено или истёк его дедлайн
+ */
+public class CrawlCancelledException extends RuntimeException {
+    public CrawlCancelledException(String message) {
+        super(message);
+    }
+}
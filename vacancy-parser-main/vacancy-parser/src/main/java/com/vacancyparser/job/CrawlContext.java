@@ -0,0 +1,104 @@
+package com.vacancyparser.job;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий дедлайн и флаг отмены прохода. Передаётся вниз до загрузки страниц, пагинации и сохранения;
+ * зарегистрированные задачи и HTTP-запросы отменяются при {@link #cancel(String)}, что закрывает
+ * соединения и освобождает потоки воркеров.
+ */
+public class CrawlContext {
+
+    private final long deadlineNanos;
+    private final Set<Future<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile String cancelReason;
+
+    private CrawlContext(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Контекст без дедлайна (отменить его всё равно можно)
+     */
+    public static CrawlContext unbounded() {
+        return new CrawlContext(Long.MAX_VALUE);
+    }
+
+    /**
+     * Контекст с дедлайном через {@code timeout} от текущего момента
+     */
+    public static CrawlContext withTimeout(Duration timeout) {
+        return new CrawlContext(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Оставшееся до дедлайна время в миллисекундах (не меньше 0)
+     */
+    public long remainingMillis() {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public String getCancelReason() {
+        return cancelReason;
+    }
+
+    /**
+     * Бросает {@link CrawlCancelledException}, если проход отменён или дедлайн истёк
+     */
+    public void checkActive() {
+        if (cancelReason != null) {
+            throw new CrawlCancelledException(cancelReason);
+        }
+        if (isExpired()) {
+            throw new CrawlCancelledException("Deadline exceeded");
+        }
+    }
+
+    /**
+     * Отменяет проход и все зарегистрированные задачи; повторные вызовы игнорируются
+     * @param reason причина отмены
+     */
+    public void cancel(String reason) {
+        synchronized (this) {
+            if (cancelReason != null) {
+                return;
+            }
+            cancelReason = reason;
+        }
+        for (Future<?> future : inFlight) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Регистрирует задачу или запрос, которые нужно прервать при отмене
+     * @param future задача
+     * @return та же задача
+     */
+    public <F extends Future<?>> F register(F future) {
+        inFlight.add(future);
+        if (cancelReason != null) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    public void unregister(Future<?> future) {
+        inFlight.remove(future);
+    }
+}
@@ -0,0 +1,126 @@
+package com.vacancyparser.job;
+
+import com.vacancyparser.dto.SearchCrawlResult;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Асинхронное задание парсинга, созданное через API. Хранит состояние и прогресс по каждому URL,
+ * а также {@link CrawlContext} с дедлайном задания, через который его можно отменить.
+ */
+public class CrawlJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id;
+    private final int maxPages;
+    private final List<SearchCrawlResult> results;
+    private final CrawlContext context;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile State state = State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+    private Runnable task;
+
+    public CrawlJob(String id, int maxPages, List<SearchCrawlResult> results) {
+        this(id, maxPages, results, CrawlContext.unbounded());
+    }
+
+    public CrawlJob(String id, int maxPages, List<SearchCrawlResult> results, CrawlContext context) {
+        this.id = id;
+        this.maxPages = maxPages;
+        this.results = Collections.unmodifiableList(results);
+        this.context = context;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public List<SearchCrawlResult> getResults() {
+        return results;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public CrawlContext getContext() {
+        return context;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    Runnable getTask() {
+        return task;
+    }
+
+    void setTask(Runnable task) {
+        this.task = task;
+    }
+
+    /**
+     * Переводит задание в RUNNING, если его не отменили, пока оно стояло в очереди
+     * @return true, если задание нужно выполнять
+     */
+    synchronized boolean markRunning() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+        return true;
+    }
+
+    /**
+     * Помечает задание отменённым; ещё не начатое задание сразу завершается
+     * @return состояние задания до отмены
+     */
+    synchronized State requestCancel() {
+        State previous = state;
+        if (isFinished()) {
+            return previous;
+        }
+        cancelRequested = true;
+        if (previous == State.QUEUED) {
+            markFinished(State.CANCELLED, "Cancelled before start");
+        }
+        return previous;
+    }
+
+    void markFinished(State finalState, String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        state = finalState;
+    }
+}
@@ -0,0 +1,162 @@
+package com.vacancyparser.job;
+
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.service.VacancyService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Менеджер асинхронных заданий парсинга. Одновременно выполняется не больше
+ * {@code parser.jobs.max.concurrent} заданий, остальные ждут в ограниченной очереди —
+ * так пул воркеров не перегружается, а поток запроса не блокируется.
+ * У каждого задания один дедлайн, отсчитываемый от постановки в очередь; по нему же
+ * ограничиваются загрузка страниц, пагинация и запись в БД.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlJobManager {
+
+    private final VacancyService vacancyService;
+    private final VacancyParser vacancyParser;
+
+    @Value("${parser.jobs.max.concurrent:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${parser.jobs.queue.capacity:20}")
+    private int queueCapacity;
+
+    @Value("${parser.jobs.retention:100}")
+    private int retention;
+
+    @Value("${parser.jobs.deadline:600000}")
+    private long defaultDeadlineMillis;
+
+    private ThreadPoolExecutor jobExecutor;
+    private final Map<String, CrawlJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "CrawlJob-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Ставит задание в очередь и сразу возвращает его
+     * @param urls URL для парсинга
+     * @param maxPages максимальное количество страниц на URL
+     * @param deadlineSeconds дедлайн задания в секундах, null — {@code parser.jobs.deadline}
+     * @return созданное задание
+     * @throws RejectedExecutionException если очередь заданий заполнена
+     */
+    public CrawlJob submit(List<String> urls, int maxPages, Integer deadlineSeconds) {
+        List<SearchCrawlResult> results = new ArrayList<>();
+        for (String url : urls) {
+            results.add(new SearchCrawlResult(url, vacancyParser.detectSource(url)));
+        }
+        Duration deadline = deadlineSeconds != null
+                ? Duration.ofSeconds(deadlineSeconds)
+                : Duration.ofMillis(defaultDeadlineMillis);
+        CrawlJob job = new CrawlJob(UUID.randomUUID().toString(), maxPages, results, CrawlContext.withTimeout(deadline));
+        job.setTask(() -> run(job));
+        jobExecutor.execute(job.getTask());
+        jobs.put(job.getId(), job);
+        evictFinished();
+        log.info("Crawl job {} queued for {} URLs", job.getId(), urls.size());
+        return job;
+    }
+
+    public Optional<CrawlJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<CrawlJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(CrawlJob::getCreatedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Отменяет задание: ожидающее убирается из очереди, у выполняющегося прерываются
+     * HTTP-запросы и задачи воркеров
+     * @param id идентификатор задания
+     * @return задание или пусто, если такого нет
+     */
+    public Optional<CrawlJob> cancel(String id) {
+        CrawlJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        CrawlJob.State previous = job.requestCancel();
+        if (previous == CrawlJob.State.QUEUED) {
+            jobExecutor.remove(job.getTask());
+        }
+        if (previous == CrawlJob.State.QUEUED || previous == CrawlJob.State.RUNNING) {
+            job.getContext().cancel("Cancelled by user");
+            log.info("Crawl job {} cancelled (was {})", id, previous);
+        }
+        return Optional.of(job);
+    }
+
+    private void run(CrawlJob job) {
+        if (!job.markRunning()) {
+            return;
+        }
+        CrawlContext context = job.getContext();
+        try {
+            vacancyService.runCrawl(job.getResults(), job.getMaxPages(), context);
+            if (job.isCancelRequested()) {
+                job.markFinished(CrawlJob.State.CANCELLED, "Cancelled by user");
+            } else if (context.isCancelled() || job.getResults().stream()
+                    .anyMatch(result -> result.getStatus() == SearchCrawlResult.Status.CANCELLED)) {
+                // Дедлайн истёк: часть URL не пройдена до конца
+                job.markFinished(CrawlJob.State.FAILED,
+                        context.isCancelled() ? context.getCancelReason() : "Deadline exceeded");
+            } else {
+                job.markFinished(CrawlJob.State.COMPLETED, null);
+            }
+        } catch (Exception e) {
+            log.error("Crawl job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.markFinished(CrawlJob.State.FAILED, e.getMessage());
+        }
+        log.info("Crawl job {} finished with state {}", job.getId(), job.getState());
+    }
+
+    private void evictFinished() {
+        if (jobs.size() <= retention) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(CrawlJob::isFinished)
+                .sorted(Comparator.comparing(CrawlJob::getCreatedAt))
+                .limit(jobs.size() - retention)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,46 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Курсор прохода по поисковой выдаче: следующая страница и самая свежая вакансия прохода.
+ * Двигается в одной транзакции с сохранением вакансий страницы, поэтому после падения узла
+ * следующий проход продолжает ровно с первой несохранённой страницы.
+ */
+@Entity
+@Table(name = "crawl_cursors")
+@Data
+@NoArgsConstructor
+public class CrawlCursor {
+
+    public enum State { RUNNING, DONE }
+
+    @Id
+    @Column(length = 2000)
+    private String searchUrl;
+
+    @Column(nullable = false, length = 36)
+    private String runId;
+
+    @Column(length = 100)
+    private String owner;
+
+    private int nextPage;
+
+    private int maxPages;
+
+    @Column(length = 2000)
+    private String newestUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private State state;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Страница в очереди прохода. PENDING — ещё не загружена, FETCHED — загружена и разобрана
+ * (вакансии лежат в {@code payload}, повторно не загружается), DONE — вакансии сохранены.
+ */
+@Entity
+@Table(name = "crawl_frontier", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_crawl_frontier_run_page", columnNames = {"runId", "pageNumber"})
+})
+@Data
+@NoArgsConstructor
+public class CrawlFrontierPage {
+
+    public enum State { PENDING, FETCHED, DONE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String runId;
+
+    private int pageNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private State state;
+
+    // Разобранные вакансии страницы в JSON
+    @Lob
+    private String payload;
+
+    private LocalDateTime updatedAt;
+}
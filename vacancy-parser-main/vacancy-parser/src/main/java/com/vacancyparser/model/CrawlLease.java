@@ -0,0 +1,34 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Аренда поискового задания узлом. Задание выполняет только владелец непросроченной аренды;
+ * аренда продлевается heartbeat'ом и переходит к другому узлу, если владелец перестал её продлевать.
+ */
+@Entity
+@Table(name = "crawl_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlLease {
+    @Id
+    private Long jobId;
+
+    @Column(length = 100)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    // Следующий запуск по расписанию владельца — новый владелец продолжает с него
+    private LocalDateTime nextRunAt;
+
+    public CrawlLease(Long jobId) {
+        this.jobId = jobId;
+    }
+}
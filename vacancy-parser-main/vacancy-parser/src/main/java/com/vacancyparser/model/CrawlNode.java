@@ -0,0 +1,24 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Узел парсера, разделяющий задания через общую БД. По числу живых узлов считается доля заданий узла.
+ */
+@Entity
+@Table(name = "crawl_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlNode {
+    @Id
+    @Column(length = 100)
+    private String nodeId;
+
+    private LocalDateTime heartbeatAt;
+}
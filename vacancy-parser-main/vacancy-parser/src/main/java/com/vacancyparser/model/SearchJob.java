@@ -0,0 +1,64 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поисковое задание для планировщика. URL может быть шаблоном с плейсхолдером {page}.
+ */
+@Entity
+@Table(name = "search_jobs", indexes = {
+    @Index(name = "idx_search_jobs_enabled", columnList = "enabled")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 2000)
+    private String url;
+
+    @Column(nullable = false)
+    private String source; // hh, superjob, habr
+
+    private int priority;
+
+    private int maxPages;
+
+    private boolean enabled;
+
+    private LocalDateTime lastRunAt;
+
+    private Long lastRunDurationMs;
+
+    private Integer lastRunPages;
+
+    private Integer lastRunFound;
+
+    private Integer lastRunSaved;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
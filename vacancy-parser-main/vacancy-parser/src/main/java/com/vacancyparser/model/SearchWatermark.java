@@ -0,0 +1,30 @@
+package com.vacancyparser.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка последнего прохода по поисковой выдаче: самая свежая вакансия, увиденная на первой странице.
+ * Следующий проход останавливает пагинацию, дойдя до неё.
+ */
+@Entity
+@Table(name = "search_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchWatermark {
+    @Id
+    @Column(length = 2000)
+    private String searchUrl;
+
+    @Column(length = 2000)
+    private String newestUrl;
+
+    private LocalDateTime lastRunAt;
+
+    private int lastNewCount;
+}
@@ -9,11 +9,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "vacancies", indexes = {
-    @Index(name = "idx_source", columnList = "source"),
+    // Ключ вакансии; по первой колонке индекс служит и для выборок по источнику
+    @Index(name = "idx_source_external_id", columnList = "source, externalId", unique = true),
     @Index(name = "idx_city", columnList = "city"),
     @Index(name = "idx_company", columnList = "company"),
     @Index(name = "idx_published_date", columnList = "publishedDate"),
-    @Index(name = "idx_source_url", columnList = "sourceUrl", unique = true)
+    @Index(name = "idx_enriched_at", columnList = "enrichedAt")
 })
 @Data
 @NoArgsConstructor
@@ -42,7 +43,11 @@ public class Vacancy {
     private LocalDateTime publishedDate;
 
     @Column(nullable = false)
-    private String sourceUrl;
+    private String sourceUrl; // канонический адрес (UrlCanonicalizer)
+
+    // id вакансии на сайте источника, см. UrlCanonicalizer
+    @Column(nullable = false)
+    private Long externalId;
 
     @Column(nullable = false)
     private String source; // hh, superjob, habr
@@ -50,6 +55,29 @@ public class Vacancy {
     @Column(nullable = false)
     private LocalDateTime parsedAt;
 
+    // Подробности со страницы вакансии (дозагрузка, parser.enrich.*)
+    @Column(length = 20000)
+    private String description;
+
+    @Column(length = 2000)
+    private String skills; // через запятую
+
+    private String experience;
+
+    private String employmentType;
+
+    // null — подробности ещё не загружались
+    private LocalDateTime enrichedAt;
+
+    // Неудачные попытки дозагрузки подряд и время, раньше которого проход по таблице вакансию не берёт
+    private Integer enrichAttempts;
+
+    private LocalDateTime enrichNextAttemptAt;
+
+    // Рекламная карточка, закреплённая в начале выдачи; не хранится и не годится в отметку прохода
+    @Transient
+    private boolean promoted;
+
     @PrePersist
     protected void onCreate() {
         parsedAt = LocalDateTime.now();
@@ -0,0 +1,11 @@
+package com.vacancyparser.model;
+
+/**
+ * Ключ вакансии: источник и id вакансии на сайте ({@link Vacancy#getExternalId()})
+ */
+public record VacancyKey(String source, long externalId) {
+
+    public static VacancyKey of(Vacancy vacancy) {
+        return new VacancyKey(vacancy.getSource(), vacancy.getExternalId());
+    }
+}
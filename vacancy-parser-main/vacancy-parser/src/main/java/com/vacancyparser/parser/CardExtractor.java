@@ -0,0 +1,97 @@
+package com.vacancyparser.parser;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Извлечение вакансий из карточек страницы выдачи. Карточки разбираются последовательно,
+ * пока их меньше {@code parser.extract.parallel.threshold}; на больших страницах — параллельно
+ * в ForkJoin пуле. DOM к этому моменту только читается, а порядок карточек сохраняется
+ * (по первой карточке ставится отметка прохода). Порог выбран по {@code CardExtractionBenchmark}.
+ * Если извлечение уже идёт в ForkJoin пуле (повторный разбор архива), карточки делятся в том же пуле.
+ */
+@Slf4j
+@Component
+public class CardExtractor {
+
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public CardExtractor(@Value("${parser.extract.parallel.threshold:32}") int threshold,
+                         @Value("${parser.extract.parallelism:0}") int parallelism) {
+        int size = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // На одном ядре параллельный путь только добавляет накладные расходы
+        this.threshold = size > 1 ? threshold : Integer.MAX_VALUE;
+        this.pool = size > 1 ? new ForkJoinPool(size) : null;
+    }
+
+    /**
+     * Последовательное извлечение без пула
+     */
+    public static CardExtractor serial() {
+        return new CardExtractor(Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Извлекает вакансии из карточек
+     * @param cards карточки в порядке выдачи
+     * @param card извлечение одной карточки, null — карточка пропускается
+     * @return вакансии в порядке карточек
+     */
+    public <T> List<T> extract(List<Element> cards, Function<Element, T> card) {
+        if (cards.size() < threshold) {
+            List<T> result = new ArrayList<>(cards.size());
+            for (Element element : cards) {
+                T value = card.apply(element);
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            return parallel(cards, card);
+        }
+        try {
+            return pool.submit(() -> parallel(cards, card)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while extracting cards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Card extraction failed", e.getCause());
+        }
+    }
+
+    private static <T> List<T> parallel(List<Element> cards, Function<Element, T> card) {
+        return cards.parallelStream()
+                .map(card)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
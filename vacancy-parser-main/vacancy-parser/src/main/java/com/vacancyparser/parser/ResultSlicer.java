@@ -0,0 +1,275 @@
+package com.vacancyparser.parser;
+
+import com.vacancyparser.fetch.BodySlicer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Побайтовый поиск списка результатов на странице выдачи. Маркер — значение атрибута (класс или data-qa)
+ * целым словом внутри открывающего тега; вхождения в комментариях и скриптах не учитываются.
+ * Сначала ищется контейнер результатов, иначе — диапазон от первой до последней карточки вакансии.
+ * Границы элемента находятся подсчётом вложенных открывающих и закрывающих тегов того же имени;
+ * содержимое комментариев и {@code <script>} пропускается. Если маркеров нет или разметка не сходится,
+ * возвращается пусто и разбирается вся страница.
+ */
+public final class ResultSlicer implements BodySlicer {
+
+    public static final ResultSlicer HH = new ResultSlicer(
+            List.of("vacancy-serp__results"),
+            List.of("vacancy-serp__vacancy"));
+    public static final ResultSlicer SUPERJOB = new ResultSlicer(
+            List.of(),
+            List.of("f-test-vacancy-item"));
+    public static final ResultSlicer HABR = new ResultSlicer(
+            List.of(),
+            List.of("job-card", "vacancy-card"));
+
+    private static final byte[] COMMENT_START = ascii("<!--");
+    private static final byte[] COMMENT_END = ascii("-->");
+    private static final byte[] SCRIPT_END = ascii("</script");
+    private static final byte[] SCRIPT = ascii("script");
+    private static final byte[] GT = ascii(">");
+
+    private final List<byte[]> containerMarkers;
+    private final List<byte[]> cardMarkers;
+
+    private ResultSlicer(List<String> containerMarkers, List<String> cardMarkers) {
+        this.containerMarkers = containerMarkers.stream().map(ResultSlicer::ascii).toList();
+        this.cardMarkers = cardMarkers.stream().map(ResultSlicer::ascii).toList();
+    }
+
+    /**
+     * Срез для источника или null, если для источника маркеры не заданы
+     */
+    public static ResultSlicer forSource(String source) {
+        return switch (source) {
+            case "hh" -> HH;
+            case "superjob" -> SUPERJOB;
+            case "habr" -> HABR;
+            default -> null;
+        };
+    }
+
+    @Override
+    public Optional<Range> find(byte[] body, int length) {
+        for (byte[] marker : containerMarkers) {
+            int[] at = findToken(body, length, marker);
+            if (at != null) {
+                Optional<Range> range = element(body, length, at[0], at[0]);
+                if (range.isPresent()) {
+                    return range;
+                }
+            }
+        }
+        for (byte[] marker : cardMarkers) {
+            int[] at = findToken(body, length, marker);
+            if (at == null) {
+                continue;
+            }
+            Optional<Range> range = element(body, length, at[0], at[1]);
+            if (range.isPresent()) {
+                return range;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * От начала элемента с маркером {@code first} до конца элемента с маркером {@code last}
+     */
+    private static Optional<Range> element(byte[] body, int length, int first, int last) {
+        int start = lastIndexOf(body, first, (byte) '<');
+        int lastStart = lastIndexOf(body, last, (byte) '<');
+        // Маркер должен стоять внутри открывающего тега, а не в тексте или скрипте
+        if (start < 0 || lastStart < 0 || indexOf(body, first, GT, start) >= 0 || indexOf(body, last, GT, lastStart) >= 0) {
+            return Optional.empty();
+        }
+        byte[] tag = tagName(body, length, lastStart);
+        byte[] firstTag = tagName(body, length, start);
+        if (tag.length == 0 || !Arrays.equals(tag, firstTag)) {
+            return Optional.empty();
+        }
+        int end = matchingEnd(body, length, lastStart, tag);
+        return end < 0 ? Optional.empty() : Optional.of(new Range(start, end));
+    }
+
+    /**
+     * Позиция сразу за закрывающим тегом элемента, начинающегося в {@code start}, или -1
+     */
+    static int matchingEnd(byte[] body, int length, int start, byte[] tag) {
+        int depth = 0;
+        int i = start;
+        while (i < length) {
+            if (body[i] != '<') {
+                i++;
+                continue;
+            }
+            if (startsWith(body, length, i, COMMENT_START)) {
+                int close = indexOf(body, length, COMMENT_END, i + COMMENT_START.length);
+                if (close < 0) {
+                    return -1;
+                }
+                i = close + COMMENT_END.length;
+                continue;
+            }
+            boolean closing = i + 1 < length && body[i + 1] == '/';
+            int nameStart = closing ? i + 2 : i + 1;
+            if (nameMatches(body, length, nameStart, tag)) {
+                depth += closing ? -1 : 1;
+                int gt = indexOf(body, length, GT, nameStart);
+                if (gt < 0) {
+                    return -1;
+                }
+                if (depth == 0) {
+                    return gt + 1;
+                }
+                // Самозакрывающийся тег не открывает вложенность
+                if (!closing && body[gt - 1] == '/') {
+                    depth--;
+                }
+                i = gt + 1;
+                continue;
+            }
+            if (!closing && nameMatches(body, length, nameStart, SCRIPT)) {
+                int close = indexOfIgnoreCase(body, length, SCRIPT_END, nameStart);
+                if (close < 0) {
+                    return -1;
+                }
+                i = close + SCRIPT_END.length;
+                continue;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static byte[] tagName(byte[] body, int length, int lt) {
+        int i = lt + 1;
+        while (i < length && isNameChar(body[i])) {
+            i++;
+        }
+        byte[] name = new byte[i - lt - 1];
+        for (int j = 0; j < name.length; j++) {
+            name[j] = lower(body[lt + 1 + j]);
+        }
+        return name;
+    }
+
+    private static boolean nameMatches(byte[] body, int length, int at, byte[] name) {
+        if (at + name.length >= length) {
+            return false;
+        }
+        for (int j = 0; j < name.length; j++) {
+            if (lower(body[at + j]) != name[j]) {
+                return false;
+            }
+        }
+        return !isNameChar(body[at + name.length]);
+    }
+
+    private static boolean isNameChar(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '-';
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    private static boolean startsWith(byte[] body, int length, int at, byte[] prefix) {
+        if (at + prefix.length > length) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length; j++) {
+            if (body[at + j] != prefix[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(byte[] body, int length, byte[] pattern, int from) {
+        byte first = pattern[0];
+        int max = length - pattern.length;
+        for (int i = Math.max(0, from); i <= max; i++) {
+            if (body[i] == first && startsWith(body, length, i, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfIgnoreCase(byte[] body, int length, byte[] pattern, int from) {
+        int max = length - pattern.length;
+        for (int i = Math.max(0, from); i <= max; i++) {
+            int j = 0;
+            while (j < pattern.length && lower(body[i + j]) == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Первое и последнее вхождение маркера вне комментариев и {@code <script>}
+     * @return позиции вхождений или null
+     */
+    private static int[] findToken(byte[] body, int length, byte[] token) {
+        int first = -1;
+        int last = -1;
+        int i = 0;
+        while (i <= length - token.length) {
+            byte b = body[i];
+            if (b == '<' && startsWith(body, length, i, COMMENT_START)) {
+                int close = indexOf(body, length, COMMENT_END, i + COMMENT_START.length);
+                i = close < 0 ? length : close + COMMENT_END.length;
+                continue;
+            }
+            if (b == '<' && nameMatches(body, length, i + 1, SCRIPT)) {
+                int close = indexOfIgnoreCase(body, length, SCRIPT_END, i + 1);
+                i = close < 0 ? length : close + SCRIPT_END.length;
+                continue;
+            }
+            if (b == token[0] && startsWith(body, length, i, token) && isToken(body, length, i, token.length)) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                i += token.length;
+                continue;
+            }
+            i++;
+        }
+        return first < 0 ? null : new int[]{first, last};
+    }
+
+    /**
+     * Совпадение целым словом: {@code vacancy-serp__vacancy}, но не {@code vacancy-serp__vacancy-title}
+     */
+    private static boolean isToken(byte[] body, int length, int at, int tokenLength) {
+        int end = at + tokenLength;
+        return at > 0 && !isClassChar(body[at - 1]) && end < length && !isClassChar(body[end]);
+    }
+
+    private static boolean isClassChar(byte b) {
+        return isNameChar(b) || b == '_';
+    }
+
+    private static int lastIndexOf(byte[] body, int before, byte b) {
+        for (int i = before; i >= 0; i--) {
+            if (body[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,135 @@
+package com.vacancyparser.parser;
+
+import com.vacancyparser.model.Vacancy;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Канонический адрес вакансии и её числовой id на сайте. Одна и та же вакансия приходит под разными
+ * адресами: с метками перехода в параметрах ({@code ?query=...&hhtmFrom=...}), с якорем, с региональным
+ * поддоменом. Канонический адрес собирается из id вакансии, а ключом вакансии служит пара
+ * {@code (source, externalId)}. Если id в адресе не найден, {@code externalId} — отрицательный 64-битный
+ * хэш канонического адреса: он не пересекается с настоящими id и тоже годится как ключ.
+ */
+public final class UrlCanonicalizer {
+
+    public static final UrlCanonicalizer HH = new UrlCanonicalizer(
+            Pattern.compile("/vacancy/(\\d+)"), "https://hh.ru/vacancy/", "hh.ru");
+    public static final UrlCanonicalizer SUPERJOB = new UrlCanonicalizer(
+            Pattern.compile("-(\\d+)\\.html$"), null, "www.superjob.ru");
+    public static final UrlCanonicalizer HABR = new UrlCanonicalizer(
+            Pattern.compile("/vacancies/(\\d+)"), "https://career.habr.com/vacancies/", "career.habr.com");
+    // Неизвестный источник: без id, из адреса убираются только якорь и utm-метки
+    public static final UrlCanonicalizer GENERIC = new UrlCanonicalizer(null, null, null);
+
+    private final Pattern idPattern;
+    private final String canonicalPrefix;
+    private final String canonicalHost;
+
+    private UrlCanonicalizer(Pattern idPattern, String canonicalPrefix, String canonicalHost) {
+        this.idPattern = idPattern;
+        this.canonicalPrefix = canonicalPrefix;
+        this.canonicalHost = canonicalHost;
+    }
+
+    public static UrlCanonicalizer forSource(String source) {
+        if (source == null) {
+            return GENERIC;
+        }
+        return switch (source) {
+            case "hh" -> HH;
+            case "superjob" -> SUPERJOB;
+            case "habr" -> HABR;
+            default -> GENERIC;
+        };
+    }
+
+    /**
+     * Приводит адрес вакансии к каноническому и проставляет {@code externalId}. Повторный вызов ничего не меняет.
+     * @param vacancy вакансия с source и sourceUrl
+     * @return та же вакансия
+     */
+    public static Vacancy identify(Vacancy vacancy) {
+        if (vacancy.getSourceUrl() == null) {
+            return vacancy;
+        }
+        UrlCanonicalizer canonicalizer = forSource(vacancy.getSource());
+        String canonical = canonicalizer.canonicalize(vacancy.getSourceUrl());
+        vacancy.setSourceUrl(canonical);
+        vacancy.setExternalId(canonicalizer.externalId(canonical));
+        return vacancy;
+    }
+
+    /**
+     * Канонический адрес: для адреса с id — собранный из id, иначе без параметров (для неизвестного
+     * источника — без utm-меток), якоря и регионального поддомена, со схемой https и хостом в нижнем регистре
+     */
+    public String canonicalize(String url) {
+        String trimmed = url.trim();
+        UriComponents components;
+        try {
+            components = UriComponentsBuilder.fromHttpUrl(trimmed).build();
+        } catch (IllegalArgumentException e) {
+            return trimmed;
+        }
+        String path = components.getPath() != null ? components.getPath() : "";
+        Long id = id(path);
+        if (id != null && canonicalPrefix != null) {
+            return canonicalPrefix + id;
+        }
+        String host = components.getHost() != null ? components.getHost().toLowerCase(Locale.ROOT) : "";
+        if (canonicalHost != null) {
+            return "https://" + canonicalHost + path;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance()
+                .scheme(components.getScheme() != null ? components.getScheme().toLowerCase(Locale.ROOT) : "https")
+                .host(host)
+                .port(components.getPort())
+                .path(path);
+        components.getQueryParams().forEach((name, values) -> {
+            if (!name.toLowerCase(Locale.ROOT).startsWith("utm_")) {
+                builder.queryParam(name, values.toArray());
+            }
+        });
+        return builder.build().toUriString();
+    }
+
+    /**
+     * Числовой id вакансии на сайте, а если его нет в адресе — отрицательный хэш канонического адреса
+     * @param canonicalUrl канонический адрес ({@link #canonicalize})
+     */
+    public long externalId(String canonicalUrl) {
+        String path = canonicalUrl;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        Long id = id(path);
+        if (id != null) {
+            return id;
+        }
+        return UUID.nameUUIDFromBytes(canonicalUrl.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits()
+                | Long.MIN_VALUE;
+    }
+
+    private Long id(String path) {
+        if (idPattern == null) {
+            return null;
+        }
+        Matcher matcher = idPattern.matcher(path);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
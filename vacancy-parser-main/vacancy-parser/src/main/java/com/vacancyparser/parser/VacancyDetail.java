@@ -0,0 +1,17 @@
+package com.vacancyparser.parser;
+
+import java.util.List;
+
+/**
+ * Подробности со страницы вакансии
+ * @param description полное описание (текст без разметки) или null
+ * @param skills ключевые навыки в порядке на странице
+ * @param experience требуемый опыт или null
+ * @param employmentType тип занятости или null
+ */
+public record VacancyDetail(String description, List<String> skills, String experience, String employmentType) {
+
+    public boolean isEmpty() {
+        return description == null && skills.isEmpty() && experience == null && employmentType == null;
+    }
+}
@@ -1,6 +1,18 @@
 package com.vacancyparser.parser;
 
+import com.vacancyparser.fetch.BodySlicer;
+import com.vacancyparser.fetch.CircuitOpenException;
+import com.vacancyparser.fetch.FetchedPage;
+import com.vacancyparser.fetch.PageFetchFailedException;
+import com.vacancyparser.fetch.PageNotModifiedException;
+import com.vacancyparser.fetch.ResilientFetcher;
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
 import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.pipeline.CrawlPipeline;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -11,12 +23,14 @@ import lombok.extern.slf4j.Slf4j;
 import com.vacancyparser.service.TracingService;
 import io.opentelemetry.api.trace.Span;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,445 +38,710 @@ import java.util.regex.Pattern;
 @Slf4j
 public class VacancyParser {
     
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
-    private static final int TIMEOUT = 30000;
+    private static final String PAGE_PLACEHOLDER = "{page}";
+    private static final ObjectMapper JSON = new ObjectMapper();
     
     @Autowired(required = false)
     private TracingService tracingService;
 
+    @Autowired
+    private ResilientFetcher resilientFetcher;
+
+    @Autowired
+    private CrawlPipeline crawlPipeline;
+
+    @Autowired(required = false)
+    private CardExtractor cardExtractor;
+
+    public void setCardExtractor(CardExtractor cardExtractor) {
+        this.cardExtractor = cardExtractor;
+    }
+
+    private CardExtractor cardExtractor() {
+        // Без контекста Spring (тесты, бенчмарки) карточки разбираются последовательно
+        return cardExtractor != null ? cardExtractor : CardExtractor.serial();
+    }
+
+    /**
+     * Загружает страницу на этапе fetch конвейера, а разбирает и извлекает вакансии на этапе parse.
+     * Поток загрузки освобождается, как только тело прочитано, и не ждёт разбора.
+     * Буфер страницы возвращается в пул только из задачи разбора: если задачу сняли до запуска,
+     * буфер просто достанется сборщику мусора, а не попадёт в пул, пока его ещё читают.
+     */
+    private List<Vacancy> fetchAndExtract(String source, String url, String referrer, CrawlContext context,
+                                          BodySlicer slicer, Function<Document, List<Vacancy>> extractor) throws Exception {
+        FetchedPage page = crawlPipeline.fetch(() -> resilientFetcher.fetchBody(source, url, referrer, context), context);
+        return crawlPipeline.parse(() -> {
+            try (page) {
+                return extractor.apply(page.parse(slicer));
+            }
+        }, context);
+    }
+
     public List<Vacancy> parseHhRu(String url) {
+        return parseHhRu(url, CrawlContext.unbounded());
+    }
+
+    public List<Vacancy> parseHhRu(String url, CrawlContext context) {
         if (tracingService != null) {
-            return tracingService.traceOperation("parse_hh_ru", () -> parseHhRuInternal(url));
+            return tracingService.traceOperation("parse_hh_ru", () -> parseHhRuInternal(url, context));
         } else {
-            return parseHhRuInternal(url);
+            return parseHhRuInternal(url, context);
         }
     }
     
-    private List<Vacancy> parseHhRuInternal(String url) {
-            List<Vacancy> vacancies = new ArrayList<>();
-            try {
-                log.info("Parsing hh.ru: {}", url);
-                Document doc = Jsoup.connect(url)
-                        .userAgent(USER_AGENT)
-                        .timeout(TIMEOUT)
-                        .referrer("https://hh.ru")
-                        .followRedirects(true)
-                        .get();
-
-                Elements vacancyElements = doc.select("div[data-qa='vacancy-serp__vacancy']");
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div.vacancy-serp-item");
-            }
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div[class*='vacancy']");
-            }
-            
-            log.info("Found {} vacancy elements on hh.ru", vacancyElements.size());
-            
-            int processedCount = 0;
-            for (Element element : vacancyElements) {
-                Vacancy vacancy = new Vacancy();
-                
-                Element titleElement = element.selectFirst("a[data-qa='vacancy-serp__vacancy-title']");
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[data-qa*='title']");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a.bloko-link");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("h3 a, h2 a");
-                }
-                if (titleElement != null) {
-                    String title = titleElement.text().trim();
-                    if (!title.isEmpty()) {
-                        vacancy.setTitle(title);
-                        String href = titleElement.attr("abs:href");
-                        if (href.isEmpty()) {
-                            href = titleElement.attr("href");
-                            if (!href.startsWith("http")) {
-                                href = "https://hh.ru" + href;
-                            }
-                        }
-                        vacancy.setSourceUrl(href);
-                    }
-                }
-                
-                Element companyElement = element.selectFirst("a[data-qa='vacancy-serp__vacancy-employer']");
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("a[data-qa*='employer']");
-                }
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("span[data-qa*='employer']");
-                }
-                if (companyElement != null) {
-                    vacancy.setCompany(companyElement.text().trim());
-                }
-                
-                Element salaryElement = element.selectFirst("span[data-qa='vacancy-serp__vacancy-compensation']");
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("span[data-qa*='compensation']");
-                }
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("span[class*='salary']");
-                }
-                if (salaryElement != null) {
-                    vacancy.setSalary(salaryElement.text().trim());
-                }
-                
-                Element cityElement = element.selectFirst("div[data-qa='vacancy-serp__vacancy-address']");
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("span[data-qa*='address']");
-                }
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("div[data-qa*='address']");
-                }
-                if (cityElement != null) {
-                    String cityText = cityElement.text().trim();
-                    if (!cityText.isEmpty()) {
-                        vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
-                    }
-                }
-                
-                // Date
-                Element dateElement = element.selectFirst("span[data-qa='vacancy-serp__vacancy-date']");
-                if (dateElement == null) {
-                    dateElement = element.selectFirst("span[data-qa*='date']");
-                }
-                if (dateElement != null) {
-                    vacancy.setPublishedDate(parseDate(dateElement.text()));
-                }
-                
-                // Requirements
-                Element requirementsElement = element.selectFirst("div[data-qa='vacancy-serp__vacancy_snippet_responsibility']");
-                if (requirementsElement == null) {
-                    requirementsElement = element.selectFirst("div[data-qa*='responsibility']");
-                }
-                if (requirementsElement != null) {
-                    vacancy.setRequirements(requirementsElement.text().trim());
-                }
-                
-                vacancy.setSource("hh");
-                if (vacancy.getPublishedDate() == null) {
-                    vacancy.setPublishedDate(LocalDateTime.now());
-                }
-                
-                if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
-                    if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
-                        vacancy.setCity("Не указан");
-                    }
-                    if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
-                        vacancy.setCompany("Не указана");
-                    }
-                    vacancies.add(vacancy);
-                    processedCount++;
-                } else {
-                    log.debug("Skipped element - no title found");
-                }
-            }
-            log.info("Successfully processed {} out of {} elements on hh.ru", processedCount, vacancyElements.size());
-            log.info("Parsed {} vacancies from hh.ru", vacancies.size());
+    private List<Vacancy> parseHhRuInternal(String url, CrawlContext context) {
+        try {
+            log.info("Parsing hh.ru: {}", url);
+            return fetchAndExtract("hh", url, "https://hh.ru", context, ResultSlicer.HH, this::extractHhRu);
+        } catch (CrawlCancelledException | PageNotModifiedException e) {
+            // Отмену и неизменившуюся страницу не глушим: проход должен остановиться, а не перейти к следующей странице
+            throw e;
+        } catch (CircuitOpenException e) {
+            log.warn("Skipping hh.ru page {}: {}", url, e.getMessage());
+            throw new PageFetchFailedException(url, e);
         } catch (IOException e) {
             log.error("Error parsing hh.ru: {}", e.getMessage(), e);
+            throw new PageFetchFailedException(url, e);
         } catch (Exception e) {
             log.error("Unexpected error parsing hh.ru: {}", e.getMessage(), e);
+            // Пустой список проход принял бы за конец выдачи
+            throw new PageFetchFailedException(url, e);
+        }
+    }
+
+    /**
+     * Извлекает вакансии из страницы выдачи hh.ru без обращения к сети (в том числе из архива страниц)
+     * @param doc HTML-документ страницы
+     * @return вакансии страницы
+     */
+    public List<Vacancy> extractHhRu(Document doc) {
+        // У премиум-карточек в data-qa добавлен второй маркер: vacancy-serp__vacancy vacancy-serp__vacancy_premium
+        Elements vacancyElements = doc.select("div[data-qa='vacancy-serp__vacancy'], div[data-qa^='vacancy-serp__vacancy ']");
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div.vacancy-serp-item");
+        }
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div[class*='vacancy']");
         }
+            
+        log.info("Found {} vacancy elements on hh.ru", vacancyElements.size());
+            
+        List<Vacancy> vacancies = cardExtractor().extract(vacancyElements, this::extractHhRuCard);
+        log.info("Successfully processed {} out of {} elements on hh.ru", vacancies.size(), vacancyElements.size());
+        log.info("Parsed {} vacancies from hh.ru", vacancies.size());
         return vacancies;
     }
 
+    /**
+     * Извлекает вакансию из карточки hh.ru
+     * @return вакансия или null, если у карточки нет названия
+     */
+    private Vacancy extractHhRuCard(Element element) {
+        Vacancy vacancy = new Vacancy();
+        // Премиум-карточки hh закреплены в начале выдачи независимо от даты публикации
+        vacancy.setPromoted(element.attr("data-qa").contains("vacancy-serp__vacancy_premium")
+                || element.className().contains("premium"));
+            
+        Element titleElement = element.selectFirst("a[data-qa='vacancy-serp__vacancy-title']");
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[data-qa*='title']");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a.bloko-link");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("h3 a, h2 a");
+        }
+        if (titleElement != null) {
+            String title = titleElement.text().trim();
+            if (!title.isEmpty()) {
+                vacancy.setTitle(title);
+                String href = titleElement.attr("abs:href");
+                if (href.isEmpty()) {
+                    href = titleElement.attr("href");
+                    if (!href.startsWith("http")) {
+                        href = "https://hh.ru" + href;
+                    }
+                }
+                vacancy.setSourceUrl(href);
+            }
+        }
+            
+        Element companyElement = element.selectFirst("a[data-qa='vacancy-serp__vacancy-employer']");
+        if (companyElement == null) {
+            companyElement = element.selectFirst("a[data-qa*='employer']");
+        }
+        if (companyElement == null) {
+            companyElement = element.selectFirst("span[data-qa*='employer']");
+        }
+        if (companyElement != null) {
+            vacancy.setCompany(companyElement.text().trim());
+        }
+            
+        Element salaryElement = element.selectFirst("span[data-qa='vacancy-serp__vacancy-compensation']");
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("span[data-qa*='compensation']");
+        }
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("span[class*='salary']");
+        }
+        if (salaryElement != null) {
+            vacancy.setSalary(salaryElement.text().trim());
+        }
+            
+        Element cityElement = element.selectFirst("div[data-qa='vacancy-serp__vacancy-address']");
+        if (cityElement == null) {
+            cityElement = element.selectFirst("span[data-qa*='address']");
+        }
+        if (cityElement == null) {
+            cityElement = element.selectFirst("div[data-qa*='address']");
+        }
+        if (cityElement != null) {
+            String cityText = cityElement.text().trim();
+            if (!cityText.isEmpty()) {
+                vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
+            }
+        }
+            
+        // Date
+        Element dateElement = element.selectFirst("span[data-qa='vacancy-serp__vacancy-date']");
+        if (dateElement == null) {
+            dateElement = element.selectFirst("span[data-qa*='date']");
+        }
+        if (dateElement != null) {
+            vacancy.setPublishedDate(parseDate(dateElement.text()));
+        }
+            
+        // Requirements
+        Element requirementsElement = element.selectFirst("div[data-qa='vacancy-serp__vacancy_snippet_responsibility']");
+        if (requirementsElement == null) {
+            requirementsElement = element.selectFirst("div[data-qa*='responsibility']");
+        }
+        if (requirementsElement != null) {
+            vacancy.setRequirements(requirementsElement.text().trim());
+        }
+            
+        vacancy.setSource("hh");
+        if (vacancy.getPublishedDate() == null) {
+            vacancy.setPublishedDate(LocalDateTime.now());
+        }
+            
+        if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
+            if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
+                vacancy.setCity("Не указан");
+            }
+            if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
+                vacancy.setCompany("Не указана");
+            }
+            return UrlCanonicalizer.identify(vacancy);
+        }
+        log.debug("Skipped element - no title found");
+        return null;
+    }
+
     public List<Vacancy> parseSuperJob(String url) {
+        return parseSuperJob(url, CrawlContext.unbounded());
+    }
+
+    public List<Vacancy> parseSuperJob(String url, CrawlContext context) {
         if (tracingService != null) {
-            return tracingService.traceOperation("parse_superjob", () -> parseSuperJobInternal(url));
+            return tracingService.traceOperation("parse_superjob", () -> parseSuperJobInternal(url, context));
         } else {
-            return parseSuperJobInternal(url);
+            return parseSuperJobInternal(url, context);
         }
     }
     
-    private List<Vacancy> parseSuperJobInternal(String url) {
-            List<Vacancy> vacancies = new ArrayList<>();
-            try {
-                log.info("Parsing SuperJob: {}", url);
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .referrer("https://www.superjob.ru")
-                    .followRedirects(true)
-                    .get();
-
-            Elements vacancyElements = doc.select("div.f-test-vacancy-item");
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div[class*='vacancy-item']");
-            }
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div[class*='_1h3Zg']");
-            }
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div[data-qa*='vacancy']");
-            }
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("article, div[class*='item']");
-            }
+    private List<Vacancy> parseSuperJobInternal(String url, CrawlContext context) {
+        try {
+            log.info("Parsing SuperJob: {}", url);
+            return fetchAndExtract("superjob", url, "https://www.superjob.ru", context, ResultSlicer.SUPERJOB, this::extractSuperJob);
+        } catch (CrawlCancelledException | PageNotModifiedException e) {
+            // Отмену и неизменившуюся страницу не глушим: проход должен остановиться, а не перейти к следующей странице
+            throw e;
+        } catch (CircuitOpenException e) {
+            log.warn("Skipping SuperJob page {}: {}", url, e.getMessage());
+            throw new PageFetchFailedException(url, e);
+        } catch (IOException e) {
+            log.error("Error parsing SuperJob: {}", e.getMessage(), e);
+            throw new PageFetchFailedException(url, e);
+        } catch (Exception e) {
+            log.error("Unexpected error parsing SuperJob: {}", e.getMessage(), e);
+            // Пустой список проход принял бы за конец выдачи
+            throw new PageFetchFailedException(url, e);
+        }
+    }
+
+    /**
+     * Извлекает вакансии из страницы выдачи SuperJob без обращения к сети (в том числе из архива страниц)
+     * @param doc HTML-документ страницы
+     * @return вакансии страницы
+     */
+    public List<Vacancy> extractSuperJob(Document doc) {
+        Elements vacancyElements = doc.select("div.f-test-vacancy-item");
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div[class*='vacancy-item']");
+        }
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div[class*='_1h3Zg']");
+        }
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div[data-qa*='vacancy']");
+        }
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("article, div[class*='item']");
+        }
             
-            log.info("Found {} vacancy elements on SuperJob", vacancyElements.size());
+        log.info("Found {} vacancy elements on SuperJob", vacancyElements.size());
             
-            if (vacancyElements.isEmpty()) {
-                log.warn("SuperJob: No vacancy elements found. Page title: {}", doc.title());
-                log.debug("SuperJob: First 500 chars of body: {}", doc.body().text().substring(0, Math.min(500, doc.body().text().length())));
-            }
+        if (vacancyElements.isEmpty()) {
+            log.warn("SuperJob: No vacancy elements found. Page title: {}", doc.title());
+            log.debug("SuperJob: First 500 chars of body: {}", doc.body().text().substring(0, Math.min(500, doc.body().text().length())));
+        }
             
-            int processedCount = 0;
-            for (Element element : vacancyElements) {
-                Vacancy vacancy = new Vacancy();
-                
-                Element titleElement = element.selectFirst("a[href*='/vakansii/']");
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[href*='/vacancy/']");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a._1IHWd");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[class*='_1IHWd']");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("h3 a, h2 a, h4 a");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[class*='title']");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a");
-                }
-                if (titleElement != null) {
-                    String title = titleElement.text().trim();
-                    if (!title.isEmpty()) {
-                        vacancy.setTitle(title);
-                        String href = titleElement.attr("abs:href");
-                        if (href.isEmpty()) {
-                            href = titleElement.attr("href");
-                            if (!href.startsWith("http")) {
-                                href = "https://www.superjob.ru" + href;
-                            }
-                        }
-                        vacancy.setSourceUrl(href);
-                    }
-                }
-                
-                Element companyElement = element.selectFirst("span[class*='company']");
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("a[class*='company']");
-                }
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("span._3nMqD");
-                }
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("span[class*='_3nMqD']");
-                }
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("div[class*='company']");
-                }
-                if (companyElement != null) {
-                    vacancy.setCompany(companyElement.text().trim());
-                }
-                
-                Element salaryElement = element.selectFirst("span[class*='salary']");
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("div[class*='salary']");
-                }
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("span._1OuF_");
-                }
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("span[class*='_1OuF_']");
-                }
-                if (salaryElement == null) {
-                    Elements allSpans = element.select("span");
-                    for (Element span : allSpans) {
-                        String text = span.text();
-                        if (text.contains("руб") || text.contains("₽") || text.contains("USD") || text.contains("EUR")) {
-                            salaryElement = span;
-                            break;
-                        }
-                    }
-                }
-                if (salaryElement != null) {
-                    vacancy.setSalary(salaryElement.text().trim());
-                }
-                
-                Element cityElement = element.selectFirst("span[class*='city']");
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("div[class*='city']");
-                }
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("span._3mfro");
-                }
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("span[class*='_3mfro']");
-                }
-                if (cityElement == null) {
-                    Elements allSpans = element.select("span, div");
-                    for (Element span : allSpans) {
-                        String text = span.text().toLowerCase();
-                        if (text.contains("москва") || text.contains("санкт-петербург") || 
-                            text.contains("новосибирск") || text.contains("екатеринбург") ||
-                            text.contains("казань") || text.contains("нижний новгород")) {
-                            cityElement = span;
-                            break;
-                        }
+        List<Vacancy> vacancies = cardExtractor().extract(vacancyElements, this::extractSuperJobCard);
+        log.info("Successfully processed {} out of {} elements on SuperJob", vacancies.size(), vacancyElements.size());
+        log.info("Parsed {} vacancies from SuperJob", vacancies.size());
+        return vacancies;
+    }
+
+    /**
+     * Извлекает вакансию из карточки SuperJob
+     * @return вакансия или null, если у карточки нет названия
+     */
+    private Vacancy extractSuperJobCard(Element element) {
+        Vacancy vacancy = new Vacancy();
+            
+        Element titleElement = element.selectFirst("a[href*='/vakansii/']");
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[href*='/vacancy/']");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a._1IHWd");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[class*='_1IHWd']");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("h3 a, h2 a, h4 a");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[class*='title']");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a");
+        }
+        if (titleElement != null) {
+            String title = titleElement.text().trim();
+            if (!title.isEmpty()) {
+                vacancy.setTitle(title);
+                String href = titleElement.attr("abs:href");
+                if (href.isEmpty()) {
+                    href = titleElement.attr("href");
+                    if (!href.startsWith("http")) {
+                        href = "https://www.superjob.ru" + href;
                     }
                 }
-                if (cityElement != null) {
-                    String cityText = cityElement.text().trim();
-                    if (!cityText.isEmpty()) {
-                        vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
-                    }
+                vacancy.setSourceUrl(href);
+            }
+        }
+            
+        Element companyElement = element.selectFirst("span[class*='company']");
+        if (companyElement == null) {
+            companyElement = element.selectFirst("a[class*='company']");
+        }
+        if (companyElement == null) {
+            companyElement = element.selectFirst("span._3nMqD");
+        }
+        if (companyElement == null) {
+            companyElement = element.selectFirst("span[class*='_3nMqD']");
+        }
+        if (companyElement == null) {
+            companyElement = element.selectFirst("div[class*='company']");
+        }
+        if (companyElement != null) {
+            vacancy.setCompany(companyElement.text().trim());
+        }
+            
+        Element salaryElement = element.selectFirst("span[class*='salary']");
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("div[class*='salary']");
+        }
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("span._1OuF_");
+        }
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("span[class*='_1OuF_']");
+        }
+        if (salaryElement == null) {
+            Elements allSpans = element.select("span");
+            for (Element span : allSpans) {
+                String text = span.text();
+                if (text.contains("руб") || text.contains("₽") || text.contains("USD") || text.contains("EUR")) {
+                    salaryElement = span;
+                    break;
                 }
-                
-                vacancy.setSource("superjob");
-                vacancy.setPublishedDate(LocalDateTime.now());
-                
-                if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
-                    if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
-                        vacancy.setCity("Не указан");
-                    }
-                    if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
-                        vacancy.setCompany("Не указана");
-                    }
-                    vacancies.add(vacancy);
-                    processedCount++;
-                } else {
-                    log.debug("Skipped SuperJob element - no title found. Element preview: {}", 
-                        element.html().substring(0, Math.min(200, element.html().length())));
+            }
+        }
+        if (salaryElement != null) {
+            vacancy.setSalary(salaryElement.text().trim());
+        }
+            
+        Element cityElement = element.selectFirst("span[class*='city']");
+        if (cityElement == null) {
+            cityElement = element.selectFirst("div[class*='city']");
+        }
+        if (cityElement == null) {
+            cityElement = element.selectFirst("span._3mfro");
+        }
+        if (cityElement == null) {
+            cityElement = element.selectFirst("span[class*='_3mfro']");
+        }
+        if (cityElement == null) {
+            Elements allSpans = element.select("span, div");
+            for (Element span : allSpans) {
+                String text = span.text().toLowerCase();
+                if (text.contains("москва") || text.contains("санкт-петербург") || 
+                    text.contains("новосибирск") || text.contains("екатеринбург") ||
+                    text.contains("казань") || text.contains("нижний новгород")) {
+                    cityElement = span;
+                    break;
                 }
             }
-            log.info("Successfully processed {} out of {} elements on SuperJob", processedCount, vacancyElements.size());
-            log.info("Parsed {} vacancies from SuperJob", vacancies.size());
-        } catch (IOException e) {
-            log.error("Error parsing SuperJob: {}", e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Unexpected error parsing SuperJob: {}", e.getMessage(), e);
         }
-        return vacancies;
+        if (cityElement != null) {
+            String cityText = cityElement.text().trim();
+            if (!cityText.isEmpty()) {
+                vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
+            }
+        }
+            
+        vacancy.setSource("superjob");
+        vacancy.setPublishedDate(LocalDateTime.now());
+            
+        if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
+            if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
+                vacancy.setCity("Не указан");
+            }
+            if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
+                vacancy.setCompany("Не указана");
+            }
+            return UrlCanonicalizer.identify(vacancy);
+        }
+        log.debug("Skipped SuperJob element - no title found. Element preview: {}", 
+            element.html().substring(0, Math.min(200, element.html().length())));
+        return null;
     }
 
     public List<Vacancy> parseHabrCareer(String url) {
+        return parseHabrCareer(url, CrawlContext.unbounded());
+    }
+
+    public List<Vacancy> parseHabrCareer(String url, CrawlContext context) {
         if (tracingService != null) {
-            return tracingService.traceOperation("parse_habr", () -> parseHabrCareerInternal(url));
+            return tracingService.traceOperation("parse_habr", () -> parseHabrCareerInternal(url, context));
         } else {
-            return parseHabrCareerInternal(url);
+            return parseHabrCareerInternal(url, context);
         }
     }
     
-    private List<Vacancy> parseHabrCareerInternal(String url) {
-            List<Vacancy> vacancies = new ArrayList<>();
-            try {
-                log.info("Parsing Habr Career: {}", url);
-            Document doc = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .timeout(TIMEOUT)
-                    .referrer("https://career.habr.com")
-                    .followRedirects(true)
-                    .get();
-
-            Elements vacancyElements = doc.select("div.job-card");
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div[class*='job']");
+    private List<Vacancy> parseHabrCareerInternal(String url, CrawlContext context) {
+        try {
+            log.info("Parsing Habr Career: {}", url);
+            return fetchAndExtract("habr", url, "https://career.habr.com", context, ResultSlicer.HABR, this::extractHabrCareer);
+        } catch (CrawlCancelledException | PageNotModifiedException e) {
+            // Отмену и неизменившуюся страницу не глушим: проход должен остановиться, а не перейти к следующей странице
+            throw e;
+        } catch (CircuitOpenException e) {
+            log.warn("Skipping Habr Career page {}: {}", url, e.getMessage());
+            throw new PageFetchFailedException(url, e);
+        } catch (IOException e) {
+            log.error("Error parsing Habr Career: {}", e.getMessage(), e);
+            throw new PageFetchFailedException(url, e);
+        } catch (Exception e) {
+            log.error("Unexpected error parsing Habr Career: {}", e.getMessage(), e);
+            // Пустой список проход принял бы за конец выдачи
+            throw new PageFetchFailedException(url, e);
+        }
+    }
+
+    /**
+     * Извлекает вакансии из страницы выдачи Habr Career без обращения к сети (в том числе из архива страниц)
+     * @param doc HTML-документ страницы
+     * @return вакансии страницы
+     */
+    public List<Vacancy> extractHabrCareer(Document doc) {
+        Elements vacancyElements = doc.select("div.job-card");
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div[class*='job']");
+        }
+        if (vacancyElements.isEmpty()) {
+            vacancyElements = doc.select("div.vacancy-card");
+        }
+            
+        log.info("Found {} vacancy elements on Habr Career", vacancyElements.size());
+            
+        List<Vacancy> vacancies = cardExtractor().extract(vacancyElements, this::extractHabrCareerCard);
+        log.info("Successfully processed {} out of {} elements on Habr Career", vacancies.size(), vacancyElements.size());
+        log.info("Parsed {} vacancies from Habr Career", vacancies.size());
+        return vacancies;
+    }
+
+    /**
+     * Извлекает вакансию из карточки Habr Career
+     * @return вакансия или null, если у карточки нет названия
+     */
+    private Vacancy extractHabrCareerCard(Element element) {
+        Vacancy vacancy = new Vacancy();
+            
+        Element titleElement = element.selectFirst("a.job-card__title");
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[class*='title']");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("h3 a, h2 a, h4 a");
+        }
+        if (titleElement == null) {
+            titleElement = element.selectFirst("a[href*='/vacancies/']");
+        }
+        if (titleElement != null) {
+            String title = titleElement.text().trim();
+            if (!title.isEmpty()) {
+                vacancy.setTitle(title);
+                String href = titleElement.attr("href");
+                if (!href.startsWith("http")) {
+                    href = "https://career.habr.com" + href;
+                }
+                vacancy.setSourceUrl(href);
             }
-            if (vacancyElements.isEmpty()) {
-                vacancyElements = doc.select("div.vacancy-card");
+        }
+            
+        Element companyElement = element.selectFirst("div.job-card__company-name");
+        if (companyElement == null) {
+            companyElement = element.selectFirst("div[class*='company']");
+        }
+        if (companyElement == null) {
+            companyElement = element.selectFirst("span[class*='company']");
+        }
+        if (companyElement != null) {
+            vacancy.setCompany(companyElement.text().trim());
+        }
+            
+        Element salaryElement = element.selectFirst("div.job-card__salary");
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("div[class*='salary']");
+        }
+        if (salaryElement == null) {
+            salaryElement = element.selectFirst("span[class*='salary']");
+        }
+        if (salaryElement != null) {
+            vacancy.setSalary(salaryElement.text().trim());
+        }
+            
+        Element cityElement = element.selectFirst("div.job-card__meta-item");
+        if (cityElement == null) {
+            cityElement = element.selectFirst("div[class*='meta']");
+        }
+        if (cityElement == null) {
+            Elements metaItems = element.select("div[class*='meta'], span[class*='meta']");
+            if (!metaItems.isEmpty()) {
+                cityElement = metaItems.first();
             }
+        }
+        if (cityElement != null) {
+            String cityText = cityElement.text().trim();
+            if (!cityText.isEmpty()) {
+                vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
+            }
+        }
             
-            log.info("Found {} vacancy elements on Habr Career", vacancyElements.size());
+        vacancy.setSource("habr");
+        vacancy.setPublishedDate(LocalDateTime.now());
             
-            int processedCount = 0;
-            for (Element element : vacancyElements) {
-                Vacancy vacancy = new Vacancy();
-                
-                Element titleElement = element.selectFirst("a.job-card__title");
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[class*='title']");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("h3 a, h2 a, h4 a");
-                }
-                if (titleElement == null) {
-                    titleElement = element.selectFirst("a[href*='/vacancies/']");
-                }
-                if (titleElement != null) {
-                    String title = titleElement.text().trim();
-                    if (!title.isEmpty()) {
-                        vacancy.setTitle(title);
-                        String href = titleElement.attr("href");
-                        if (!href.startsWith("http")) {
-                            href = "https://career.habr.com" + href;
-                        }
-                        vacancy.setSourceUrl(href);
-                    }
-                }
-                
-                Element companyElement = element.selectFirst("div.job-card__company-name");
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("div[class*='company']");
-                }
-                if (companyElement == null) {
-                    companyElement = element.selectFirst("span[class*='company']");
-                }
-                if (companyElement != null) {
-                    vacancy.setCompany(companyElement.text().trim());
-                }
-                
-                Element salaryElement = element.selectFirst("div.job-card__salary");
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("div[class*='salary']");
-                }
-                if (salaryElement == null) {
-                    salaryElement = element.selectFirst("span[class*='salary']");
-                }
-                if (salaryElement != null) {
-                    vacancy.setSalary(salaryElement.text().trim());
-                }
-                
-                Element cityElement = element.selectFirst("div.job-card__meta-item");
-                if (cityElement == null) {
-                    cityElement = element.selectFirst("div[class*='meta']");
-                }
-                if (cityElement == null) {
-                    Elements metaItems = element.select("div[class*='meta'], span[class*='meta']");
-                    if (!metaItems.isEmpty()) {
-                        cityElement = metaItems.first();
-                    }
+        if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
+            if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
+                vacancy.setCity("Не указан");
+            }
+            if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
+                vacancy.setCompany("Не указана");
+            }
+            return UrlCanonicalizer.identify(vacancy);
+        }
+        log.debug("Skipped Habr element - no title found");
+        return null;
+    }
+
+    /**
+     * Загружает страницу вакансии и извлекает подробности. Загрузка фоновая и идёт в потоке вызывающего,
+     * а не на этапах конвейера: дозагрузка не занимает потоки и слоты хостов обхода выдачи.
+     * @param source источник вакансии (hh, superjob, habr)
+     * @param url адрес страницы вакансии
+     * @param context дедлайн и отмена
+     * @return подробности вакансии
+     */
+    public VacancyDetail parseDetail(String source, String url, CrawlContext context) throws IOException {
+        String referrer = switch (source) {
+            case "superjob" -> "https://www.superjob.ru";
+            case "habr" -> "https://career.habr.com";
+            default -> "https://hh.ru";
+        };
+        try (FetchedPage page = resilientFetcher.fetchDetail(source, url, referrer, context)) {
+            return extractDetail(source, page.parse(null));
+        }
+    }
+
+    /**
+     * Извлекает подробности со страницы вакансии. Сначала читается разметка schema.org JobPosting
+     * (JSON-LD, её отдают все три сайта), недостающие поля — из вёрстки страницы.
+     * @param source источник вакансии (hh, superjob, habr)
+     * @param doc HTML-документ страницы вакансии
+     * @return подробности вакансии
+     */
+    public VacancyDetail extractDetail(String source, Document doc) {
+        JsonNode posting = jobPosting(doc);
+
+        String description = posting != null ? html(posting.path("description").asText(null)) : null;
+        if (description == null) {
+            description = text(doc, switch (source) {
+                case "hh" -> "div[data-qa='vacancy-description']";
+                case "superjob" -> "[itemprop='description'], div[class*='vacancy-description']";
+                case "habr" -> "div.vacancy-description__text";
+                default -> "[itemprop='description']";
+            });
+        }
+
+        List<String> skills = new ArrayList<>();
+        if (posting != null) {
+            values(posting.path("skills")).forEach(value -> skills.addAll(splitSkills(value)));
+        }
+        if (skills.isEmpty()) {
+            for (Element skill : doc.select(switch (source) {
+                case "hh" -> "[data-qa='skills-element'], [data-qa='bloko-tag__text']";
+                case "habr" -> "div.vacancy-skills a, a[href*='skills[]']";
+                default -> "[itemprop='skills']";
+            })) {
+                String name = skill.text().trim();
+                if (!name.isEmpty() && !skills.contains(name)) {
+                    skills.add(name);
                 }
-                if (cityElement != null) {
-                    String cityText = cityElement.text().trim();
-                    if (!cityText.isEmpty()) {
-                        vacancy.setCity(cityText.split(",")[0].split("•")[0].trim());
-                    }
+            }
+        }
+
+        String experience = posting != null ? experience(posting.path("experienceRequirements")) : null;
+        if (experience == null && "hh".equals(source)) {
+            experience = text(doc, "[data-qa='vacancy-experience']");
+        }
+
+        String employmentType = posting != null ? join(values(posting.path("employmentType"))) : null;
+        if (employmentType == null && "hh".equals(source)) {
+            employmentType = text(doc, "[data-qa='vacancy-view-employment-mode'], [data-qa='common-employment-text']");
+        }
+
+        return new VacancyDetail(description, skills, experience, employmentType);
+    }
+
+    /**
+     * Объект JobPosting из JSON-LD страницы или null
+     */
+    private static JsonNode jobPosting(Document doc) {
+        for (Element script : doc.select("script[type=application/ld+json]")) {
+            try {
+                JsonNode found = findJobPosting(JSON.readTree(script.data()));
+                if (found != null) {
+                    return found;
                 }
-                
-                vacancy.setSource("habr");
-                vacancy.setPublishedDate(LocalDateTime.now());
-                
-                if (vacancy.getTitle() != null && !vacancy.getTitle().isEmpty()) {
-                    if (vacancy.getCity() == null || vacancy.getCity().isEmpty()) {
-                        vacancy.setCity("Не указан");
-                    }
-                    if (vacancy.getCompany() == null || vacancy.getCompany().isEmpty()) {
-                        vacancy.setCompany("Не указана");
-                    }
-                    vacancies.add(vacancy);
-                    processedCount++;
-                } else {
-                    log.debug("Skipped Habr element - no title found");
+            } catch (JsonProcessingException e) {
+                log.debug("Skipped malformed JSON-LD block: {}", e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode findJobPosting(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (node.isArray()) {
+            for (JsonNode item : node) {
+                JsonNode found = findJobPosting(item);
+                if (found != null) {
+                    return found;
                 }
             }
-            log.info("Successfully processed {} out of {} elements on Habr Career", processedCount, vacancyElements.size());
-            log.info("Parsed {} vacancies from Habr Career", vacancies.size());
-        } catch (IOException e) {
-            log.error("Error parsing Habr Career: {}", e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Unexpected error parsing Habr Career: {}", e.getMessage(), e);
+            return null;
         }
-        return vacancies;
+        if (node.isObject()) {
+            if ("JobPosting".equals(node.path("@type").asText())) {
+                return node;
+            }
+            return findJobPosting(node.get("@graph"));
+        }
+        return null;
+    }
+
+    /**
+     * Строковые значения поля: строка или массив строк
+     */
+    private static List<String> values(JsonNode node) {
+        List<String> values = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(item -> {
+                if (item.isValueNode() && !item.asText().isBlank()) {
+                    values.add(item.asText().trim());
+                }
+            });
+        } else if (node.isValueNode() && !node.asText().isBlank()) {
+            values.add(node.asText().trim());
+        }
+        return values;
+    }
+
+    private static List<String> splitSkills(String value) {
+        List<String> skills = new ArrayList<>();
+        for (String skill : value.split(",")) {
+            if (!skill.isBlank()) {
+                skills.add(skill.trim());
+            }
+        }
+        return skills;
+    }
+
+    /**
+     * Опыт из experienceRequirements: строка или OccupationalExperienceRequirements
+     */
+    private static String experience(JsonNode node) {
+        if (node.isObject()) {
+            if (node.hasNonNull("monthsOfExperience")) {
+                int months = node.get("monthsOfExperience").asInt();
+                return months % 12 == 0 ? "от " + months / 12 + " лет" : "от " + months + " мес.";
+            }
+            return html(node.path("description").asText(null));
+        }
+        return html(node.asText(null));
+    }
+
+    private static String join(List<String> values) {
+        return values.isEmpty() ? null : String.join(", ", values);
+    }
+
+    /**
+     * Текст HTML-фрагмента без разметки, null для пустого
+     */
+    private static String html(String fragment) {
+        if (fragment == null) {
+            return null;
+        }
+        String text = Jsoup.parseBodyFragment(fragment).text().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String text(Document doc, String selector) {
+        Element element = doc.selectFirst(selector);
+        if (element == null) {
+            return null;
+        }
+        String text = element.text().trim();
+        return text.isEmpty() ? null : text;
     }
 
     private LocalDateTime parseDate(String dateText) {
@@ -484,6 +763,44 @@ public class VacancyParser {
         return LocalDateTime.now();
     }
 
+    /**
+     * Строит URL страницы поисковой выдачи. Нулевая страница — исходный URL без изменений,
+     * если это не шаблон с плейсхолдером {page}.
+     * hh.ru нумерует страницы с 0, SuperJob и Habr Career — с 1.
+     * @param url URL поиска или шаблон
+     * @param source источник
+     * @param page номер страницы, начиная с 0
+     * @return URL страницы
+     */
+    public String buildPageUrl(String url, String source, int page) {
+        int pageParam = "hh".equals(source) ? page : page + 1;
+        if (url.contains(PAGE_PLACEHOLDER)) {
+            return url.replace(PAGE_PLACEHOLDER, Integer.toString(pageParam));
+        }
+        if (page == 0) {
+            return url;
+        }
+        return UriComponentsBuilder.fromHttpUrl(url)
+                .replaceQueryParam("page", pageParam)
+                .build()
+                .toUriString();
+    }
+
+    /**
+     * Извлекает вакансии из уже загруженной страницы выдачи
+     * @param source источник
+     * @param doc HTML-документ страницы
+     * @return вакансии страницы (пусто для неизвестного источника)
+     */
+    public List<Vacancy> extract(String source, Document doc) {
+        return switch (source) {
+            case "hh" -> extractHhRu(doc);
+            case "superjob" -> extractSuperJob(doc);
+            case "habr" -> extractHabrCareer(doc);
+            default -> new ArrayList<>();
+        };
+    }
+
     public String detectSource(String url) {
         if (url.contains("hh.ru") || url.contains("hh.")) {
             return "hh";
@@ -0,0 +1,85 @@
+package com.vacancyparser.pipeline;
+
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+
+import java.util.List;
+
+/**
+ * Этап конвейера, обрабатывающий задания пачками: поток берёт из очереди всё накопившееся
+ * (до {@code batchSize}) и передаёт обработчику одним вызовом — например, чтобы сохранить
+ * несколько страниц в одной транзакции
+ * @param <T> задание
+ * @param <R> результат задания
+ */
+public final class BatchingStage<T, R> extends Stage<BatchingStage.Item<T, R>> {
+
+    /**
+     * Обработчик пачки: должен завершить каждое задание через {@link Item#complete} или {@link Item#fail}
+     */
+    @FunctionalInterface
+    public interface Handler<T, R> {
+        void handle(List<Item<T, R>> batch);
+    }
+
+    /**
+     * Задание в пачке
+     */
+    public static final class Item<T, R> extends Stage.Work<R> {
+        private final T value;
+        private final CrawlContext context;
+
+        private Item(T value, CrawlContext context) {
+            this.value = value;
+            this.context = context;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public CrawlContext context() {
+            return context;
+        }
+
+        public void complete(R result) {
+            future.complete(result);
+        }
+
+        public void fail(Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+
+    private final Handler<T, R> handler;
+    private final MetricsService metricsService;
+
+    BatchingStage(String name, int threads, int capacity, int batchSize, Handler<T, R> handler,
+                  MetricsService metricsService) {
+        super(name, threads, capacity, batchSize, ExecutionMode.PLATFORM.threadFactory("pipeline-" + name), metricsService);
+        this.handler = handler;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Ставит задание в очередь и ждёт его обработки. Взятое в работу задание доводится до конца
+     * и после отмены прохода: обработчик сам решает, что делать с заданием отменённого прохода.
+     * @param value задание
+     * @param context дедлайн и отмена прохода
+     * @return результат задания
+     */
+    public R call(T value, CrawlContext context) throws Exception {
+        return await(new Item<>(value, context), context, false);
+    }
+
+    @Override
+    protected void process(List<Item<T, R>> batch) {
+        metricsService.recordStageBatch(getName(), batch.size());
+        handler.handle(batch);
+        for (Item<T, R> item : batch) {
+            if (!item.future.isDone()) {
+                item.fail(new IllegalStateException("Batch handler did not complete the item"));
+            }
+        }
+    }
+}
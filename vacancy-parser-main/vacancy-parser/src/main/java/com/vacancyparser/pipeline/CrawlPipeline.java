@@ -0,0 +1,114 @@
+package com.vacancyparser.pipeline;
+
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Конвейер обхода: загрузка страниц, разбор и извлечение вакансий, запись в БД — отдельные этапы
+ * со своими потоками и ограниченными очередями. Загрузка ждёт сети и держит много потоков,
+ * разбор занимает процессор и ограничен числом ядер, запись идёт пачками. Заполненная очередь
+ * тормозит предыдущий этап, так что медленная БД не копит в памяти загруженные страницы.
+ * В режиме {@link ExecutionMode#VIRTUAL} каждая загрузка идёт в своём виртуальном потоке.
+ */
+@Slf4j
+@Component
+public class CrawlPipeline {
+
+    private final MetricsService metricsService;
+    private final ExecutionMode executionMode;
+    private final PipelineStage fetchStage;
+    private final PipelineStage parseStage;
+    private final int persistThreads;
+    private final int persistQueueCapacity;
+    private final int persistBatchSize;
+    private final List<Stage<?>> stages = new CopyOnWriteArrayList<>();
+
+    public CrawlPipeline(MetricsService metricsService,
+                         @Value("${parser.execution.mode:platform}") String executionMode,
+                         @Value("${parser.pipeline.fetch.threads:32}") int fetchThreads,
+                         @Value("${parser.pipeline.fetch.queue.capacity:64}") int fetchQueueCapacity,
+                         @Value("${parser.pipeline.parse.threads:0}") int parseThreads,
+                         @Value("${parser.pipeline.parse.queue.capacity:32}") int parseQueueCapacity,
+                         @Value("${parser.pipeline.persist.threads:1}") int persistThreads,
+                         @Value("${parser.pipeline.persist.queue.capacity:32}") int persistQueueCapacity,
+                         @Value("${parser.pipeline.persist.batch.size:16}") int persistBatchSize) {
+        this.metricsService = metricsService;
+        this.executionMode = ExecutionMode.of(executionMode);
+        // 0 — по числу ядер: разбор упирается в процессор, больше потоков только добавит переключений
+        int parseSize = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        // Виртуальные потоки не держат в пуле: загрузка получает свой поток, очередь не нужна
+        int fetchSize = this.executionMode == ExecutionMode.VIRTUAL ? 0 : Math.max(1, fetchThreads);
+        this.fetchStage = new PipelineStage("fetch", fetchSize, fetchQueueCapacity,
+                this.executionMode.threadFactory("pipeline-fetch"), metricsService);
+        this.parseStage = new PipelineStage("parse", parseSize, parseQueueCapacity,
+                ExecutionMode.PLATFORM.threadFactory("pipeline-parse"), metricsService);
+        this.persistThreads = persistThreads;
+        this.persistQueueCapacity = persistQueueCapacity;
+        this.persistBatchSize = persistBatchSize;
+        stages.add(fetchStage);
+        stages.add(parseStage);
+        log.info("Crawl pipeline started in {} mode: fetch={} threads, parse={} threads, persist={} threads (batch {})",
+                this.executionMode.name().toLowerCase(), fetchSize == 0 ? "per-task" : fetchSize, parseSize,
+                persistThreads, persistBatchSize);
+    }
+
+    /**
+     * Выполняет загрузку в потоке этапа fetch
+     */
+    public <T> T fetch(Callable<T> task, CrawlContext context) throws Exception {
+        return fetchStage.call(task, context);
+    }
+
+    /**
+     * Выполняет разбор и извлечение в потоке этапа parse
+     */
+    public <T> T parse(Callable<T> task, CrawlContext context) throws Exception {
+        return parseStage.call(task, context);
+    }
+
+    /**
+     * Создаёт этап записи с размерами из {@code parser.pipeline.persist.*}
+     * @param handler обработчик пачки заданий
+     */
+    public <T, R> BatchingStage<T, R> persistStage(BatchingStage.Handler<T, R> handler) {
+        BatchingStage<T, R> stage = new BatchingStage<>("persist", persistThreads, persistQueueCapacity,
+                persistBatchSize, handler, metricsService);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Исполнитель проходов по выдаче в текущем режиме: пул не меньше чем из {@code threads} потоков
+     * или виртуальный поток на проход. Проход загружает страницы выдачи по одной, поэтому пул проходов
+     * меньше этапа fetch оставил бы часть потоков загрузки без работы — он растёт до их числа.
+     */
+    public ExecutorService newCrawlExecutor(int threads) {
+        return executionMode.newExecutor("crawl", Math.max(threads, fetchStage.getThreads()));
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public PipelineStage getFetchStage() {
+        return fetchStage;
+    }
+
+    public PipelineStage getParseStage() {
+        return parseStage;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stages.forEach(Stage::stop);
+    }
+}
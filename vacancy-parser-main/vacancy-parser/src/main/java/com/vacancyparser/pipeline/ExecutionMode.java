@@ -0,0 +1,44 @@
+package com.vacancyparser.pipeline;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Режим потоков обхода ({@code parser.execution.mode}).
+ * <ul>
+ *     <li>{@code platform} — фиксированные пулы: одновременных загрузок не больше, чем потоков;</li>
+ *     <li>{@code virtual} — поток на каждый проход и каждую загрузку (виртуальные потоки JDK 21).
+ *     Ждущий сети виртуальный поток не занимает поток ОС, поэтому загрузки ограничивают
+ *     слоты хостов ({@code parser.fetch.host.concurrency.*}), а не размер пула.</li>
+ * </ul>
+ * Разбор и запись в обоих режимах идут в платформенных потоках: разбор занимает процессор,
+ * а JDBC-драйвер держит мониторы, на которых виртуальный поток занял бы поток-носитель.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public static ExecutionMode of(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Фабрика потоков с именами {@code prefix-N}; платформенные потоки — демоны
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        return this == VIRTUAL
+                ? Thread.ofVirtual().name(prefix + "-", 0).factory()
+                : Thread.ofPlatform().name(prefix + "-", 0).daemon(true).factory();
+    }
+
+    /**
+     * Исполнитель задач: пул из {@code threads} потоков или новый виртуальный поток на задачу
+     */
+    public ExecutorService newExecutor(String prefix, int threads) {
+        return this == VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(threadFactory(prefix))
+                : Executors.newFixedThreadPool(threads, threadFactory(prefix));
+    }
+}
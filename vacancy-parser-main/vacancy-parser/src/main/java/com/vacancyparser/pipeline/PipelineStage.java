@@ -0,0 +1,49 @@
+package com.vacancyparser.pipeline;
+
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Этап конвейера, выполняющий задачи по одной
+ */
+public final class PipelineStage extends Stage<PipelineStage.Task<?>> {
+
+    PipelineStage(String name, int threads, int capacity, ThreadFactory threadFactory, MetricsService metricsService) {
+        super(name, threads, capacity, 1, threadFactory, metricsService);
+    }
+
+    static final class Task<R> extends Stage.Work<R> {
+        private final Callable<R> callable;
+
+        private Task(Callable<R> callable) {
+            this.callable = callable;
+        }
+
+        private void run() {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Выполняет задачу в потоке этапа и ждёт результата. Отмена прохода прерывает ожидание.
+     * @param callable задача
+     * @param context дедлайн и отмена прохода
+     * @return результат задачи; исключение задачи пробрасывается как есть
+     */
+    public <R> R call(Callable<R> callable, CrawlContext context) throws Exception {
+        return await(new Task<>(callable), context, true);
+    }
+
+    @Override
+    protected void process(List<Task<?>> batch) {
+        batch.forEach(Task::run);
+    }
+}
@@ -0,0 +1,250 @@
+package com.vacancyparser.pipeline;
+
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Этап конвейера: ограниченная очередь и собственные потоки. Если очередь заполнена, отправитель ждёт
+ * (обратное давление), но не дольше дедлайна прохода. Поток берёт из очереди до {@code maxBatch}
+ * заданий за раз. Этап без постоянных потоков ({@code threads = 0}) запускает каждое задание в новом
+ * потоке из {@code threadFactory} — так работают виртуальные потоки, которые не держат в пуле; число
+ * одновременных заданий тогда ограничивает не этап, а то, чего они ждут (слоты хоста).
+ * Глубина очереди, задания в работе, загрузка потоков и время ожидания в очереди экспортируются
+ * метриками с тегом {@code stage}.
+ */
+@Slf4j
+abstract class Stage<W extends Stage.Work<?>> {
+
+    // Ожидание места в очереди и новых заданий прерывается, чтобы заметить отмену и остановку
+    private static final long POLL_MILLIS = 250;
+
+    private final String name;
+    private final int threads;
+    private final int maxBatch;
+    private final ThreadFactory threadFactory;
+    private final BlockingQueue<W> queue;
+    private final MetricsService metricsService;
+    private final AtomicInteger busy = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean stopped;
+
+    Stage(String name, int threads, int capacity, int maxBatch, ThreadFactory threadFactory,
+          MetricsService metricsService) {
+        this.name = name;
+        this.threads = Math.max(0, threads);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.metricsService = metricsService;
+        metricsService.registerStageGauge("vacancy.pipeline.queue.depth", name, queue, BlockingQueue::size,
+                "Задания в очереди этапа конвейера");
+        metricsService.registerStageGauge("vacancy.pipeline.active", name, busy, AtomicInteger::get,
+                "Задания этапа конвейера в работе");
+        if (this.threads > 0) {
+            metricsService.registerStageGauge("vacancy.pipeline.utilization", name, this, Stage::getUtilization,
+                    "Доля занятых потоков этапа конвейера");
+        }
+        for (int i = 0; i < this.threads; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            worker.setName("pipeline-" + name + "-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Задание этапа: результат приходит через future
+     */
+    abstract static class Work<R> {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        long enqueuedAt;
+    }
+
+    /**
+     * Обрабатывает задания, взятые из очереди. Каждое задание должно быть завершено.
+     */
+    protected abstract void process(List<W> batch);
+
+    /**
+     * Ставит задание в очередь (или запускает в отдельном потоке) и ждёт результата
+     * @param cancellable true — отмена прохода и дедлайн прерывают ожидание и снимают задание, ещё не взятое в работу
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> R await(W work, CrawlContext context, boolean cancellable) throws Exception {
+        context.checkActive();
+        work.enqueuedAt = System.nanoTime();
+        if (threads == 0) {
+            startTask(work);
+        } else {
+            enqueue(work, context);
+        }
+        CompletableFuture<R> future = (CompletableFuture<R>) work.future;
+        if (cancellable) {
+            context.register(future);
+        }
+        try {
+            if (!cancellable) {
+                return future.get();
+            }
+            try {
+                return future.get(Math.max(1, context.remainingMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                context.checkActive();
+                throw new CrawlCancelledException("Deadline exceeded");
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } catch (CancellationException e) {
+            context.checkActive();
+            throw new CrawlCancelledException("Pipeline stage " + name + " task cancelled");
+        } catch (InterruptedException e) {
+            if (cancellable) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            context.checkActive();
+            throw new InterruptedIOException("Interrupted while waiting for pipeline stage " + name);
+        } finally {
+            if (cancellable) {
+                context.unregister(future);
+            }
+        }
+    }
+
+    private void enqueue(W work, CrawlContext context) throws InterruptedIOException {
+        try {
+            while (!queue.offer(work, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                context.checkActive();
+                if (stopped) {
+                    throw new IllegalStateException("Pipeline stage " + name + " is stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.checkActive();
+            throw new InterruptedIOException("Interrupted while queueing to pipeline stage " + name);
+        }
+    }
+
+    private void startTask(W work) {
+        if (stopped) {
+            throw new IllegalStateException("Pipeline stage " + name + " is stopped");
+        }
+        busy.incrementAndGet();
+        threadFactory.newThread(() -> {
+            try {
+                // Проход могли отменить, пока поток запускался
+                if (!work.future.isDone()) {
+                    process(List.of(work));
+                }
+            } catch (Throwable e) {
+                log.error("Pipeline stage {} failed: {}", name, e.getMessage(), e);
+                work.future.completeExceptionally(e);
+            } finally {
+                busy.decrementAndGet();
+            }
+        }).start();
+    }
+
+    private void runWorker() {
+        List<W> batch = new ArrayList<>(maxBatch);
+        while (!stopped) {
+            W first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return;
+                }
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            if (maxBatch > 1) {
+                queue.drainTo(batch, maxBatch - 1);
+            }
+            // Задания отменённых проходов не выполняем
+            batch.removeIf(work -> work.future.isDone());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            long now = System.nanoTime();
+            for (W work : batch) {
+                metricsService.recordStageWait(name, now - work.enqueuedAt);
+            }
+            busy.incrementAndGet();
+            try {
+                process(batch);
+            } catch (Throwable e) {
+                log.error("Pipeline stage {} failed: {}", name, e.getMessage(), e);
+                batch.forEach(work -> work.future.completeExceptionally(e));
+            } finally {
+                busy.decrementAndGet();
+                batch.clear();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Постоянные потоки этапа (0 — поток на каждое задание)
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getActive() {
+        return busy.get();
+    }
+
+    /**
+     * Доля занятых постоянных потоков (для этапа без постоянных потоков — 0)
+     */
+    public double getUtilization() {
+        return threads == 0 ? 0 : (double) busy.get() / threads;
+    }
+
+    /**
+     * Останавливает потоки; задания, оставшиеся в очереди, завершаются ошибкой
+     */
+    void stop() {
+        stopped = true;
+        workers.forEach(Thread::interrupt);
+        List<W> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(work -> work.future.completeExceptionally(
+                new IllegalStateException("Pipeline stage " + name + " is stopped")));
+    }
+}
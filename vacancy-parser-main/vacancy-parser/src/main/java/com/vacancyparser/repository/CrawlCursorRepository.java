@@ -0,0 +1,58 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.CrawlCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CrawlCursorRepository extends JpaRepository<CrawlCursor, String> {
+
+    // Продолжить незавершённый проход можно, если он наш или его владелец давно не отмечался
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlCursor c SET c.owner = :owner, c.updatedAt = :now WHERE c.searchUrl = :searchUrl " +
+           "AND c.runId = :runId AND c.state = :running " +
+           "AND (c.owner = :owner OR c.updatedAt < :staleBefore)")
+    int takeOver(@Param("searchUrl") String searchUrl, @Param("runId") String runId, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("running") CrawlCursor.State running);
+
+    // Первый проход поиска; если курсор одновременно создал другой узел — нарушение первичного ключа
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "INSERT INTO crawl_cursors (search_url, run_id, owner, next_page, max_pages, state, started_at, updated_at) " +
+                   "VALUES (:searchUrl, :runId, :owner, 0, :maxPages, 'RUNNING', :now, :now)", nativeQuery = true)
+    int start(@Param("searchUrl") String searchUrl, @Param("runId") String runId, @Param("owner") String owner,
+              @Param("maxPages") int maxPages, @Param("now") LocalDateTime now);
+
+    // Новый проход по завершённому курсору. Условие на прошлый runId: из узлов, одновременно увидевших
+    // тот же завершённый проход, новый начинает только один
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlCursor c SET c.runId = :runId, c.owner = :owner, c.nextPage = 0, c.maxPages = :maxPages, " +
+           "c.newestUrl = NULL, c.state = :running, c.startedAt = :now, c.updatedAt = :now " +
+           "WHERE c.searchUrl = :searchUrl AND c.runId = :previousRunId AND c.state = :done")
+    int restart(@Param("searchUrl") String searchUrl, @Param("previousRunId") String previousRunId,
+                @Param("runId") String runId, @Param("owner") String owner, @Param("maxPages") int maxPages,
+                @Param("now") LocalDateTime now, @Param("running") CrawlCursor.State running,
+                @Param("done") CrawlCursor.State done);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlCursor c SET c.nextPage = :nextPage, c.newestUrl = :newestUrl, c.updatedAt = :now " +
+           "WHERE c.searchUrl = :searchUrl AND c.runId = :runId AND c.owner = :owner")
+    int advance(@Param("searchUrl") String searchUrl, @Param("runId") String runId, @Param("owner") String owner,
+                @Param("nextPage") int nextPage, @Param("newestUrl") String newestUrl, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlCursor c SET c.updatedAt = :now WHERE c.searchUrl = :searchUrl AND c.runId = :runId AND c.owner = :owner")
+    int touch(@Param("searchUrl") String searchUrl, @Param("runId") String runId, @Param("owner") String owner,
+              @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.CrawlFrontierPage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CrawlFrontierRepository extends JpaRepository<CrawlFrontierPage, Long> {
+
+    Optional<CrawlFrontierPage> findByRunIdAndPageNumber(String runId, int pageNumber);
+
+    @Query("SELECT p.pageNumber FROM CrawlFrontierPage p WHERE p.runId = :runId")
+    List<Integer> findPageNumbers(@Param("runId") String runId);
+
+    long countByRunIdAndState(String runId, CrawlFrontierPage.State state);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM CrawlFrontierPage p WHERE p.runId = :runId")
+    int deleteByRun(@Param("runId") String runId);
+}
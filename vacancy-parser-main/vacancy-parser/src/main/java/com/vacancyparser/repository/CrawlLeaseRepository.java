@@ -0,0 +1,47 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.CrawlLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CrawlLeaseRepository extends JpaRepository<CrawlLease, Long> {
+
+    List<CrawlLease> findByOwner(String owner);
+
+    // Атомарный захват: свободная, своя или просроченная аренда. Вернёт 0, если её держит другой узел
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlLease l SET l.owner = :owner, l.leaseUntil = :until WHERE l.jobId = :jobId " +
+           "AND (l.owner IS NULL OR l.owner = :owner OR l.leaseUntil < :now)")
+    int claim(@Param("jobId") Long jobId, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlLease l SET l.leaseUntil = :until WHERE l.owner = :owner")
+    int renewAll(@Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlLease l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.jobId = :jobId AND l.owner = :owner")
+    int release(@Param("jobId") Long jobId, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlLease l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CrawlLease l SET l.nextRunAt = :nextRunAt WHERE l.jobId = :jobId AND l.owner = :owner")
+    int updateNextRun(@Param("jobId") Long jobId, @Param("owner") String owner,
+                      @Param("nextRunAt") LocalDateTime nextRunAt);
+}
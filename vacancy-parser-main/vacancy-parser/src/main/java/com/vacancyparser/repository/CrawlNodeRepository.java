@@ -0,0 +1,16 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.CrawlNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CrawlNodeRepository extends JpaRepository<CrawlNode, String> {
+
+    @Query("SELECT COUNT(n) FROM CrawlNode n WHERE n.heartbeatAt >= :since")
+    long countActive(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,12 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.SearchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SearchJobRepository extends JpaRepository<SearchJob, Long> {
+    List<SearchJob> findByEnabledTrue();
+}
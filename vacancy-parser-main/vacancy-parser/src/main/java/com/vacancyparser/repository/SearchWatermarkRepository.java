@@ -0,0 +1,9 @@
+package com.vacancyparser.repository;
+
+import com.vacancyparser.model.SearchWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchWatermarkRepository extends JpaRepository<SearchWatermark, String> {
+}
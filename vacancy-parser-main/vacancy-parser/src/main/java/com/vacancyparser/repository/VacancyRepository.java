@@ -1,13 +1,17 @@
 package com.vacancyparser.repository;
 
 import com.vacancyparser.model.Vacancy;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,12 +23,44 @@ public interface VacancyRepository extends JpaRepository<Vacancy, Long> {
     @Query("SELECT v FROM Vacancy v WHERE v.publishedDate >= :fromDate")
     List<Vacancy> findRecentVacancies(LocalDateTime fromDate);
     
+    // Какие из ключей страницы уже сохранены: один запрос по индексу idx_source_external_id
+    @Query("SELECT v.externalId FROM Vacancy v WHERE v.source = :source AND v.externalId IN :externalIds")
+    List<Long> findExistingExternalIds(@Param("source") String source, @Param("externalIds") Collection<Long> externalIds);
+
+    List<Vacancy> findBySourceAndExternalIdIn(String source, Collection<Long> externalIds);
+    
+    // Вакансии без подробностей, которым пора на дозагрузку (после неудачи — не раньше enrichNextAttemptAt), новые первыми
+    @Query("SELECT v FROM Vacancy v WHERE v.enrichedAt IS NULL"
+            + " AND (v.enrichNextAttemptAt IS NULL OR v.enrichNextAttemptAt <= :now) ORDER BY v.id DESC")
+    List<Vacancy> findNotEnriched(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Аренда вакансии на дозагрузку: UPDATE с условием, поэтому одну вакансию берёт только один узел
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Vacancy v SET v.enrichNextAttemptAt = :until WHERE v.id = :id AND v.enrichedAt IS NULL"
+            + " AND (v.enrichNextAttemptAt IS NULL OR v.enrichNextAttemptAt <= :now)")
+    int claimEnrichment(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+    
     @Query("SELECT DISTINCT v.city FROM Vacancy v")
     List<String> findAllCities();
     
     @Query("SELECT DISTINCT v.source FROM Vacancy v")
     List<String> findAllSources();
     
+    // Агрегаты для фасетов (один GROUP BY вместо выгрузки всех вакансий)
+    @Query("SELECT v.source, COUNT(v) FROM Vacancy v GROUP BY v.source")
+    List<Object[]> countBySource();
+    
+    @Query("SELECT v.city, COUNT(v) FROM Vacancy v GROUP BY v.city")
+    List<Object[]> countByCity();
+    
+    @Query("SELECT v.company, COUNT(v) FROM Vacancy v GROUP BY v.company")
+    List<Object[]> countByCompany();
+
+    // Отпечаток таблицы для фасетов: число строк и наибольший id (одна строка)
+    @Query("SELECT COUNT(v), MAX(v.id) FROM Vacancy v")
+    List<Object[]> countAndMaxId();
+    
     // Оптимизированные запросы для фильтрации (избегаем N+1)
     @Query("SELECT v FROM Vacancy v WHERE " +
            "(:source IS NULL OR v.source = :source) AND " +
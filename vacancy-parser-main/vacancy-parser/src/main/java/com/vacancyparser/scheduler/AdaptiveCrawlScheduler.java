@@ -0,0 +1,283 @@
+package com.vacancyparser.scheduler;
+
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.model.SearchJob;
+import com.vacancyparser.service.CrawlLeaseService;
+import com.vacancyparser.service.SearchJobChangedEvent;
+import com.vacancyparser.service.SearchJobService;
+import com.vacancyparser.service.VacancyService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Планировщик с интервалом для каждого поиска по наблюдаемому потоку новых вакансий.
+ * «Горячие» поиски запускаются чаще, тихие — с экспоненциальной паузой в пределах [min, max].
+ * Поиски лежат в куче по времени запуска ({@link DelayQueue}), воркеры берут ближайший к запуску.
+ * Задания загружаются из реестра {@code search_jobs} и обновляются без перезапуска.
+ * При нескольких узлах каждый планирует только задания, аренду которых держит ({@link CrawlLeaseService}).
+ */
+@Component
+@Slf4j
+public class AdaptiveCrawlScheduler {
+
+    private final VacancyService vacancyService;
+    private final SearchJobService searchJobService;
+    private final CrawlLeaseService leaseService;
+    private final DelayQueue<SearchSchedule> queue = new DelayQueue<>();
+    private final Map<Long, SearchSchedule> schedules = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean started;
+
+    @Value("${parser.schedule.mode:adaptive}")
+    private String mode;
+
+    @Value("${parser.schedule.initial.delay:5000}")
+    private long initialDelay;
+
+    @Value("${parser.schedule.fixed.delay:300000}")
+    private long initialInterval;
+
+    @Value("${parser.schedule.adaptive.min.interval:60000}")
+    private long minInterval;
+
+    @Value("${parser.schedule.adaptive.max.interval:3600000}")
+    private long maxInterval;
+
+    @Value("${parser.schedule.adaptive.target.new.per.run:10}")
+    private double targetNewPerRun;
+
+    @Value("${parser.schedule.adaptive.backoff.factor:2.0}")
+    private double backoffFactor;
+
+    @Value("${parser.schedule.adaptive.smoothing:0.3}")
+    private double smoothing;
+
+    @Value("${parser.schedule.adaptive.workers:2}")
+    private int workerCount;
+
+    public AdaptiveCrawlScheduler(VacancyService vacancyService, SearchJobService searchJobService,
+                                  CrawlLeaseService leaseService) {
+        this.vacancyService = vacancyService;
+        this.searchJobService = searchJobService;
+        this.leaseService = leaseService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        syncSchedules(System.currentTimeMillis() + initialDelay);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "AdaptiveCrawl-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        started = true;
+        log.info("Adaptive scheduler started: {} searches, {} workers", schedules.size(), workerCount);
+    }
+
+    public boolean isEnabled() {
+        return "adaptive".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Применяет изменение задания из реестра сразу после коммита
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSearchJobChanged(SearchJobChangedEvent event) {
+        if (!started) {
+            return;
+        }
+        SearchJob job = event.getJob();
+        if (job == null || !job.isEnabled()) {
+            unschedule(event.getJobId());
+            leaseService.release(event.getJobId());
+        } else if (schedules.containsKey(job.getId()) || leaseService.claim(job.getId())) {
+            // Новое задание берёт узел, принявший запрос; лишнее он отдаст при следующей сверке
+            schedule(job, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Периодически сверяет расписание с реестром и арендами: подхватывает изменения, сделанные в обход API,
+     * задания упавших узлов и перераспределение при добавлении узла
+     */
+    @Scheduled(fixedDelayString = "${parser.jobs.sync.interval:60000}")
+    public void syncJobs() {
+        if (!started) {
+            return;
+        }
+        syncSchedules(System.currentTimeMillis());
+    }
+
+    private void syncSchedules(long earliestRun) {
+        Map<Long, SearchJob> enabled = searchJobService.getEnabledJobs().stream()
+                .collect(Collectors.toMap(SearchJob::getId, Function.identity()));
+        Map<Long, LocalDateTime> owned = leaseService.rebalance(enabled.keySet());
+        owned.forEach((jobId, nextRunAt) -> {
+            long firstRun = nextRunAt != null ? Math.max(earliestRun, toMillis(nextRunAt)) : earliestRun;
+            schedule(enabled.get(jobId), firstRun);
+        });
+        for (Long jobId : new ArrayList<>(schedules.keySet())) {
+            if (!owned.containsKey(jobId)) {
+                unschedule(jobId);
+            }
+        }
+    }
+
+    private synchronized void schedule(SearchJob job, long firstRun) {
+        SearchSchedule existing = schedules.get(job.getId());
+        if (existing == null) {
+            SearchSchedule schedule = new SearchSchedule(job.getId(), job.getUrl(), job.getMaxPages(), firstRun, initialInterval);
+            schedule.apply(job);
+            schedules.put(job.getId(), schedule);
+            queue.put(schedule);
+            return;
+        }
+        // Выполняющееся задание не лежит в очереди — воркер вернёт его сам
+        boolean queued = queue.remove(existing);
+        existing.apply(job);
+        if (queued) {
+            queue.put(existing);
+        }
+    }
+
+    private synchronized void unschedule(Long jobId) {
+        SearchSchedule schedule = schedules.remove(jobId);
+        if (schedule != null) {
+            schedule.cancel();
+            queue.remove(schedule);
+            log.info("Search job {} removed from schedule", jobId);
+        }
+    }
+
+    /**
+     * Количество заданий в расписании
+     */
+    public int getScheduledCount() {
+        return schedules.size();
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            SearchSchedule schedule;
+            try {
+                schedule = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (schedule.isCancelled()) {
+                continue;
+            }
+            // Аренду могли забрать, пока узел был недоступен (пауза GC, обрыв связи с БД)
+            if (!holdsLease(schedule)) {
+                log.info("Lease of search job {} lost, removing from local schedule", schedule.getJobId());
+                unschedule(schedule.getJobId());
+                continue;
+            }
+            int newVacancies = 0;
+            boolean skipped = false;
+            try {
+                SearchCrawlResult result = vacancyService.crawlSearch(schedule.getUrl(), schedule.getMaxPages());
+                newVacancies = result.getVacanciesSaved();
+                skipped = result.getStatus() == SearchCrawlResult.Status.SKIPPED;
+                searchJobService.recordRun(schedule.getJobId(), result);
+            } catch (Exception e) {
+                log.error("Error in adaptive crawl of {}: {}", schedule.getUrl(), e.getMessage(), e);
+            } finally {
+                if (skipped) {
+                    // Поиск проходит другой проход: нулевой улов не значит, что новых вакансий нет
+                    schedule.postpone(System.currentTimeMillis());
+                } else {
+                    reschedule(schedule, newVacancies, System.currentTimeMillis());
+                }
+                if (!schedule.isCancelled()) {
+                    recordNextRun(schedule);
+                    queue.put(schedule);
+                }
+            }
+        }
+    }
+
+    /**
+     * Обновляет оценку потока новых вакансий и назначает следующий запуск.
+     * Интервал подбирается так, чтобы за запуск находилось около {@code targetNewPerRun} вакансий;
+     * при нулевом улове интервал растёт в {@code backoffFactor} раз.
+     * @param schedule расписание поиска
+     * @param newVacancies количество новых вакансий за запуск
+     * @param now время окончания запуска
+     */
+    void reschedule(SearchSchedule schedule, int newVacancies, long now) {
+        if (!schedule.hasRun()) {
+            // Первый запуск собирает накопившийся хвост выдачи, скорость по нему не оценить
+            schedule.update(now, -1, clamp(schedule.getIntervalMillis()));
+            return;
+        }
+
+        double minutes = Math.max(now - schedule.getLastRunAt(), 1) / 60000.0;
+        double observed = newVacancies / minutes;
+        double previous = schedule.getNewPerMinute();
+        double rate = previous < 0 ? observed : smoothing * observed + (1 - smoothing) * previous;
+
+        long interval;
+        if (newVacancies == 0) {
+            interval = (long) (schedule.getIntervalMillis() * backoffFactor);
+        } else {
+            interval = (long) (targetNewPerRun / rate * 60000.0);
+        }
+        schedule.update(now, rate, clamp(interval));
+        log.debug("Rescheduled {}: {} new, {} per minute, next in {} ms",
+                schedule.getUrl(), newVacancies, String.format("%.2f", rate), schedule.getIntervalMillis());
+    }
+
+    private boolean holdsLease(SearchSchedule schedule) {
+        try {
+            return leaseService.claim(schedule.getJobId());
+        } catch (Exception e) {
+            log.warn("Failed to renew lease of search job {}: {}", schedule.getJobId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordNextRun(SearchSchedule schedule) {
+        try {
+            leaseService.recordNextRun(schedule.getJobId(),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(schedule.getNextRunAt()), ZoneId.systemDefault()));
+        } catch (Exception e) {
+            log.warn("Failed to record next run of search job {}: {}", schedule.getJobId(), e.getMessage());
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private long clamp(long interval) {
+        return Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+}
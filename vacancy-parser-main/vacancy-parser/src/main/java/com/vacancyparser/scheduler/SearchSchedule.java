@@ -0,0 +1,117 @@
+package com.vacancyparser.scheduler;
+
+import com.vacancyparser.model.SearchJob;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Состояние расписания одного поискового задания: оценка потока новых вакансий
+ * и время следующего запуска. Упорядочивается по времени запуска (при равенстве — по приоритету)
+ * для {@link java.util.concurrent.DelayQueue}.
+ */
+class SearchSchedule implements Delayed {
+
+    private final Long jobId;
+    private volatile String url;
+    private volatile int maxPages;
+    private volatile int priority;
+    private volatile boolean cancelled;
+    private volatile long nextRunAt;
+    private long lastRunAt = -1;
+    private long intervalMillis;
+    private double newPerMinute = -1;
+
+    SearchSchedule(Long jobId, String url, int maxPages, long nextRunAt, long intervalMillis) {
+        this.jobId = jobId;
+        this.url = url;
+        this.maxPages = maxPages;
+        this.nextRunAt = nextRunAt;
+        this.intervalMillis = intervalMillis;
+    }
+
+    Long getJobId() {
+        return jobId;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    int getMaxPages() {
+        return maxPages;
+    }
+
+    long getNextRunAt() {
+        return nextRunAt;
+    }
+
+    long getLastRunAt() {
+        return lastRunAt;
+    }
+
+    boolean hasRun() {
+        return lastRunAt >= 0;
+    }
+
+    long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Скользящая оценка новых вакансий в минуту; отрицательная, пока не было двух запусков
+     */
+    double getNewPerMinute() {
+        return newPerMinute;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Применяет изменения задания из реестра; смена URL сбрасывает оценку потока
+     * @param job задание из реестра
+     */
+    void apply(SearchJob job) {
+        if (!job.getUrl().equals(url)) {
+            lastRunAt = -1;
+            newPerMinute = -1;
+        }
+        this.url = job.getUrl();
+        this.maxPages = job.getMaxPages();
+        this.priority = job.getPriority();
+    }
+
+    void update(long runAt, double newPerMinute, long intervalMillis) {
+        this.lastRunAt = runAt;
+        this.newPerMinute = newPerMinute;
+        this.intervalMillis = intervalMillis;
+        this.nextRunAt = runAt + intervalMillis;
+    }
+
+    /**
+     * Откладывает запуск на текущий интервал, не трогая оценку потока
+     */
+    void postpone(long now) {
+        this.nextRunAt = now + intervalMillis;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(nextRunAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof SearchSchedule schedule) {
+            int byTime = Long.compare(nextRunAt, schedule.nextRunAt);
+            return byTime != 0 ? byTime : Integer.compare(schedule.priority, priority);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+}
@@ -1,5 +1,9 @@
 package com.vacancyparser.scheduler;
 
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.model.SearchJob;
+import com.vacancyparser.service.CrawlLeaseService;
+import com.vacancyparser.service.SearchJobService;
 import com.vacancyparser.service.VacancyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,11 +11,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -19,6 +26,8 @@ import java.util.concurrent.TimeUnit;
 public class VacancyScheduler {
 
     private final VacancyService vacancyService;
+    private final SearchJobService searchJobService;
+    private final CrawlLeaseService leaseService;
     
     @Value("${parser.schedule.initial.delay:5000}")
     private long initialDelay;
@@ -26,21 +35,24 @@ public class VacancyScheduler {
     @Value("${parser.schedule.fixed.delay:300000}")
     private long fixedDelay;
     
-    private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(2);
+    // fixed — все поиски раз в fixed.delay, adaptive — AdaptiveCrawlScheduler
+    @Value("${parser.schedule.mode:adaptive}")
+    private String mode;
     
-    // Default URLs for scheduled parsing
-    private static final List<String> DEFAULT_URLS = Arrays.asList(
-            "https://hh.ru/search/vacancy?text=java&area=1",
-            "https://www.superjob.ru/vacancy/search/?keywords=java",
-            "https://career.habr.com/vacancies?q=java"
-    );
+    private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(2);
 
+    // Общий для scheduledParse и startScheduledExecutor: долгий проход не накладывается на следующий тик
+    private final AtomicBoolean running = new AtomicBoolean();
+    
     @Scheduled(initialDelayString = "${parser.schedule.initial.delay:5000}", 
                fixedDelayString = "${parser.schedule.fixed.delay:300000}")
     public void scheduledParse() {
+        if (!"fixed".equalsIgnoreCase(mode)) {
+            return;
+        }
         log.info("Scheduled parsing started");
         try {
-            vacancyService.parseVacancies(DEFAULT_URLS, 5);
+            parseEnabledJobs();
             log.info("Scheduled parsing completed");
         } catch (Exception e) {
             log.error("Error in scheduled parsing: {}", e.getMessage(), e);
@@ -53,7 +65,7 @@ public class VacancyScheduler {
                 () -> {
                     log.info("ScheduledExecutorService parsing started");
                     try {
-                        vacancyService.parseVacancies(DEFAULT_URLS, 5);
+                        parseEnabledJobs();
                     } catch (Exception e) {
                         log.error("Error in ScheduledExecutorService parsing: {}", e.getMessage());
                     }
@@ -64,6 +76,39 @@ public class VacancyScheduler {
         );
     }
 
+    /**
+     * Запускает включённые задания из реестра, аренду которых держит этот узел
+     * (по группам с одинаковым maxPages), и сохраняет статистику запуска. Если предыдущий проход ещё идёт, тик пропускается.
+     */
+    void parseEnabledJobs() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous scheduled crawl is still running, skipping this tick");
+            return;
+        }
+        try {
+            parseJobs();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void parseJobs() {
+        List<SearchJob> enabled = searchJobService.getEnabledJobs();
+        Set<Long> owned = leaseService.rebalance(enabled.stream().map(SearchJob::getId).collect(Collectors.toList())).keySet();
+        Map<Integer, List<SearchJob>> jobsByMaxPages = enabled.stream()
+                .filter(job -> owned.contains(job.getId()))
+                .collect(Collectors.groupingBy(SearchJob::getMaxPages));
+        jobsByMaxPages.forEach((maxPages, jobs) -> {
+            List<String> urls = jobs.stream().map(SearchJob::getUrl).collect(Collectors.toList());
+            List<SearchCrawlResult> results = vacancyService.parseVacancies(urls, maxPages);
+            for (SearchCrawlResult result : results) {
+                jobs.stream()
+                        .filter(job -> job.getUrl().equals(result.getUrl()))
+                        .forEach(job -> searchJobService.recordRun(job.getId(), result));
+            }
+        });
+    }
+
     public void shutdown() {
         scheduledExecutor.shutdown();
     }
@@ -0,0 +1,199 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.archive.ArchivedPage;
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.dto.ArchiveReplayDto;
+import com.vacancyparser.fetch.PageFetcher;
+import com.vacancyparser.job.CrawlJob;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.parser.ResultSlicer;
+import com.vacancyparser.parser.VacancyParser;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Повторный разбор архива страниц без сети: после исправления селекторов или улучшения извлечения
+ * вакансии извлекаются заново из сохранённых страниц. Страницы читаются и разбираются параллельно.
+ * Разбор идёт заданием, как {@code /parse}: выполняется одно задание, ещё одно ждёт в очереди,
+ * остальные отклоняются.
+ */
+@Service
+@Slf4j
+public class ArchiveReplayService {
+
+    private final PageArchive pageArchive;
+    private final VacancyParser vacancyParser;
+    private final VacancyService vacancyService;
+    private final int threads;
+
+    // Завершённых заданий в памяти не больше
+    private static final int RETENTION = 20;
+
+    private final ThreadPoolExecutor replayExecutor = new ThreadPoolExecutor(1, 1,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> new Thread(runnable, "ArchiveReplay"));
+    private final Map<String, ReplayJob> jobs = new ConcurrentHashMap<>();
+
+    public ArchiveReplayService(PageArchive pageArchive,
+                                VacancyParser vacancyParser,
+                                VacancyService vacancyService,
+                                @Value("${parser.archive.replay.threads:0}") int threads) {
+        this.pageArchive = pageArchive;
+        this.vacancyParser = vacancyParser;
+        this.vacancyService = vacancyService;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Ставит повторный разбор в очередь и сразу возвращает задание
+     * @param source только страницы этого источника или null — все
+     * @param persist сохранять новые вакансии и обновлять найденные
+     * @return созданное задание
+     * @throws RejectedExecutionException если разбор уже выполняется и ещё один ждёт в очереди
+     */
+    public ReplayJob submit(String source, boolean persist) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), source, persist);
+        replayExecutor.execute(() -> run(job));
+        jobs.put(job.getId(), job);
+        evictFinished();
+        log.info("Archive replay job {} queued (source {}, persist {})", job.getId(), source, persist);
+        return job;
+    }
+
+    public Optional<ReplayJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ReplayJob job) {
+        job.startedAt = LocalDateTime.now();
+        job.state = CrawlJob.State.RUNNING;
+        CrawlJob.State finalState;
+        try {
+            job.result = replay(job.getSource(), job.isPersist());
+            finalState = CrawlJob.State.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.error = "Interrupted";
+            finalState = CrawlJob.State.CANCELLED;
+        } catch (RuntimeException e) {
+            log.error("Archive replay job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.error = e.getMessage();
+            finalState = CrawlJob.State.FAILED;
+        }
+        job.finishedAt = LocalDateTime.now();
+        job.state = finalState;
+        log.info("Archive replay job {} finished with state {}", job.getId(), finalState);
+    }
+
+    private void evictFinished() {
+        if (jobs.size() <= RETENTION) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ReplayJob::isFinished)
+                .sorted(Comparator.comparing(ReplayJob::getCreatedAt))
+                .limit(jobs.size() - RETENTION)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    /**
+     * Разбирает страницы архива
+     * @param source только страницы этого источника или null — все
+     * @param persist сохранять новые вакансии и обновлять уже сохранённые или только посчитать
+     * @return итог разбора
+     */
+    public ArchiveReplayDto replay(String source, boolean persist) throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        List<PageArchive.Location> pages = pageArchive.entries().stream()
+                .filter(location -> source == null || source.equals(vacancyParser.detectSource(location.url())))
+                .collect(Collectors.toList());
+
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        AtomicInteger found = new AtomicInteger();
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger updated = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> pages.parallelStream().forEach(location -> {
+                try {
+                    ArchivedPage page = pageArchive.read(location);
+                    bytes.addAndGet(page.body().length);
+                    String pageSource = vacancyParser.detectSource(page.url());
+                    Document doc = PageFetcher.parse(page.body(), page.body().length, page.contentType(), page.url(),
+                            ResultSlicer.forSource(pageSource));
+                    List<Vacancy> vacancies = vacancyParser.extract(pageSource, doc);
+                    found.addAndGet(vacancies.size());
+                    if (persist && !vacancies.isEmpty()) {
+                        // Уже сохранённые вакансии получают поля, извлечённые исправленными селекторами
+                        updated.addAndGet(vacancyService.refreshExtracted(vacancies));
+                        saved.addAndGet(vacancyService.saveExtracted(vacancies, "archive " + page.url()));
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("Failed to replay archived page {}: {}", location.url(), e.getMessage());
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Archive replay failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long duration = System.currentTimeMillis() - startedAt;
+        log.info("Replayed {} archived pages ({} bytes) in {} ms: {} vacancies found, {} saved, {} updated, {} failed",
+                pages.size(), bytes.get(), duration, found.get(), saved.get(), updated.get(), failed.get());
+        return new ArchiveReplayDto(pages.size(), failed.get(), bytes.get(), found.get(), saved.get(), updated.get(), duration);
+    }
+
+    /**
+     * Задание повторного разбора
+     */
+    @Getter
+    public static final class ReplayJob {
+        private final String id;
+        private final String source;
+        private final boolean persist;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile CrawlJob.State state = CrawlJob.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile ArchiveReplayDto result;
+        private volatile String error;
+
+        private ReplayJob(String id, String source, boolean persist) {
+            this.id = id;
+            this.source = source;
+            this.persist = persist;
+        }
+
+        public boolean isFinished() {
+            return finishedAt != null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.vacancyparser.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vacancyparser.model.CrawlCursor;
+import com.vacancyparser.model.CrawlFrontierPage;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.repository.CrawlCursorRepository;
+import com.vacancyparser.repository.CrawlFrontierRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сохраняемая очередь страниц прохода (crawl frontier) с курсором по каждому поиску.
+ * Загруженная и разобранная страница записывается до сохранения вакансий, а курсор двигается
+ * в одной транзакции с их сохранением. После падения узла следующий проход того же поиска
+ * начинает с первой несохранённой страницы, а уже загруженные страницы берёт из БД без повторного запроса.
+ */
+@Service
+@Slf4j
+public class CrawlFrontierService {
+
+    private static final TypeReference<List<Vacancy>> VACANCY_LIST = new TypeReference<>() {
+    };
+
+    private final CrawlCursorRepository cursorRepository;
+    private final CrawlFrontierRepository frontierRepository;
+    private final CrawlLeaseService leaseService;
+    private final ObjectMapper objectMapper;
+    private final Duration staleAfter;
+
+    // Поиски, по которым в этом узле уже идёт проход с курсором
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public CrawlFrontierService(CrawlCursorRepository cursorRepository,
+                                CrawlFrontierRepository frontierRepository,
+                                CrawlLeaseService leaseService,
+                                ObjectMapper objectMapper,
+                                @Value("${parser.frontier.stale.after:${parser.lease.duration:90000}}") long staleAfterMillis) {
+        this.cursorRepository = cursorRepository;
+        this.frontierRepository = frontierRepository;
+        this.leaseService = leaseService;
+        this.objectMapper = objectMapper;
+        this.staleAfter = Duration.ofMillis(staleAfterMillis);
+    }
+
+    /**
+     * Открывает проход: продолжает незавершённый (свой или брошенный упавшим узлом) или начинает новый.
+     * Курсор захватывается UPDATE/INSERT с условием, поэтому один проход не начнут два узла сразу.
+     * Если курсор получен, после прохода нужно вызвать {@link #release(String)}.
+     * @param searchUrl URL поиска
+     * @param maxPages максимальное количество страниц
+     * @return курсор или пусто, если по поиску уже идёт проход в этом или другом узле — тогда поиск пропускается
+     */
+    public Optional<CrawlCursor> open(String searchUrl, int maxPages) {
+        if (!active.add(searchUrl)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<CrawlCursor> cursor = resumeOrStart(searchUrl, maxPages);
+            if (cursor.isEmpty()) {
+                active.remove(searchUrl);
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            active.remove(searchUrl);
+            throw e;
+        }
+    }
+
+    private Optional<CrawlCursor> resumeOrStart(String searchUrl, int maxPages) {
+        String owner = leaseService.getNodeId();
+        LocalDateTime now = LocalDateTime.now();
+        CrawlCursor cursor = cursorRepository.findById(searchUrl).orElse(null);
+        if (cursor != null && cursor.getState() == CrawlCursor.State.RUNNING) {
+            if (cursorRepository.takeOver(searchUrl, cursor.getRunId(), owner, now, now.minus(staleAfter),
+                    CrawlCursor.State.RUNNING) == 0) {
+                // Проход идёт на другом узле
+                return Optional.empty();
+            }
+            cursor.setOwner(owner);
+            ensurePages(cursor.getRunId(), maxPages, new HashSet<>(frontierRepository.findPageNumbers(cursor.getRunId())));
+            log.info("Resuming crawl of {} from page {} (run {})", searchUrl, cursor.getNextPage(), cursor.getRunId());
+            return Optional.of(cursor);
+        }
+
+        String runId = UUID.randomUUID().toString();
+        try {
+            int claimed = cursor == null
+                    ? cursorRepository.start(searchUrl, runId, owner, maxPages, now)
+                    : cursorRepository.restart(searchUrl, cursor.getRunId(), runId, owner, maxPages, now,
+                            CrawlCursor.State.RUNNING, CrawlCursor.State.DONE);
+            if (claimed == 0) {
+                // Завершённый проход уже перезапустил другой узел
+                return Optional.empty();
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Курсор одновременно создал другой узел
+            return Optional.empty();
+        }
+        ensurePages(runId, maxPages, Set.of());
+        return cursorRepository.findById(searchUrl);
+    }
+
+    private void ensurePages(String runId, int maxPages, Set<Integer> existing) {
+        List<CrawlFrontierPage> pages = new ArrayList<>();
+        for (int page = 0; page < maxPages; page++) {
+            if (!existing.contains(page)) {
+                pages.add(newPage(runId, page));
+            }
+        }
+        frontierRepository.saveAll(pages);
+    }
+
+    /**
+     * Возвращает вакансии страницы, загруженной до падения, но ещё не сохранённой
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<Vacancy>> fetchedPage(CrawlCursor cursor, int page) {
+        return frontierRepository.findByRunIdAndPageNumber(cursor.getRunId(), page)
+                .filter(p -> p.getState() == CrawlFrontierPage.State.FETCHED && p.getPayload() != null)
+                .map(p -> readVacancies(p.getPayload()));
+    }
+
+    /**
+     * Чекпоинт после загрузки: страница с разобранными вакансиями переходит в FETCHED
+     */
+    @Transactional
+    public void pageFetched(CrawlCursor cursor, int page, List<Vacancy> vacancies) {
+        CrawlFrontierPage frontierPage = frontierRepository.findByRunIdAndPageNumber(cursor.getRunId(), page)
+                .orElseGet(() -> newPage(cursor.getRunId(), page));
+        frontierPage.setState(CrawlFrontierPage.State.FETCHED);
+        frontierPage.setPayload(writeVacancies(vacancies));
+        frontierPage.setUpdatedAt(LocalDateTime.now());
+        frontierRepository.save(frontierPage);
+        cursorRepository.touch(cursor.getSearchUrl(), cursor.getRunId(), cursor.getOwner(), LocalDateTime.now());
+    }
+
+    /**
+     * Чекпоинт после сохранения: страница DONE, курсор на следующей странице.
+     * Вызывается в транзакции сохранения вакансий страницы.
+     * @throws IllegalStateException если проход перехватил другой узел — транзакция откатывается
+     */
+    @Transactional
+    public void pageCompleted(CrawlCursor cursor, int page, String newestUrl) {
+        frontierRepository.findByRunIdAndPageNumber(cursor.getRunId(), page).ifPresent(frontierPage -> {
+            frontierPage.setState(CrawlFrontierPage.State.DONE);
+            frontierPage.setPayload(null);
+            frontierPage.setUpdatedAt(LocalDateTime.now());
+            frontierRepository.save(frontierPage);
+        });
+        int updated = cursorRepository.advance(cursor.getSearchUrl(), cursor.getRunId(), cursor.getOwner(),
+                page + 1, newestUrl, LocalDateTime.now());
+        if (updated == 0) {
+            throw new IllegalStateException("Crawl of " + cursor.getSearchUrl() + " was taken over by another node");
+        }
+        cursor.setNextPage(page + 1);
+        cursor.setNewestUrl(newestUrl);
+    }
+
+    /**
+     * Завершает проход: курсор DONE, очередь страниц удаляется
+     */
+    @Transactional
+    public void finish(CrawlCursor cursor) {
+        cursorRepository.findById(cursor.getSearchUrl())
+                .filter(c -> c.getRunId().equals(cursor.getRunId()))
+                .ifPresent(c -> {
+                    c.setState(CrawlCursor.State.DONE);
+                    c.setUpdatedAt(LocalDateTime.now());
+                    cursorRepository.save(c);
+                });
+        frontierRepository.deleteByRun(cursor.getRunId());
+    }
+
+    /**
+     * Снимает локальную отметку прохода; незавершённый курсор остаётся для продолжения
+     */
+    public void release(String searchUrl) {
+        active.remove(searchUrl);
+    }
+
+    private CrawlFrontierPage newPage(String runId, int page) {
+        CrawlFrontierPage frontierPage = new CrawlFrontierPage();
+        frontierPage.setRunId(runId);
+        frontierPage.setPageNumber(page);
+        frontierPage.setState(CrawlFrontierPage.State.PENDING);
+        frontierPage.setUpdatedAt(LocalDateTime.now());
+        return frontierPage;
+    }
+
+    private String writeVacancies(List<Vacancy> vacancies) {
+        try {
+            return objectMapper.writeValueAsString(vacancies);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize page vacancies", e);
+        }
+    }
+
+    private List<Vacancy> readVacancies(String payload) {
+        try {
+            List<Vacancy> vacancies = objectMapper.readValue(payload, VACANCY_LIST);
+            // Сохраняются как новые, даже если в JSON попал id
+            vacancies.forEach(vacancy -> vacancy.setId(null));
+            return vacancies;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read page vacancies from frontier", e);
+        }
+    }
+}
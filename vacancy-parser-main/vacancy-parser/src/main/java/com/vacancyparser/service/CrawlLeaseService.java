@@ -0,0 +1,189 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.model.CrawlLease;
+import com.vacancyparser.model.CrawlNode;
+import com.vacancyparser.repository.CrawlLeaseRepository;
+import com.vacancyparser.repository.CrawlNodeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Распределение поисковых заданий между узлами через аренды в общей БД.
+ * Узел выполняет только задания, аренду которых держит; аренды продлеваются heartbeat'ом,
+ * а аренды упавшего узла истекают и забираются остальными. Каждый узел держит не больше
+ * своей доли ({@code ceil(заданий / живых узлов)}), поэтому при добавлении узла задания перераспределяются.
+ * Все изменения аренд — атомарные UPDATE с условием, без блокировок на уровне приложения.
+ */
+@Service
+@Slf4j
+public class CrawlLeaseService {
+
+    private final CrawlLeaseRepository leaseRepository;
+    private final CrawlNodeRepository nodeRepository;
+    private final String nodeId;
+    private final Duration leaseDuration;
+
+    public CrawlLeaseService(CrawlLeaseRepository leaseRepository,
+                             CrawlNodeRepository nodeRepository,
+                             @Value("${parser.node.id:}") String nodeId,
+                             @Value("${server.port:8080}") int serverPort,
+                             @Value("${parser.lease.duration:90000}") long leaseDurationMillis) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? generateNodeId(serverPort) : nodeId;
+        this.leaseDuration = Duration.ofMillis(leaseDurationMillis);
+        log.info("Crawl node id: {}", this.nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Сверяет аренды узла с реестром: отпускает аренды отключённых заданий и сверх доли узла,
+     * добирает долю из свободных и просроченных аренд
+     * @param enabledJobIds включённые задания
+     * @return задания узла и время их следующего запуска (null — запускать сразу)
+     */
+    public Map<Long, LocalDateTime> rebalance(Collection<Long> enabledJobIds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leaseDuration);
+        nodeRepository.save(new CrawlNode(nodeId, now));
+        long nodes = Math.max(1, nodeRepository.countActive(now.minus(leaseDuration)));
+        int share = (int) ((enabledJobIds.size() + nodes - 1) / nodes);
+
+        Set<Long> enabled = new HashSet<>(enabledJobIds);
+        for (CrawlLease lease : leaseRepository.findByOwner(nodeId)) {
+            if (!enabled.contains(lease.getJobId())) {
+                leaseRepository.release(lease.getJobId(), nodeId);
+            }
+        }
+
+        Map<Long, CrawlLease> leases = leaseRepository.findAllById(enabled).stream()
+                .collect(Collectors.toMap(CrawlLease::getJobId, Function.identity()));
+        for (Long jobId : enabled) {
+            if (!leases.containsKey(jobId)) {
+                leases.put(jobId, createLease(jobId));
+            }
+        }
+
+        // Свои аренды, начиная с ближайших к запуску: лишние отдаём с конца
+        List<CrawlLease> held = leases.values().stream()
+                .filter(lease -> nodeId.equals(lease.getOwner()))
+                .sorted(Comparator.comparing(CrawlLease::getNextRunAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toCollection(ArrayList::new));
+        leaseRepository.renewAll(nodeId, until);
+        while (held.size() > share) {
+            CrawlLease excess = held.remove(held.size() - 1);
+            leaseRepository.release(excess.getJobId(), nodeId);
+            log.info("Released search job {} to rebalance across {} nodes", excess.getJobId(), nodes);
+        }
+
+        for (CrawlLease lease : leases.values()) {
+            if (held.size() >= share) {
+                break;
+            }
+            boolean free = lease.getOwner() == null || lease.getLeaseUntil() == null || lease.getLeaseUntil().isBefore(now);
+            if (free && !nodeId.equals(lease.getOwner()) && leaseRepository.claim(lease.getJobId(), nodeId, now, until) == 1) {
+                if (lease.getOwner() != null) {
+                    log.info("Reclaimed expired lease of search job {} from node {}", lease.getJobId(), lease.getOwner());
+                }
+                held.add(lease);
+            }
+        }
+
+        Map<Long, LocalDateTime> owned = new LinkedHashMap<>();
+        held.forEach(lease -> owned.put(lease.getJobId(), lease.getNextRunAt()));
+        return owned;
+    }
+
+    /**
+     * Захватывает или продлевает аренду задания перед запуском
+     * @param jobId идентификатор задания
+     * @return true, если аренда у этого узла
+     */
+    public boolean claim(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!leaseRepository.existsById(jobId)) {
+            createLease(jobId);
+        }
+        return leaseRepository.claim(jobId, nodeId, now, now.plus(leaseDuration)) == 1;
+    }
+
+    /**
+     * Сохраняет время следующего запуска, чтобы новый владелец продолжил расписание
+     */
+    public void recordNextRun(Long jobId, LocalDateTime nextRunAt) {
+        leaseRepository.updateNextRun(jobId, nodeId, nextRunAt);
+    }
+
+    public void release(Long jobId) {
+        leaseRepository.release(jobId, nodeId);
+    }
+
+    /**
+     * Продлевает аренды узла и отмечает его живым
+     */
+    @Scheduled(fixedDelayString = "${parser.lease.heartbeat.interval:30000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        nodeRepository.save(new CrawlNode(nodeId, now));
+        int renewed = leaseRepository.renewAll(nodeId, now.plus(leaseDuration));
+        log.debug("Node {} renewed {} leases", nodeId, renewed);
+    }
+
+    /**
+     * Отпускает аренды при остановке, чтобы другие узлы забрали задания, не дожидаясь истечения
+     */
+    @PreDestroy
+    public void releaseAll() {
+        try {
+            int released = leaseRepository.releaseAll(nodeId);
+            nodeRepository.deleteById(nodeId);
+            log.info("Node {} released {} leases", nodeId, released);
+        } catch (Exception e) {
+            log.warn("Failed to release leases of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private CrawlLease createLease(Long jobId) {
+        try {
+            return leaseRepository.saveAndFlush(new CrawlLease(jobId));
+        } catch (DataIntegrityViolationException e) {
+            // Строку одновременно вставил другой узел
+            return leaseRepository.findById(jobId).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Id узла по умолчанию: имя хоста и порт. Он не меняется при перезапуске, поэтому перезапущенный узел
+     * сразу продолжает свои проходы и аренды, не дожидаясь их истечения
+     */
+    static String generateNodeId(int serverPort) {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + serverPort;
+    }
+}
@@ -0,0 +1,195 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.export.ColumnarExportWriter;
+import com.vacancyparser.export.CsvExportWriter;
+import com.vacancyparser.export.ExportColumns;
+import com.vacancyparser.export.ExportFormat;
+import com.vacancyparser.export.ExportRowWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковая выгрузка всех вакансий в CSV или колоночный формат со сжатием gzip.
+ * Строки читаются JDBC-курсором и сразу пишутся в ответ, готовая выгрузка сохраняется в файл
+ * и отдаётся через {@link FileChannel#transferTo}, пока не изменится версия данных.
+ * Версия берётся из самой таблицы (число строк, последний id, последняя дозагрузка), поэтому
+ * вакансии, сохранённые другими узлами с общей БД, тоже делают кэш и ETag устаревшими.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path exportDir;
+    private final int fetchSize;
+    private final int rowGroupSize;
+
+    // Три агрегата по индексам: первичному ключу и idx_enriched_at
+    private static final String VERSION_SQL =
+            "SELECT COUNT(*), COALESCE(MAX(id), 0), MAX(enriched_at) FROM vacancies";
+
+    public ExportService(JdbcTemplate jdbcTemplate,
+                         @Value("${parser.export.dir:${java.io.tmpdir}/vacancy-exports}") String exportDir,
+                         @Value("${parser.export.fetch.size:1000}") int fetchSize,
+                         @Value("${parser.export.row.group.size:8192}") int rowGroupSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportDir = Paths.get(exportDir);
+        this.fetchSize = fetchSize;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * Возвращает текущую версию данных: меняется при добавлении и удалении вакансий и при записи подробностей
+     * @return версия данных
+     */
+    public String getDataVersion() {
+        return jdbcTemplate.queryForObject(VERSION_SQL, (rs, i) -> {
+            Timestamp enrichedAt = rs.getTimestamp(3);
+            return rs.getLong(1) + "-" + rs.getLong(2) + "-" + (enrichedAt != null ? enrichedAt.getTime() : 0);
+        });
+    }
+
+    /**
+     * Пишет gzip-выгрузку в поток: из кэша, если файл для текущей версии есть, иначе из курсора БД
+     * @param format формат выгрузки
+     * @param out поток ответа
+     */
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        String version = getDataVersion();
+        Path cached = cacheFile(format, version);
+        if (Files.exists(cached)) {
+            log.info("Serving cached {} export for data version {}", format, version);
+            transfer(cached, out);
+            return;
+        }
+
+        Files.createDirectories(exportDir);
+        Path partial = Files.createTempFile(exportDir, format.getExtension() + "-", ".part");
+        long rows;
+        try (OutputStream fileOut = Files.newOutputStream(partial);
+             GZIPOutputStream gzip = new GZIPOutputStream(new TeeOutputStream(out, fileOut), 64 * 1024)) {
+            rows = writeRows(format, gzip);
+            gzip.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        // Если за время выгрузки данные изменились, файл может содержать их частично — не кэшируем
+        if (getDataVersion().equals(version)) {
+            Files.move(partial, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteStale(format, cached);
+        } else {
+            Files.deleteIfExists(partial);
+        }
+        log.info("Exported {} vacancies as {} (data version {})", rows, format, version);
+    }
+
+    private long writeRows(ExportFormat format, OutputStream out) throws IOException {
+        ExportRowWriter writer = format == ExportFormat.CSV
+                ? new CsvExportWriter(out)
+                : new ColumnarExportWriter(out, rowGroupSize);
+        AtomicLong rows = new AtomicLong();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ExportColumns.SELECT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            try {
+                writer.writeRow(rs);
+                rows.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.finish();
+        return rows.get();
+    }
+
+    private void transfer(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+        out.flush();
+    }
+
+    private void deleteStale(ExportFormat format, Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(exportDir, "vacancies-*." + format.getExtension() + ".gz")) {
+            for (Path file : files) {
+                if (!file.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up stale exports: {}", e.getMessage());
+        }
+    }
+
+    private Path cacheFile(ExportFormat format, String version) {
+        return exportDir.resolve("vacancies-" + version + "." + format.getExtension() + ".gz");
+    }
+
+    /**
+     * Дублирует запись в ответ и в файл кэша. Поток ответа не закрывается — им управляет контейнер.
+     */
+    private static final class TeeOutputStream extends FilterOutputStream {
+
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream out, OutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copy.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            copy.close();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.dto.FacetValueDto;
+import com.vacancyparser.dto.FacetsDto;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.repository.VacancyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory словарь фасетов (источник, город, компания) с количеством вакансий.
+ * Заполняется одним GROUP BY при старте и дальше поддерживается путём сохранения вакансий,
+ * поэтому выпадающие списки фильтров не требуют запросов к БД. Вакансии, сохранённые другими
+ * узлами с общей БД, этот путь не видит: раз в {@code parser.facets.refresh.interval} мс отпечаток
+ * таблицы (число строк и наибольший id) сверяется с загруженным, и при расхождении словарь перечитывается.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FacetService {
+
+    private final VacancyRepository vacancyRepository;
+
+    private final Facet sources = new Facet();
+    private final Facet cities = new Facet();
+    private final Facet companies = new Facet();
+
+    // Стартуем с текущего времени, чтобы ETag не совпал со значением до перезапуска
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    // Отпечаток таблицы, с которого загружен словарь
+    private volatile String loadedSignature;
+
+    @PostConstruct
+    public void init() {
+        load();
+        log.info("Facets loaded: {} sources, {} cities, {} companies",
+                sources.size(), cities.size(), companies.size());
+    }
+
+    /**
+     * Перечитывает словарь, если в таблице есть строки, сохранённые не через {@link #record}
+     */
+    @Scheduled(initialDelayString = "${parser.facets.refresh.interval:60000}",
+            fixedDelayString = "${parser.facets.refresh.interval:60000}")
+    public void refresh() {
+        if (!signature().equals(loadedSignature)) {
+            load();
+            log.debug("Facets reloaded: {} sources, {} cities, {} companies",
+                    sources.size(), cities.size(), companies.size());
+        }
+    }
+
+    private synchronized void load() {
+        // Отпечаток берётся до GROUP BY: строки, вставленные между запросами, вызовут ещё одну перезагрузку
+        String signature = signature();
+        sources.load(vacancyRepository.countBySource());
+        cities.load(vacancyRepository.countByCity());
+        companies.load(vacancyRepository.countByCompany());
+        loadedSignature = signature;
+        version.incrementAndGet();
+    }
+
+    private String signature() {
+        List<Object[]> rows = vacancyRepository.countAndMaxId();
+        if (rows.isEmpty()) {
+            return "";
+        }
+        Object[] row = rows.get(0);
+        return row[0] + "-" + row[1];
+    }
+
+    /**
+     * Учитывает новые сохранённые вакансии в словаре фасетов
+     * @param saved сохранённые вакансии
+     */
+    public void record(Collection<Vacancy> saved) {
+        if (saved.isEmpty()) {
+            return;
+        }
+        for (Vacancy vacancy : saved) {
+            sources.add(vacancy.getSource(), 1);
+            cities.add(vacancy.getCity(), 1);
+            companies.add(vacancy.getCompany(), 1);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Возвращает версию словаря; меняется при каждом изменении данных
+     * @return версия словаря
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Возвращает фасеты с количеством вакансий
+     * @param companyPrefix префикс названия компании (без учёта регистра), может быть null
+     * @param companyLimit максимальное количество компаний в ответе
+     * @return фасеты, отсортированные по убыванию количества
+     */
+    public FacetsDto getFacets(String companyPrefix, int companyLimit) {
+        long currentVersion = version.get();
+        return new FacetsDto(
+                currentVersion,
+                sources.top(null, Integer.MAX_VALUE),
+                cities.top(null, Integer.MAX_VALUE),
+                companies.top(companyPrefix, companyLimit)
+        );
+    }
+
+    /**
+     * Значения одного фасета. Ключ — значение в нижнем регистре + '\0' + исходное значение:
+     * так префиксный поиск без учёта регистра сводится к subMap, а разные написания не сливаются.
+     */
+    private static final class Facet {
+
+        // Перезагрузка подменяет карту целиком: читатели не видят словарь наполовину пустым
+        private volatile ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+        void load(List<Object[]> rows) {
+            ConcurrentSkipListMap<String, Entry> loaded = new ConcurrentSkipListMap<>();
+            for (Object[] row : rows) {
+                add(loaded, (String) row[0], ((Number) row[1]).longValue());
+            }
+            entries = loaded;
+        }
+
+        void add(String value, long delta) {
+            add(entries, value, delta);
+        }
+
+        private static void add(ConcurrentSkipListMap<String, Entry> entries, String value, long delta) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            entries.computeIfAbsent(key(value), k -> new Entry(value)).count.addAndGet(delta);
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        List<FacetValueDto> top(String prefix, int limit) {
+            NavigableMap<String, Entry> range = entries;
+            if (prefix != null && !prefix.isBlank()) {
+                String from = prefix.toLowerCase(Locale.ROOT);
+                range = entries.subMap(from, true, from + Character.MAX_VALUE, true);
+            }
+            List<FacetValueDto> result = new ArrayList<>();
+            for (Entry entry : range.values()) {
+                result.add(new FacetValueDto(entry.value, entry.count.get()));
+            }
+            result.sort(Comparator.comparingLong(FacetValueDto::getCount).reversed()
+                    .thenComparing(FacetValueDto::getValue));
+            int max = Math.max(0, limit);
+            return result.size() > max ? new ArrayList<>(result.subList(0, max)) : result;
+        }
+
+        private static String key(String value) {
+            return value.toLowerCase(Locale.ROOT) + '\0' + value;
+        }
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final AtomicLong count = new AtomicLong();
+
+        Entry(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.vacancyparser.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Gauge;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
 
 @Service
 public class MetricsService {
@@ -25,6 +30,19 @@ public class MetricsService {
     // Счётчик общего количества вакансий в БД
     private final AtomicLong totalVacanciesInDb = new AtomicLong(0);
 
+    // Загруженные тела страниц выдачи по источникам: всего и совпавших с обработанной версией
+    private final Map<String, BodyChecks> bodyChecks = new ConcurrentHashMap<>();
+
+    private static final class BodyChecks {
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong identical = new AtomicLong();
+
+        double identicalRatio() {
+            long checked = total.get();
+            return checked == 0 ? 0 : (double) identical.get() / checked;
+        }
+    }
+
     public MetricsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
     }
@@ -112,6 +130,272 @@ public class MetricsService {
         return meterRegistry;
     }
 
+    /**
+     * Увеличивает счётчик загруженных страниц поисковой выдачи
+     * @param source источник парсинга
+     */
+    public void incrementPagesFetched(String source) {
+        Counter.builder("vacancy.crawl.pages.fetched")
+                .tag("source", source)
+                .description("Количество загруженных страниц поисковой выдачи")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик страниц, полученных из уже идущей загрузки другого прохода
+     * @param source источник парсинга
+     */
+    public void incrementPagesCoalesced(String source) {
+        Counter.builder("vacancy.crawl.pages.coalesced")
+                .tag("source", source)
+                .description("Страницы выдачи, полученные из одновременной загрузки другого прохода")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Учитывает страницу, которая не изменилась с последней обработанной версии.
+     * Доля попаданий — {@code vacancy.fetch.cache.hits / (vacancy.fetch.cache.hits + vacancy.crawl.pages.fetched)}.
+     * @param source источник парсинга
+     * @param type fresh — запись кэша ещё свежая, revalidated — сайт ответил 304,
+     *             identical — тело совпало с обработанной версией
+     * @param bytesSaved размер тела, которое не пришлось загружать или разбирать
+     */
+    public void recordPageNotModified(String source, String type, long bytesSaved) {
+        Counter.builder("vacancy.fetch.cache.hits")
+                .tag("source", source)
+                .tag("type", type)
+                .description("Страницы выдачи, не изменившиеся с последней обработки")
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("vacancy.fetch.cache.bytes.saved")
+                .tag("source", source)
+                .baseUnit("bytes")
+                .description("Байты страниц, которые не пришлось загружать или разбирать")
+                .register(meterRegistry)
+                .increment(bytesSaved);
+    }
+
+    /**
+     * Записывает проверку хэша тела страницы выдачи, загруженного из сети
+     * @param source источник парсинга
+     * @param identical тело совпало с обработанной версией, разбор пропущен
+     */
+    public void recordBodyCheck(String source, boolean identical) {
+        BodyChecks checks = bodyChecks.computeIfAbsent(source, s -> {
+            BodyChecks created = new BodyChecks();
+            registerSourceGauge("vacancy.fetch.identical.ratio", s, created, BodyChecks::identicalRatio,
+                    "Доля загруженных страниц выдачи, совпавших с обработанной версией (разбор пропущен)");
+            return created;
+        });
+        checks.total.incrementAndGet();
+        if (identical) {
+            checks.identical.incrementAndGet();
+        }
+        Counter.builder("vacancy.fetch.bodies")
+                .tag("source", source)
+                .tag("result", identical ? "identical" : "changed")
+                .description("Страницы выдачи, загруженные из сети, по результату сравнения хэша тела")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Записывает количество страниц, пропущенных за проход благодаря отметке последнего прохода
+     * @param source источник парсинга
+     * @param pages количество пропущенных страниц
+     */
+    public void recordPagesSkipped(String source, int pages) {
+        DistributionSummary.builder("vacancy.crawl.pages.skipped")
+                .tag("source", source)
+                .description("Страницы выдачи, пропущенные за проход (только известные вакансии)")
+                .register(meterRegistry)
+                .record(pages);
+    }
+
+    /**
+     * Регистрирует gauge с тегом хоста
+     * @param name имя метрики
+     * @param host хост
+     * @param state объект, из которого читается значение
+     * @param value функция чтения значения
+     * @param description описание метрики
+     */
+    public <T> void registerHostGauge(String name, String host, T state, ToDoubleFunction<T> value, String description) {
+        Gauge.builder(name, state, value)
+                .tag("host", host)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Увеличивает счётчик ответов 429/503, на которые ограничитель снизил нагрузку на хост
+     * @param host хост
+     */
+    public void incrementHostThrottled(String host) {
+        Counter.builder("vacancy.fetch.host.throttled")
+                .tag("host", host)
+                .description("Ответы 429/503 по хостам")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик сработавших таймаутов запросов к хосту
+     * @param host хост
+     * @param phase этап запроса: ttfb или total
+     */
+    public void incrementHostTimeout(String host, String phase) {
+        Counter.builder("vacancy.fetch.host.timeouts")
+                .tag("host", host)
+                .tag("phase", phase)
+                .description("Сработавшие таймауты запросов по хостам")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Регистрирует gauge с тегом источника
+     * @param name имя метрики
+     * @param source источник парсинга
+     * @param state объект, из которого читается значение
+     * @param value функция чтения значения
+     * @param description описание метрики
+     */
+    public <T> void registerSourceGauge(String name, String source, T state, ToDoubleFunction<T> value, String description) {
+        Gauge.builder(name, state, value)
+                .tag("source", source)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Увеличивает счётчик повторов загрузки страницы после временного сбоя
+     * @param source источник парсинга
+     * @param reason причина: timeout, io или HTTP-статус
+     */
+    public void incrementFetchRetries(String source, String reason) {
+        Counter.builder("vacancy.fetch.retries")
+                .tag("source", source)
+                .tag("reason", reason)
+                .description("Повторы загрузки страниц после временных сбоев")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик открытий выключателя источника
+     * @param source источник парсинга
+     */
+    public void incrementBreakerOpened(String source) {
+        Counter.builder("vacancy.fetch.breaker.opened")
+                .tag("source", source)
+                .description("Открытия выключателя источника после серии сбоев")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик запросов, отклонённых открытым выключателем
+     * @param source источник парсинга
+     */
+    public void incrementBreakerRejected(String source) {
+        Counter.builder("vacancy.fetch.breaker.rejected")
+                .tag("source", source)
+                .description("Запросы, отклонённые открытым выключателем источника")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Записывает проверку вакансий страницы по БД
+     * @param source источник парсинга
+     * @param checked сколько ключей проверено
+     * @param existing сколько из них уже в БД
+     */
+    public void recordDedupCheck(String source, int checked, int existing) {
+        Counter.builder("vacancy.dedup.checked")
+                .tag("source", source)
+                .description("Вакансии, проверенные по БД перед записью")
+                .register(meterRegistry)
+                .increment(checked);
+        Counter.builder("vacancy.dedup.existing")
+                .tag("source", source)
+                .description("Вакансии, уже сохранённые в БД (не записываются повторно)")
+                .register(meterRegistry)
+                .increment(existing);
+    }
+
+    /**
+     * Увеличивает счётчик страниц вакансий, загруженных для подробностей
+     * @param source источник парсинга
+     * @param outcome enriched, empty, gone (страницы больше нет), failed или skipped (выключатель открыт)
+     */
+    public void incrementEnrichment(String source, String outcome) {
+        Counter.builder("vacancy.enrich.pages")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .description("Страницы вакансий, загруженные для подробностей")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Увеличивает счётчик дублирующих запросов
+     * @param host хост
+     * @param won true — дубль ответил раньше исходного запроса
+     */
+    public void incrementHedgedRequests(String host, boolean won) {
+        Counter.builder("vacancy.fetch.hedged")
+                .tag("host", host)
+                .tag("outcome", won ? "won" : "lost")
+                .description("Дублирующие запросы к медленным страницам по хостам")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Регистрирует gauge с тегом этапа конвейера
+     * @param name имя метрики
+     * @param stage этап конвейера: fetch, parse, persist
+     * @param state объект, из которого читается значение
+     * @param value функция чтения значения
+     * @param description описание метрики
+     */
+    public <T> void registerStageGauge(String name, String stage, T state, ToDoubleFunction<T> value, String description) {
+        Gauge.builder(name, state, value)
+                .tag("stage", stage)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Записывает время, которое задание провело в очереди этапа конвейера
+     * @param stage этап конвейера
+     * @param nanos время ожидания в наносекундах
+     */
+    public void recordStageWait(String stage, long nanos) {
+        Timer.builder("vacancy.pipeline.queue.wait")
+                .tag("stage", stage)
+                .description("Время ожидания заданий в очереди этапа конвейера")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Записывает размер пачки, обработанной этапом конвейера
+     * @param stage этап конвейера
+     * @param size количество заданий в пачке
+     */
+    public void recordStageBatch(String stage, int size) {
+        DistributionSummary.builder("vacancy.pipeline.batch.size")
+                .tag("stage", stage)
+                .description("Размер пачек этапа конвейера")
+                .register(meterRegistry)
+                .record(size);
+    }
+
     /**
      * Создаёт таймер с тегами для конкретного источника
      * @param source источник парсинга
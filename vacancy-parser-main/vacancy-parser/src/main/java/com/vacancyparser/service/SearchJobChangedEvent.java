@@ -0,0 +1,15 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.model.SearchJob;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Событие изменения поискового задания; {@code job == null} означает удаление
+ */
+@Getter
+@AllArgsConstructor
+public class SearchJobChangedEvent {
+    private final Long jobId;
+    private final SearchJob job;
+}
@@ -0,0 +1,136 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.dto.SearchJobRequest;
+import com.vacancyparser.model.SearchJob;
+import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.repository.SearchJobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реестр поисковых заданий. Изменения публикуются событием {@link SearchJobChangedEvent},
+ * чтобы планировщик применял их без перезапуска.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchJobService {
+
+    private final SearchJobRepository searchJobRepository;
+    private final VacancyParser vacancyParser;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Задания, которые создаются в пустом реестре (раньше — VacancyScheduler.DEFAULT_URLS)
+    @Value("${parser.jobs.seed.urls:}")
+    private String[] seedUrls;
+
+    @Value("${parser.jobs.default.max.pages:5}")
+    private int defaultMaxPages;
+
+    @PostConstruct
+    public void seedDefaults() {
+        if (seedUrls == null || seedUrls.length == 0 || searchJobRepository.count() > 0) {
+            return;
+        }
+        for (String url : seedUrls) {
+            if (!url.isBlank()) {
+                searchJobRepository.save(newJob(new SearchJobRequest(url.trim(), null, null, null, true)));
+            }
+        }
+        log.info("Seeded {} default search jobs", seedUrls.length);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SearchJob> getAllJobs() {
+        return searchJobRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public List<SearchJob> getEnabledJobs() {
+        return searchJobRepository.findByEnabledTrue();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SearchJob> getJob(Long id) {
+        return searchJobRepository.findById(id);
+    }
+
+    @Transactional
+    public SearchJob createJob(SearchJobRequest request) {
+        SearchJob job = searchJobRepository.save(newJob(request));
+        eventPublisher.publishEvent(new SearchJobChangedEvent(job.getId(), job));
+        return job;
+    }
+
+    @Transactional
+    public Optional<SearchJob> updateJob(Long id, SearchJobRequest request) {
+        return searchJobRepository.findById(id).map(job -> {
+            job.setUrl(request.getUrl());
+            job.setSource(request.getSource() != null ? request.getSource() : vacancyParser.detectSource(request.getUrl()));
+            if (request.getPriority() != null) {
+                job.setPriority(request.getPriority());
+            }
+            if (request.getMaxPages() != null) {
+                job.setMaxPages(request.getMaxPages());
+            }
+            if (request.getEnabled() != null) {
+                job.setEnabled(request.getEnabled());
+            }
+            SearchJob saved = searchJobRepository.save(job);
+            eventPublisher.publishEvent(new SearchJobChangedEvent(saved.getId(), saved));
+            return saved;
+        });
+    }
+
+    @Transactional
+    public boolean deleteJob(Long id) {
+        if (!searchJobRepository.existsById(id)) {
+            return false;
+        }
+        searchJobRepository.deleteById(id);
+        eventPublisher.publishEvent(new SearchJobChangedEvent(id, null));
+        return true;
+    }
+
+    /**
+     * Сохраняет статистику последнего запуска задания
+     * @param id идентификатор задания
+     * @param result итог прохода
+     */
+    @Transactional
+    public void recordRun(Long id, SearchCrawlResult result) {
+        if (result.getStatus() == SearchCrawlResult.Status.SKIPPED) {
+            // Поиск не проходился: итоги прошлого прохода остаются
+            return;
+        }
+        searchJobRepository.findById(id).ifPresent(job -> {
+            job.setLastRunAt(LocalDateTime.now());
+            job.setLastRunDurationMs(result.getDurationMs());
+            job.setLastRunPages(result.getPagesFetched());
+            job.setLastRunFound(result.getVacanciesFound());
+            job.setLastRunSaved(result.getVacanciesSaved());
+            job.setLastError(result.getError());
+            searchJobRepository.save(job);
+        });
+    }
+
+    private SearchJob newJob(SearchJobRequest request) {
+        SearchJob job = new SearchJob();
+        job.setUrl(request.getUrl());
+        job.setSource(request.getSource() != null ? request.getSource() : vacancyParser.detectSource(request.getUrl()));
+        job.setPriority(request.getPriority() != null ? request.getPriority() : 0);
+        job.setMaxPages(request.getMaxPages() != null ? request.getMaxPages() : defaultMaxPages);
+        job.setEnabled(request.getEnabled() == null || request.getEnabled());
+        return job;
+    }
+}
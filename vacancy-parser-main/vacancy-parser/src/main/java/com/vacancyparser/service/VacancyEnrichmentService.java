@@ -0,0 +1,362 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.fetch.CircuitOpenException;
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.parser.VacancyDetail;
+import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.pipeline.ExecutionMode;
+import com.vacancyparser.repository.VacancyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Дозагрузка подробностей вакансий (описание, навыки, опыт, тип занятости) со страниц вакансий.
+ * В очередь попадают только вакансии без подробностей ({@code enrichedAt} пуст); одна вакансия стоит
+ * в очереди не больше одного раза. После неудачной загрузки (5xx, таймаут, открытый выключатель)
+ * следующая попытка откладывается с экспоненциальной паузой ({@code parser.enrich.retry.*}),
+ * так что вакансии, которые не удаётся загрузить, не занимают каждый проход по таблице.
+ * У дозагрузки свой бюджет: {@code parser.enrich.threads} потоков, своя ограниченная очередь и свой выключатель
+ * источника. Запросы к сайтам фоновые — они не занимают последний слот хоста и уступают запросам выдачи,
+ * так что обход выдачи из-за дозагрузки не замедляется. Переполненная очередь не задерживает запись
+ * новых вакансий: лишние вакансии подберёт периодический проход по таблице.
+ * С общей БД вакансия дозагружается одним узлом: перед постановкой в очередь она арендуется на
+ * {@code parser.enrich.claim.duration} через {@code enrichNextAttemptAt} (UPDATE с условием), а новые
+ * вакансии арендуются при записи ({@link #reserve}). Аренда упавшего узла истекает, и вакансию берёт другой.
+ * Подробности записываются пачками: одна транзакция на {@code batch.size} вакансий.
+ */
+@Service
+@Slf4j
+public class VacancyEnrichmentService {
+
+    private static final long POLL_MILLIS = 250;
+    private static final int MAX_DESCRIPTION = 20000;
+    private static final int MAX_SKILLS = 2000;
+    private static final int MAX_FIELD = 255;
+
+    private final VacancyRepository vacancyRepository;
+    private final VacancyParser vacancyParser;
+    private final MetricsService metricsService;
+    private final PlatformTransactionManager transactionManager;
+    private final boolean enabled;
+    private final int threads;
+    private final int batchSize;
+    private final long flushMillis;
+    private final long fetchTimeoutMillis;
+    private final int sweepSize;
+    private final long retryDelayMillis;
+    private final long retryMaxDelayMillis;
+    private final Duration claimDuration;
+
+    private final BlockingQueue<Task> queue;
+    private final BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+    // Вакансии в очереди или в работе: повторно не ставятся
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+    private volatile boolean stopped;
+
+    public VacancyEnrichmentService(VacancyRepository vacancyRepository,
+                                    VacancyParser vacancyParser,
+                                    MetricsService metricsService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${parser.enrich.enabled:false}") boolean enabled,
+                                    @Value("${parser.enrich.threads:2}") int threads,
+                                    @Value("${parser.enrich.queue.capacity:1000}") int queueCapacity,
+                                    @Value("${parser.enrich.batch.size:50}") int batchSize,
+                                    @Value("${parser.enrich.flush.interval:2000}") long flushMillis,
+                                    @Value("${parser.enrich.fetch.timeout:30000}") long fetchTimeoutMillis,
+                                    @Value("${parser.enrich.sweep.size:200}") int sweepSize,
+                                    @Value("${parser.enrich.retry.delay:300000}") long retryDelayMillis,
+                                    @Value("${parser.enrich.retry.max.delay:21600000}") long retryMaxDelayMillis,
+                                    @Value("${parser.enrich.claim.duration:900000}") long claimMillis) {
+        this.vacancyRepository = vacancyRepository;
+        this.vacancyParser = vacancyParser;
+        this.metricsService = metricsService;
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMillis = flushMillis;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.sweepSize = sweepSize;
+        this.retryDelayMillis = retryDelayMillis;
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+        this.claimDuration = Duration.ofMillis(claimMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * Вакансия в очереди дозагрузки
+     */
+    private record Task(Long id, String source, String url) {
+    }
+
+    /**
+     * Итог дозагрузки: подробности, null — страницы вакансии больше нет
+     * @param failed загрузка не удалась, попытку нужно отложить
+     */
+    private record Result(Task task, VacancyDetail detail, boolean failed) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        metricsService.registerStageGauge("vacancy.pipeline.queue.depth", "enrich", queue, BlockingQueue::size,
+                "Задания в очереди этапа конвейера");
+        // Потоки загрузки и один поток записи
+        workers = Executors.newFixedThreadPool(threads + 1, ExecutionMode.PLATFORM.threadFactory("enrich"));
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::runFetcher);
+        }
+        workers.submit(this::runWriter);
+        log.info("Vacancy enrichment started: {} threads, batch {}", threads, batchSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Арендует новые вакансии перед записью: проход по таблице другого узла не возьмёт их, пока они
+     * в очереди этого узла
+     * @param vacancies вакансии, которые будут сохранены и поставлены в очередь ({@link #enqueue})
+     */
+    public void reserve(Collection<Vacancy> vacancies) {
+        if (!enabled || stopped) {
+            return;
+        }
+        LocalDateTime until = LocalDateTime.now().plus(claimDuration);
+        vacancies.forEach(vacancy -> vacancy.setEnrichNextAttemptAt(until));
+    }
+
+    /**
+     * Ставит вакансии без подробностей в очередь дозагрузки, не дожидаясь места в очереди
+     * @param vacancies сохранённые вакансии (с id)
+     * @return сколько вакансий поставлено в очередь
+     */
+    public int enqueue(Collection<Vacancy> vacancies) {
+        if (!enabled || stopped) {
+            return 0;
+        }
+        int added = 0;
+        for (Vacancy vacancy : vacancies) {
+            if (vacancy.getId() == null || vacancy.getEnrichedAt() != null || vacancy.getSourceUrl() == null
+                    || !queued.add(vacancy.getId())) {
+                continue;
+            }
+            if (!queue.offer(new Task(vacancy.getId(), vacancy.getSource(), vacancy.getSourceUrl()))) {
+                // Очередь полна — вакансию подберёт проход по таблице
+                queued.remove(vacancy.getId());
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Ставит в очередь вакансии без подробностей из БД: сохранённые до перезапуска, не поместившиеся
+     * в очередь и те, у которых после сбоя загрузки подошло время следующей попытки.
+     * В очередь попадают только вакансии, которые удалось арендовать.
+     */
+    @Scheduled(initialDelayString = "${parser.enrich.sweep.interval:60000}",
+               fixedDelayString = "${parser.enrich.sweep.interval:60000}")
+    public void sweep() {
+        if (!enabled || stopped) {
+            return;
+        }
+        int room = Math.min(queue.remainingCapacity(), sweepSize);
+        if (room == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(claimDuration);
+        List<Vacancy> claimed = new ArrayList<>();
+        for (Vacancy vacancy : vacancyRepository.findNotEnriched(now, PageRequest.of(0, room))) {
+            if (!queued.contains(vacancy.getId()) && vacancyRepository.claimEnrichment(vacancy.getId(), now, until) == 1) {
+                claimed.add(vacancy);
+            }
+        }
+        int added = enqueue(claimed);
+        if (added > 0) {
+            log.info("Queued {} vacancies for enrichment", added);
+        }
+    }
+
+    private void runFetcher() {
+        while (!stopped) {
+            Task task;
+            try {
+                task = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return;
+                }
+                continue;
+            }
+            if (task != null) {
+                fetch(task);
+            }
+        }
+    }
+
+    private void fetch(Task task) {
+        try {
+            VacancyDetail detail = vacancyParser.parseDetail(task.source(), task.url(),
+                    CrawlContext.withTimeout(Duration.ofMillis(fetchTimeoutMillis)));
+            metricsService.incrementEnrichment(task.source(), detail.isEmpty() ? "empty" : "enriched");
+            results.add(new Result(task, detail, false));
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() == 404 || e.getStatusCode() == 410) {
+                // Вакансию сняли с публикации — больше не пробуем
+                metricsService.incrementEnrichment(task.source(), "gone");
+                results.add(new Result(task, null, false));
+            } else {
+                failed(task, "failed", e);
+            }
+        } catch (CircuitOpenException e) {
+            failed(task, "skipped", e);
+        } catch (IOException | CrawlCancelledException e) {
+            failed(task, "failed", e);
+        } catch (RuntimeException e) {
+            log.warn("Enrichment of {} failed: {}", task.url(), e.getMessage(), e);
+            failed(task, "failed", e);
+        }
+    }
+
+    private void failed(Task task, String outcome, Exception e) {
+        // Подробностей нет, enrichedAt остаётся пустым; писатель отложит следующую попытку
+        metricsService.incrementEnrichment(task.source(), outcome);
+        results.add(new Result(task, null, true));
+        log.debug("Enrichment of {} {}: {}", task.url(), outcome, e.getMessage());
+    }
+
+    /**
+     * Копит итоги до {@code batch.size} или {@code flush.interval} мс с первого итога и записывает их
+     * одной транзакцией
+     */
+    private void runWriter() {
+        List<Result> batch = new ArrayList<>(batchSize);
+        while (!stopped || !results.isEmpty()) {
+            try {
+                Result first = results.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long flushAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+                while (batch.size() < batchSize && !stopped) {
+                    long left = flushAt - System.nanoTime();
+                    Result next = left > 0 ? results.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    results.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                if (!stopped) {
+                    continue;
+                }
+                results.drainTo(batch);
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to save details of {} vacancies: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.forEach(result -> queued.remove(result.task().id()));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Записывает итоги пачки: одна выборка по id и обновления в одной транзакции.
+     * Неудачным загрузкам увеличивается счётчик попыток и откладывается следующая попытка.
+     */
+    private void write(List<Result> batch) {
+        Map<Long, Result> byId = new HashMap<>();
+        batch.forEach(result -> byId.put(result.task().id(), result));
+        LocalDateTime now = LocalDateTime.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Vacancy vacancy : vacancyRepository.findAllById(byId.keySet())) {
+                Result result = byId.get(vacancy.getId());
+                if (result.failed()) {
+                    int attempts = (vacancy.getEnrichAttempts() != null ? vacancy.getEnrichAttempts() : 0) + 1;
+                    vacancy.setEnrichAttempts(attempts);
+                    vacancy.setEnrichNextAttemptAt(now.plus(Duration.ofMillis(retryDelayMillis(attempts))));
+                    continue;
+                }
+                VacancyDetail detail = result.detail();
+                if (detail != null) {
+                    vacancy.setDescription(truncate(detail.description(), MAX_DESCRIPTION));
+                    vacancy.setSkills(detail.skills().isEmpty() ? null : truncate(String.join(", ", detail.skills()), MAX_SKILLS));
+                    vacancy.setExperience(truncate(detail.experience(), MAX_FIELD));
+                    vacancy.setEmploymentType(truncate(detail.employmentType(), MAX_FIELD));
+                }
+                vacancy.setEnrichedAt(now);
+                vacancy.setEnrichNextAttemptAt(null);
+            }
+        });
+        metricsService.recordStageBatch("enrich", batch.size());
+        log.info("Saved details of {} vacancies", batch.size());
+    }
+
+    /**
+     * Пауза до следующей попытки: {@code retry.delay}, удваивается с каждой неудачей до {@code retry.max.delay}
+     */
+    long retryDelayMillis(int attempts) {
+        return Math.min(retryMaxDelayMillis, retryDelayMillis << Math.min(attempts - 1, 20));
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    /**
+     * Вакансии в очереди или в работе
+     */
+    public int getQueued() {
+        return queued.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+}
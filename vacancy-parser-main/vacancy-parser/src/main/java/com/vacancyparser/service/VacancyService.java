@@ -1,19 +1,38 @@
 package com.vacancyparser.service;
 
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.fetch.PageFetchFailedException;
+import com.vacancyparser.fetch.PageNotModifiedException;
+import com.vacancyparser.fetch.ResponseCache;
+import com.vacancyparser.fetch.SingleFlight;
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.model.CrawlCursor;
+import com.vacancyparser.model.SearchWatermark;
 import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.model.VacancyKey;
+import com.vacancyparser.parser.UrlCanonicalizer;
 import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.pipeline.BatchingStage;
+import com.vacancyparser.pipeline.CrawlPipeline;
+import com.vacancyparser.repository.SearchWatermarkRepository;
 import com.vacancyparser.repository.VacancyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 import jakarta.annotation.PostConstruct;
 import io.micrometer.core.instrument.Timer;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 import org.springframework.data.domain.Sort;
 
 @Service
@@ -23,93 +42,102 @@ public class VacancyService {
 
     private final VacancyRepository vacancyRepository;
     private final VacancyParser vacancyParser;
+    private final SearchWatermarkRepository watermarkRepository;
     private final LoggingService loggingService;
     private final MetricsService metricsService;
+    private final FacetService facetService;
+    private final PlatformTransactionManager transactionManager;
+    private final CrawlFrontierService frontierService;
+    private final ResponseCache responseCache;
+    private final CrawlPipeline crawlPipeline;
+    private final VacancyEnrichmentService enrichmentService;
     
     @Value("${parser.thread.pool.size:10}")
     private int threadPoolSize;
+
+    // Ключей в одном IN при проверке по БД; большие списки делятся на части
+    @Value("${parser.dedup.in.limit:500}")
+    private int dedupInLimit = 500;
+
+    // Дедлайн прохода, если вызывающий не передал свой (планировщик, синхронный парсинг)
+    @Value("${parser.crawl.deadline:300000}")
+    private long crawlDeadlineMillis;
     
     private ExecutorService executorService;
-    private final Set<String> processedUrls = ConcurrentHashMap.newKeySet();
+    // Запись страниц пачками: проходы только ставят страницы в очередь и ждут результата
+    private BatchingStage<PageSave, Integer> persistStage;
+    // Ключи (source, externalId) вакансий, сохранённых или сохраняемых этим узлом
+    private final Set<VacancyKey> processedKeys = ConcurrentHashMap.newKeySet();
+    // Одновременные проходы одного поиска (планировщик, /parse) загружают каждую страницу один раз
+    private final SingleFlight<String, List<Vacancy>> pageFlights = new SingleFlight<>();
     private final BlockingQueue<Vacancy> vacancyQueue = new LinkedBlockingQueue<>();
     
     @PostConstruct
     public void init() {
-        executorService = Executors.newFixedThreadPool(threadPoolSize);
+        // В режиме virtual каждый проход получает свой виртуальный поток, и parser.thread.pool.size не ограничивает их число
+        executorService = crawlPipeline.newCrawlExecutor(threadPoolSize);
+        persistStage = crawlPipeline.persistStage(this::persistBatch);
     }
 
     @Transactional
-    public void parseVacancies(List<String> urls, Integer maxPages) {
-        log.info("Starting parsing for {} URLs with max {} pages", urls.size(), maxPages);
+    public List<SearchCrawlResult> parseVacancies(List<String> urls, Integer maxPages) {
+        List<SearchCrawlResult> results = new ArrayList<>();
+        for (String url : urls) {
+            results.add(new SearchCrawlResult(url, vacancyParser.detectSource(url)));
+        }
+        runCrawl(results, maxPages, CrawlContext.withTimeout(Duration.ofMillis(crawlDeadlineMillis)));
+        return results;
+    }
+
+    /**
+     * Запускает проходы по URL в пуле воркеров и ждёт их завершения, но не дольше дедлайна контекста.
+     * Прогресс пишется прямо в переданные объекты, поэтому его видно во время выполнения.
+     * По истечении дедлайна или при отмене контекста незавершённые задачи прерываются.
+     * @param results прогресс по каждому URL (url и source заполнены)
+     * @param maxPages максимальное количество страниц на URL
+     * @param context дедлайн и отмена прохода
+     */
+    public void runCrawl(List<SearchCrawlResult> results, int maxPages, CrawlContext context) {
+        log.info("Starting parsing for {} URLs with max {} pages", results.size(), maxPages);
         
         // Измеряем общее время выполнения парсинга
         metricsService.recordParsingTime(() -> {
-            List<Future<List<Vacancy>>> futures = new ArrayList<>();
+            List<Future<SearchCrawlResult>> futures = new ArrayList<>();
             
-            for (String url : urls) {
-                Future<List<Vacancy>> future = executorService.submit(() -> {
-                    String source = vacancyParser.detectSource(url);
-                    List<Vacancy> vacancies = new ArrayList<>();
-                    
-                    try {
-                        // Измеряем время парсинга для каждого источника
-                        Timer sourceTimer = metricsService.getParsingTimerForSource(source);
-                        
-                        switch (source) {
-                            case "hh":
-                                vacancies = sourceTimer.recordCallable(() -> vacancyParser.parseHhRu(url));
-                                break;
-                            case "superjob":
-                                vacancies = sourceTimer.recordCallable(() -> vacancyParser.parseSuperJob(url));
-                                break;
-                            case "habr":
-                                vacancies = sourceTimer.recordCallable(() -> vacancyParser.parseHabrCareer(url));
-                                break;
-                            default:
-                                log.warn("Unknown source for URL: {}", url);
-                        }
-                        
-                        // Filter duplicates and save
-                        List<Vacancy> newVacancies = vacancies.stream()
-                                .filter(v -> !processedUrls.contains(v.getSourceUrl()))
-                                .collect(Collectors.toList());
-                        
-                        if (!newVacancies.isEmpty()) {
-                            vacancyRepository.saveAll(newVacancies);
-                            newVacancies.forEach(v -> processedUrls.add(v.getSourceUrl()));
-                            vacancyQueue.addAll(newVacancies);
-                            
-                            // Обновляем метрики
-                            metricsService.incrementVacanciesSaved(newVacancies.size());
-                            metricsService.incrementParsingSuccess();
-                            
-                            log.info("Saved {} new vacancies from {}", newVacancies.size(), url);
-                            loggingService.log(String.format("Saved %d new vacancies from %s", newVacancies.size(), url));
-                        } else {
-                            log.warn("No new vacancies found from {} (found {} total, but all duplicates)", url, vacancies.size());
-                            metricsService.incrementParsingSuccess(); // Успешный парсинг, но без новых вакансий
-                        }
-                        
-                    } catch (Exception e) {
-                        metricsService.incrementParsingError();
-                        log.error("Error parsing URL {}: {}", url, e.getMessage(), e);
-                    }
-                    
-                    return vacancies;
-                });
-                
-                futures.add(future);
+            for (SearchCrawlResult result : results) {
+                // Отменённый проход задачи не запускает: иначе задача могла бы успеть стартовать
+                // и остаться RUNNING после того, как future уже отменён
+                if (context.isCancelled()) {
+                    break;
+                }
+                futures.add(context.register(executorService.submit(() -> crawlSearch(result, maxPages, context))));
             }
             
-            // Wait for all tasks to complete
-            for (Future<List<Vacancy>> future : futures) {
+            // Один дедлайн на весь проход вместо отдельного таймаута на каждую задачу
+            for (Future<SearchCrawlResult> future : futures) {
                 try {
-                    future.get(30, TimeUnit.SECONDS);
-                } catch (Exception e) {
+                    future.get(context.remainingMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    log.warn("Crawl deadline exceeded, cancelling remaining tasks");
+                    context.cancel("Deadline exceeded");
+                } catch (CancellationException e) {
+                    // Задача отменена вместе с проходом
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    context.cancel("Interrupted");
+                } catch (ExecutionException e) {
                     log.error("Error waiting for parsing task: {}", e.getMessage());
                 }
             }
         });
+
+        // Задачи, отменённые до старта, так и остались в очереди пула
+        for (SearchCrawlResult result : results) {
+            if (result.getStatus() == SearchCrawlResult.Status.PENDING && context.isCancelled()) {
+                result.setStatus(SearchCrawlResult.Status.CANCELLED);
+                result.setError("Cancelled before start");
+            }
+        }
         
         // Обновляем общее количество вакансий в БД
         long totalCount = vacancyRepository.count();
@@ -118,6 +146,475 @@ public class VacancyService {
         log.info("Parsing completed");
     }
 
+    /**
+     * Проходит по страницам поисковой выдачи до первой страницы без новых вакансий
+     * или до страницы с отметкой прошлого прохода, сохраняя новые вакансии.
+     * Так стоимость повторного прохода зависит от числа новых публикаций, а не от размера выдачи.
+     * Страница, не изменившаяся с последней сохранённой версии (304 или свежий кэш), тоже завершает проход.
+     * Страница, которую не удалось загрузить, завершает проход ошибкой: отметка не двигается, а курсор
+     * остаётся на этой странице. Проход ограничен дедлайном {@code parser.crawl.deadline}.
+     * Если по поиску уже идёт проход (в этом узле или в другом), поиск пропускается со статусом SKIPPED.
+     * @param url URL поиска
+     * @param maxPages максимальное количество страниц
+     * @return итог прохода
+     */
+    public SearchCrawlResult crawlSearch(String url, int maxPages) {
+        return crawlSearch(new SearchCrawlResult(url, vacancyParser.detectSource(url)), maxPages,
+                CrawlContext.withTimeout(Duration.ofMillis(crawlDeadlineMillis)));
+    }
+
+    private SearchCrawlResult crawlSearch(SearchCrawlResult result, int maxPages, CrawlContext context) {
+        String url = result.getUrl();
+        String source = result.getSource();
+        long startedAt = System.currentTimeMillis();
+        result.setStartedAt(LocalDateTime.now());
+        result.setStatus(SearchCrawlResult.Status.RUNNING);
+        // Отметки, записанные до канонизации адресов, приводятся к тому же виду
+        String watermarkUrl = watermarkRepository.findById(url)
+                .map(SearchWatermark::getNewestUrl)
+                .map(UrlCanonicalizer.forSource(source)::canonicalize)
+                .orElse(null);
+        // Курсор незавершённого прохода: продолжаем с первой несохранённой страницы
+        CrawlCursor cursor = frontierService.open(url, maxPages).orElse(null);
+        if (cursor == null) {
+            // Выдачу уже проходят: второй проход повторил бы все те же запросы
+            log.info("Crawl of {} is already in progress, skipping", url);
+            result.setStatus(SearchCrawlResult.Status.SKIPPED);
+            result.setFinishedAt(LocalDateTime.now());
+            return result;
+        }
+        String newestUrl = cursor.getNewestUrl();
+        int firstPage = cursor.getNextPage();
+        
+        try {
+            for (int page = firstPage; page < maxPages; page++) {
+                context.checkActive();
+                List<Vacancy> vacancies;
+                try {
+                    vacancies = loadPage(source, url, page, cursor, context);
+                } catch (PageNotModifiedException e) {
+                    // Страница не изменилась с прошлой обработки — новых вакансий в выдаче нет
+                    metricsService.recordPageNotModified(source, e.getReason().name().toLowerCase(Locale.ROOT), e.getBytesSaved());
+                    log.info("Page {} of {} not modified, skipping the rest of the search", page, url);
+                    result.setPagesSkipped(maxPages - page);
+                    break;
+                }
+                result.setPagesFetched(result.getPagesFetched() + 1);
+                if (vacancies.isEmpty()) {
+                    break;
+                }
+                if (newestUrl == null) {
+                    newestUrl = newestUrl(vacancies);
+                }
+                result.setVacanciesFound(result.getVacanciesFound() + vacancies.size());
+                
+                // Filter duplicates and save
+                int watermarkIndex = -1;
+                List<Vacancy> newVacancies = new ArrayList<>();
+                Map<Vacancy, Integer> positions = new IdentityHashMap<>();
+                for (int i = 0; i < vacancies.size(); i++) {
+                    Vacancy vacancy = vacancies.get(i);
+                    VacancyKey key = key(vacancy);
+                    if (key == null) {
+                        continue;
+                    }
+                    if (vacancy.getSourceUrl().equals(watermarkUrl)) {
+                        watermarkIndex = i;
+                    } else if (processedKeys.add(key)) {
+                        // add() захватывает ключ: параллельный проход той же выдачи эту вакансию уже не сохранит
+                        newVacancies.add(vacancy);
+                        positions.put(vacancy, i);
+                    }
+                }
+                // Вакансии, которых нет в памяти этого узла (после перезапуска, с другого узла), проверяются по БД
+                newVacancies = dropExisting(newVacancies);
+                // Отметка значит «дальше только старые», лишь если после неё на странице нет новых вакансий:
+                // закреплённая карточка стоит наверху каждой выдачи, а свежие идут за ней
+                int watermarkAt = watermarkIndex;
+                boolean reachedWatermark = watermarkAt >= 0
+                        && newVacancies.stream().allMatch(v -> positions.get(v) < watermarkAt);
+                int savedPage = page;
+                String pageNewestUrl = newestUrl;
+                Runnable checkpoint = () -> frontierService.pageCompleted(cursor, savedPage, pageNewestUrl);
+                result.setVacanciesSaved(result.getVacanciesSaved() + saveNewVacancies(newVacancies, url, context, checkpoint));
+                // Эта версия страницы сохранена: при повторе без изменений её можно не разбирать
+                responseCache.markProcessed(vacancyParser.buildPageUrl(url, source, page));
+                
+                // Дальше по выдаче идут уже известные вакансии
+                if (newVacancies.isEmpty() || reachedWatermark) {
+                    result.setPagesSkipped(maxPages - page - 1);
+                    break;
+                }
+            }
+            
+            if (result.getVacanciesSaved() == 0) {
+                log.warn("No new vacancies found from {} (found {} total, but all duplicates)", url, result.getVacanciesFound());
+            }
+            metricsService.recordPagesSkipped(source, result.getPagesSkipped());
+            metricsService.incrementParsingSuccess();
+            if (newestUrl != null) {
+                watermarkRepository.save(new SearchWatermark(url, newestUrl, LocalDateTime.now(), result.getVacanciesSaved()));
+            }
+            // Сюда проход доходит, только дочитав выдачу: до пустой или неизменившейся страницы, отметки
+            // или maxPages. Ошибка загрузки (PageFetchFailedException) минует finish — курсор остаётся
+            // на неудачной странице, и следующий проход продолжит с неё
+            frontierService.finish(cursor);
+            result.setStatus(SearchCrawlResult.Status.COMPLETED);
+        } catch (CrawlCancelledException e) {
+            // Уже сохранённые страницы остаются, отметку не двигаем — следующий проход дочитает выдачу
+            result.setError(e.getMessage());
+            result.setStatus(SearchCrawlResult.Status.CANCELLED);
+            log.info("Crawl of {} stopped: {}", url, e.getMessage());
+        } catch (PageFetchFailedException e) {
+            // Конец выдачи не достигнут: отметку не двигаем, следующий проход начнёт с этой страницы
+            metricsService.incrementParsingError();
+            result.setError(e.getMessage());
+            result.setStatus(SearchCrawlResult.Status.FAILED);
+            log.warn("Crawl of {} stopped at {}: {}", url, e.getUrl(), e.getCause().getMessage());
+        } catch (Exception e) {
+            metricsService.incrementParsingError();
+            result.setError(e.getMessage());
+            result.setStatus(SearchCrawlResult.Status.FAILED);
+            log.error("Error parsing URL {}: {}", url, e.getMessage(), e);
+        } finally {
+            frontierService.release(url);
+        }
+        
+        result.setFinishedAt(LocalDateTime.now());
+        result.setDurationMs(System.currentTimeMillis() - startedAt);
+        log.info("Crawled {}: {} pages fetched, {} skipped, {} saved", url,
+                result.getPagesFetched(), result.getPagesSkipped(), result.getVacanciesSaved());
+        return result;
+    }
+
+    /**
+     * Берёт страницу из очереди прохода, если она была загружена до падения, иначе загружает
+     * и сразу записывает в очередь, чтобы после падения не загружать её повторно
+     */
+    private List<Vacancy> loadPage(String source, String url, int page, CrawlCursor cursor, CrawlContext context) throws Exception {
+        Optional<List<Vacancy>> stored = frontierService.fetchedPage(cursor, page);
+        if (stored.isPresent()) {
+            log.info("Page {} of {} restored from crawl frontier", page, url);
+            return stored.get();
+        }
+        List<Vacancy> vacancies = fetchPage(source, url, page, context);
+        frontierService.pageFetched(cursor, page, vacancies);
+        return vacancies;
+    }
+
+    /**
+     * Загружает страницу выдачи; если эту же страницу того же поиска уже загружает другой проход,
+     * дожидается его результата
+     */
+    private List<Vacancy> fetchPage(String source, String url, int page, CrawlContext context) throws Exception {
+        SingleFlight.Outcome<List<Vacancy>> outcome = pageFlights.execute(flightKey(url, page), context,
+                () -> parsePage(source, vacancyParser.buildPageUrl(url, source, page), context));
+        if (outcome.shared()) {
+            metricsService.incrementPagesCoalesced(source);
+        } else {
+            metricsService.incrementPagesFetched(source);
+        }
+        return outcome.value();
+    }
+
+    /**
+     * Ключ страницы: канонический URL поиска (хост в нижнем регистре, параметры по порядку, без page) и номер страницы
+     */
+    static String flightKey(String url, int page) {
+        String canonical;
+        try {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url.trim())
+                    .replaceQueryParam("page")
+                    .fragment(null);
+            UriComponents components = builder.build();
+            StringBuilder query = new StringBuilder();
+            new TreeMap<>(components.getQueryParams()).forEach((name, values) -> values.stream().sorted()
+                    .forEach(value -> query.append(query.length() == 0 ? "?" : "&").append(name).append('=').append(value)));
+            canonical = components.getScheme().toLowerCase(Locale.ROOT) + "://"
+                    + components.getHost().toLowerCase(Locale.ROOT)
+                    + (components.getPort() != -1 ? ":" + components.getPort() : "")
+                    + (components.getPath() != null ? components.getPath() : "")
+                    + query;
+        } catch (IllegalArgumentException e) {
+            canonical = url.trim();
+        }
+        return canonical + "#" + page;
+    }
+
+    private List<Vacancy> parsePage(String source, String pageUrl, CrawlContext context) throws Exception {
+        // Измеряем время парсинга для каждого источника
+        Timer sourceTimer = metricsService.getParsingTimerForSource(source);
+        
+        switch (source) {
+            case "hh":
+                return sourceTimer.recordCallable(() -> vacancyParser.parseHhRu(pageUrl, context));
+            case "superjob":
+                return sourceTimer.recordCallable(() -> vacancyParser.parseSuperJob(pageUrl, context));
+            case "habr":
+                return sourceTimer.recordCallable(() -> vacancyParser.parseHabrCareer(pageUrl, context));
+            default:
+                log.warn("Unknown source for URL: {}", pageUrl);
+                return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Сохраняет вакансии, извлечённые вне прохода по выдаче (повторный разбор архива страниц)
+     * @param vacancies извлечённые вакансии
+     * @param origin откуда вакансии, для журнала
+     * @return количество сохранённых новых вакансий
+     */
+    public int saveExtracted(List<Vacancy> vacancies, String origin) {
+        List<Vacancy> newVacancies = new ArrayList<>();
+        for (Vacancy vacancy : vacancies) {
+            VacancyKey key = key(vacancy);
+            if (key != null && processedKeys.add(key)) {
+                newVacancies.add(vacancy);
+            }
+        }
+        return saveNewVacancies(dropExisting(newVacancies), origin, CrawlContext.unbounded(), null);
+    }
+
+    /**
+     * Обновляет уже сохранённые вакансии полями карточки, извлечёнными заново (повторный разбор архива
+     * после правки селекторов). Дата публикации и подробности дозагрузки не меняются: в выдаче дата
+     * часто не указана, и разбор подставляет текущее время.
+     * @param vacancies извлечённые вакансии
+     * @return количество изменённых строк
+     */
+    @Transactional
+    public int refreshExtracted(List<Vacancy> vacancies) {
+        Map<VacancyKey, Vacancy> extracted = new LinkedHashMap<>();
+        for (Vacancy vacancy : vacancies) {
+            VacancyKey key = key(vacancy);
+            if (key != null) {
+                extracted.putIfAbsent(key, vacancy);
+            }
+        }
+        Map<String, List<Long>> idsBySource = new LinkedHashMap<>();
+        extracted.keySet().forEach(key -> idsBySource.computeIfAbsent(key.source(), s -> new ArrayList<>()).add(key.externalId()));
+        List<Vacancy> changed = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : idsBySource.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += dedupInLimit) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + dedupInLimit));
+                for (Vacancy existing : vacancyRepository.findBySourceAndExternalIdIn(entry.getKey(), chunk)) {
+                    Vacancy fresh = extracted.get(VacancyKey.of(existing));
+                    if (fresh != null && copyCard(fresh, existing)) {
+                        changed.add(existing);
+                    }
+                }
+            }
+        }
+        vacancyRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    /**
+     * Переносит поля карточки выдачи
+     * @return true, если что-то изменилось
+     */
+    private static boolean copyCard(Vacancy from, Vacancy to) {
+        if (Objects.equals(from.getTitle(), to.getTitle())
+                && Objects.equals(from.getCompany(), to.getCompany())
+                && Objects.equals(from.getSalary(), to.getSalary())
+                && Objects.equals(from.getRequirements(), to.getRequirements())
+                && Objects.equals(from.getCity(), to.getCity())) {
+            return false;
+        }
+        to.setTitle(from.getTitle());
+        to.setCompany(from.getCompany());
+        to.setSalary(from.getSalary());
+        to.setRequirements(from.getRequirements());
+        to.setCity(from.getCity());
+        return true;
+    }
+
+    /**
+     * Страница новых вакансий для записи
+     * @param checkpoint действие в той же транзакции (сдвиг курсора прохода) или null
+     */
+    private record PageSave(List<Vacancy> vacancies, String url, Runnable checkpoint) {
+    }
+
+    /**
+     * Сохраняет новые вакансии страницы на этапе записи конвейера и ждёт результата
+     * @param checkpoint действие в той же транзакции (сдвиг курсора прохода) или null
+     */
+    private int saveNewVacancies(List<Vacancy> newVacancies, String url, CrawlContext context, Runnable checkpoint) {
+        if (newVacancies.isEmpty()) {
+            return 0;
+        }
+        try {
+            return persistStage.call(new PageSave(newVacancies, url, checkpoint), context);
+        } catch (CrawlCancelledException e) {
+            // В очередь не попали — вакансии никто не сохранит
+            newVacancies.forEach(v -> processedKeys.remove(VacancyKey.of(v)));
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to save vacancies from " + url, e);
+        }
+    }
+
+    /**
+     * Записывает пачку страниц одной транзакцией. Если транзакция не прошла, страницы записываются
+     * по одной, чтобы ошибка одной страницы (например, перехваченный курсор) не откатывала остальные.
+     */
+    private void persistBatch(List<BatchingStage.Item<PageSave, Integer>> batch) {
+        List<BatchingStage.Item<PageSave, Integer>> active = new ArrayList<>();
+        for (BatchingStage.Item<PageSave, Integer> item : batch) {
+            try {
+                item.context().checkActive();
+                active.add(item);
+            } catch (CrawlCancelledException e) {
+                failPage(item, e);
+            }
+        }
+        if (active.isEmpty()) {
+            return;
+        }
+        try {
+            persistPages(active);
+        } catch (RuntimeException e) {
+            if (active.size() == 1) {
+                failPage(active.get(0), e);
+                return;
+            }
+            log.warn("Batch of {} pages failed, saving pages one by one: {}", active.size(), e.getMessage());
+            List<BatchingStage.Item<PageSave, Integer>> saved = new ArrayList<>();
+            for (BatchingStage.Item<PageSave, Integer> item : active) {
+                try {
+                    persistPages(List.of(item));
+                    saved.add(item);
+                } catch (RuntimeException pageError) {
+                    failPage(item, pageError);
+                }
+            }
+            active = saved;
+        }
+        active.forEach(this::pageSaved);
+    }
+
+    private void persistPages(List<BatchingStage.Item<PageSave, Integer>> items) {
+        // Остаток самого короткого дедлайна становится таймаутом транзакции: зависшая запись в БД не переживёт проход
+        long remaining = items.stream().mapToLong(item -> item.context().remainingMillis()).min().orElse(Long.MAX_VALUE);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        if (remaining != Long.MAX_VALUE) {
+            transaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remaining + 999)));
+        }
+        transaction.executeWithoutResult(status -> {
+            for (BatchingStage.Item<PageSave, Integer> item : items) {
+                enrichmentService.reserve(item.value().vacancies());
+                vacancyRepository.saveAll(item.value().vacancies());
+                if (item.value().checkpoint() != null) {
+                    item.value().checkpoint().run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Действия после фиксации транзакции. Вакансии уже в БД, поэтому их ошибка не повторяет запись.
+     */
+    private void pageSaved(BatchingStage.Item<PageSave, Integer> item) {
+        List<Vacancy> newVacancies = item.value().vacancies();
+        try {
+            vacancyQueue.addAll(newVacancies);
+            facetService.record(newVacancies);
+            // Подробности со страниц вакансий — в фоне, запись страницы их не ждёт
+            enrichmentService.enqueue(newVacancies);
+            
+            // Обновляем метрики
+            metricsService.incrementVacanciesSaved(newVacancies.size());
+            
+            log.info("Saved {} new vacancies from {}", newVacancies.size(), item.value().url());
+            loggingService.log(String.format("Saved %d new vacancies from %s", newVacancies.size(), item.value().url()));
+            item.complete(newVacancies.size());
+        } catch (RuntimeException e) {
+            item.fail(e);
+        }
+    }
+
+    /**
+     * Отметка прохода — первая на странице карточка, не закреплённая рекламой: закреплённая
+     * стоит наверху выдачи при каждом проходе и ничего не говорит о том, что дальше
+     * @return адрес карточки или null, если на странице только рекламные
+     */
+    private static String newestUrl(List<Vacancy> vacancies) {
+        return vacancies.stream()
+                .filter(v -> !v.isPromoted() && v.getSourceUrl() != null)
+                .map(Vacancy::getSourceUrl)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Отбрасывает вакансии, которые уже есть в БД: ключи страницы проверяются одним запросом
+     * {@code WHERE source = ? AND externalId IN (...)} на источник (больше {@code parser.dedup.in.limit}
+     * ключей — несколькими). Ключи сохранённых вакансий остаются в {@code processedKeys}, и в следующий раз
+     * они отсеются без запроса. Если проверка не удалась, ключи освобождаются.
+     * @param candidates вакансии, ключи которых захвачены в {@code processedKeys}
+     * @return вакансии, которых в БД нет
+     */
+    private List<Vacancy> dropExisting(List<Vacancy> candidates) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Map<String, List<Vacancy>> bySource = new LinkedHashMap<>();
+        for (Vacancy vacancy : candidates) {
+            bySource.computeIfAbsent(vacancy.getSource(), s -> new ArrayList<>()).add(vacancy);
+        }
+        Set<VacancyKey> existing = new HashSet<>();
+        try {
+            for (Map.Entry<String, List<Vacancy>> entry : bySource.entrySet()) {
+                String source = entry.getKey();
+                List<Long> ids = entry.getValue().stream().map(Vacancy::getExternalId).toList();
+                int found = 0;
+                for (int from = 0; from < ids.size(); from += dedupInLimit) {
+                    List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + dedupInLimit));
+                    for (Long id : vacancyRepository.findExistingExternalIds(source, chunk)) {
+                        existing.add(new VacancyKey(source, id));
+                        found++;
+                    }
+                }
+                metricsService.recordDedupCheck(source == null ? "unknown" : source, ids.size(), found);
+            }
+        } catch (RuntimeException e) {
+            candidates.forEach(v -> processedKeys.remove(VacancyKey.of(v)));
+            throw e;
+        }
+        if (existing.isEmpty()) {
+            return candidates;
+        }
+        List<Vacancy> fresh = new ArrayList<>(candidates.size() - existing.size());
+        for (Vacancy vacancy : candidates) {
+            if (!existing.contains(VacancyKey.of(vacancy))) {
+                fresh.add(vacancy);
+            }
+        }
+        log.debug("{} of {} vacancies already saved", candidates.size() - fresh.size(), candidates.size());
+        return fresh;
+    }
+
+    /**
+     * Ключ вакансии. Вакансии из очереди прохода, записанные до появления ключей, получают его здесь.
+     * @return ключ или null, если у вакансии нет адреса
+     */
+    private static VacancyKey key(Vacancy vacancy) {
+        if (vacancy.getExternalId() == null) {
+            UrlCanonicalizer.identify(vacancy);
+        }
+        return vacancy.getExternalId() != null ? VacancyKey.of(vacancy) : null;
+    }
+
+    private void failPage(BatchingStage.Item<PageSave, Integer> item, RuntimeException error) {
+        // Не сохранили — освобождаем захваченные ключи, чтобы вакансии сохранил следующий проход
+        item.value().vacancies().forEach(v -> processedKeys.remove(VacancyKey.of(v)));
+        item.fail(error);
+    }
+
     @Transactional(readOnly = true)
     public List<Vacancy> getAllVacancies() {
         return vacancyRepository.findAll();
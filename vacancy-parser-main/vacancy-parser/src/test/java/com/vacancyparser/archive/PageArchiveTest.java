@@ -0,0 +1,111 @@
+package com.vacancyparser.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] page(int cards, String marker) {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < cards; i++) {
+            html.append("<div data-qa=\"vacancy-serp__vacancy\"><a data-qa=\"vacancy-serp__vacancy-title\" href=\"/vacancy/")
+                    .append(marker).append(i).append("\">Java Developer ").append(i).append("</a></div>");
+        }
+        return html.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private PageArchive open(long segmentSize) throws Exception {
+        return open(segmentSize, 0);
+    }
+
+    private PageArchive open(long segmentSize, long maxSize) throws Exception {
+        PageArchive archive = new PageArchive(true, dir.toString(), segmentSize, maxSize, 6);
+        archive.open();
+        return archive;
+    }
+
+    @Test
+    void testAppendDeduplicatesAndReadsBack() throws Exception {
+        PageArchive archive = open(1 << 20);
+        byte[] first = page(50, "a");
+
+        assertTrue(archive.append("https://hh.ru/search/vacancy?text=java", "text/html; charset=utf-8", first));
+        assertFalse(archive.append("https://hh.ru/search/vacancy?text=java&page=0", "text/html", first));
+        assertTrue(archive.append("https://hh.ru/search/vacancy?text=java&page=1", "text/html", page(50, "b")));
+
+        List<PageArchive.Location> entries = archive.entries();
+        assertEquals(2, entries.size());
+        ArchivedPage read = archive.read(entries.get(0));
+        assertArrayEquals(first, read.body());
+        assertEquals("https://hh.ru/search/vacancy?text=java", read.url());
+        assertEquals("text/html; charset=utf-8", read.contentType());
+
+        PageArchive.Stats stats = archive.getStats();
+        assertTrue(stats.storedBytes() < stats.rawBytes() / 4, "pages should compress well: " + stats);
+        archive.close();
+    }
+
+    @Test
+    void testIndexIsRebuiltAndTornTailDropped() throws Exception {
+        PageArchive archive = open(256);
+        for (int i = 0; i < 5; i++) {
+            archive.append("https://career.habr.com/vacancies?page=" + i, "text/html", page(20, "p" + i));
+        }
+        archive.close();
+        assertTrue(archive.getStats().segments() > 1);
+
+        // Запись, оборванная падением процесса
+        Path last = Files.list(dir).filter(p -> p.getFileName().toString().startsWith("segment-"))
+                .sorted().reduce((a, b) -> b).orElseThrow();
+        long size = Files.size(last);
+        Files.write(last, new byte[]{0x56, 0x50, 0x41, 0x31, 0, 0, 1}, StandardOpenOption.APPEND);
+
+        PageArchive reopened = open(256);
+        assertEquals(5, reopened.entries().size());
+        assertEquals(size, Files.size(last));
+        for (PageArchive.Location location : reopened.entries()) {
+            assertTrue(new String(reopened.read(location).body(), StandardCharsets.UTF_8).contains("Java Developer 19"));
+        }
+        assertTrue(reopened.append("https://career.habr.com/vacancies?page=5", "text/html", page(20, "p5")));
+        reopened.close();
+    }
+
+    @Test
+    void testOldestSegmentsAreDroppedOverMaxSize() throws Exception {
+        PageArchive archive = open(256, 1024);
+        for (int i = 0; i < 20; i++) {
+            archive.append("https://career.habr.com/vacancies?page=" + i, "text/html", page(20, "p" + i));
+        }
+
+        PageArchive.Stats stats = archive.getStats();
+        assertTrue(stats.storedBytes() <= 1024 + 256, "archive should stay near max size: " + stats);
+        long onDisk = 0;
+        for (Path file : Files.list(dir).filter(p -> p.getFileName().toString().startsWith("segment-")).toList()) {
+            onDisk += Files.size(file);
+        }
+        assertEquals(stats.storedBytes(), onDisk);
+        List<PageArchive.Location> entries = archive.entries();
+        assertTrue(entries.size() < 20);
+        // Остались самые новые страницы, и они читаются
+        assertEquals("https://career.habr.com/vacancies?page=19", entries.get(entries.size() - 1).url());
+        assertTrue(new String(archive.read(entries.get(0)).body(), StandardCharsets.UTF_8).contains("Java Developer 19"));
+        archive.close();
+
+        PageArchive reopened = open(256, 1024);
+        List<PageArchive.Location> reopenedEntries = reopened.entries();
+        assertTrue(reopened.getStats().storedBytes() <= 1024);
+        assertEquals("https://career.habr.com/vacancies?page=19", reopenedEntries.get(reopenedEntries.size() - 1).url());
+        reopened.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.vacancyparser.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VacancyKeyMigrationTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testMigratesTableKeyedBySourceUrl() {
+        // Схема до перехода на (source, externalId)
+        jdbcTemplate.execute("CREATE TABLE vacancies (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "title VARCHAR(255) NOT NULL, source VARCHAR(255) NOT NULL, source_url VARCHAR(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_source ON vacancies (source)");
+        jdbcTemplate.execute("ALTER TABLE vacancies ADD CONSTRAINT idx_source_url UNIQUE (source_url)");
+        insert("Java", "hh", "https://hh.ru/vacancy/123?query=java&hhtmFrom=vacancy_search_list");
+        insert("Java (дубль)", "hh", "https://spb.hh.ru/vacancy/123");
+        insert("Go", "habr", "https://career.habr.com/vacancies/777#apply");
+
+        new VacancyKeyMigration(dataSource).migrate();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT title, source_url, external_id FROM vacancies ORDER BY id");
+        assertEquals(2, rows.size());
+        assertEquals("Java", rows.get(0).get("TITLE"));
+        assertEquals("https://hh.ru/vacancy/123", rows.get(0).get("SOURCE_URL"));
+        assertEquals(123L, rows.get(0).get("EXTERNAL_ID"));
+        assertEquals("https://career.habr.com/vacancies/777", rows.get(1).get("SOURCE_URL"));
+        assertEquals(777L, rows.get(1).get("EXTERNAL_ID"));
+
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'VACANCIES' AND COLUMN_NAME = 'EXTERNAL_ID'", String.class));
+        assertEquals(List.of("PRIMARY KEY"), jdbcTemplate.queryForList("SELECT INDEX_TYPE_NAME "
+                + "FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'VACANCIES'", String.class));
+        // Старый уникальный индекс больше не мешает вставить тот же адрес под другим источником
+        jdbcTemplate.update("INSERT INTO vacancies (title, source, source_url, external_id) VALUES (?, ?, ?, ?)",
+                "Java", "superjob", "https://hh.ru/vacancy/123", 123L);
+    }
+
+    @Test
+    void testSkipsFreshDatabase() {
+        new VacancyKeyMigration(dataSource).migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'VACANCIES'", Integer.class));
+    }
+
+    private void insert(String title, String source, String sourceUrl) {
+        jdbcTemplate.update("INSERT INTO vacancies (title, source, source_url) VALUES (?, ?, ?)", title, source, sourceUrl);
+    }
+}
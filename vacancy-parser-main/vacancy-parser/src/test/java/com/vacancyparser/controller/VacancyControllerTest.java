@@ -1,7 +1,14 @@
 package com.vacancyparser.controller;
 
+import com.vacancyparser.dto.CrawlJobDto;
+import com.vacancyparser.dto.FacetsDto;
+import com.vacancyparser.dto.ParseRequest;
+import com.vacancyparser.dto.SearchCrawlResult;
 import com.vacancyparser.dto.VacancyDto;
+import com.vacancyparser.job.CrawlJob;
+import com.vacancyparser.job.CrawlJobManager;
 import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.service.FacetService;
 import com.vacancyparser.service.VacancyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,12 +17,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +38,12 @@ class VacancyControllerTest {
     @Mock
     private VacancyService vacancyService;
 
+    @Mock
+    private FacetService facetService;
+
+    @Mock
+    private CrawlJobManager crawlJobManager;
+
     @InjectMocks
     private VacancyController vacancyController;
 
@@ -72,4 +92,59 @@ class VacancyControllerTest {
         assertEquals(1, response.getBody().size());
         verify(vacancyService, times(1)).getVacanciesBySource("hh");
     }
+
+    @Test
+    void testGetFacetsSupportsConditionalGet() {
+        when(facetService.getVersion()).thenReturn(7L);
+        when(facetService.getFacets("ya", 10)).thenReturn(new FacetsDto(
+                7L, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()));
+
+        ResponseEntity<FacetsDto> response = vacancyController.getFacets("ya", 10,
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"facets-7\"", response.getHeaders().getETag());
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/vacancies/facets");
+        conditional.addHeader("If-None-Match", "\"facets-7\"");
+        ResponseEntity<FacetsDto> notModified = vacancyController.getFacets("ya", 10,
+                new ServletWebRequest(conditional, new MockHttpServletResponse()));
+
+        assertEquals(304, notModified.getStatusCode().value());
+        verify(facetService, times(1)).getFacets("ya", 10);
+    }
+
+    @Test
+    void testGetFacetsRejectsNegativeLimit() {
+        ResponseEntity<FacetsDto> response = vacancyController.getFacets(null, -1,
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        assertEquals(400, response.getStatusCode().value());
+        verify(facetService, never()).getFacets(any(), anyInt());
+    }
+
+    @Test
+    void testParseReturnsAcceptedWithJobId() {
+        List<String> urls = Arrays.asList("https://hh.ru/search/vacancy?text=java");
+        CrawlJob job = new CrawlJob("job-1", 5,
+                Arrays.asList(new SearchCrawlResult(urls.get(0), "hh")));
+        when(crawlJobManager.submit(urls, 5, null)).thenReturn(job);
+
+        ResponseEntity<CrawlJobDto> response = vacancyController.parseVacancies(new ParseRequest(urls, 5, null));
+
+        assertEquals(202, response.getStatusCode().value());
+        assertEquals("/api/jobs/job-1", response.getHeaders().getLocation().toString());
+        assertEquals("QUEUED", response.getBody().getState());
+        verifyNoInteractions(vacancyService);
+    }
+
+    @Test
+    void testParseRejectedWhenJobQueueIsFull() {
+        when(crawlJobManager.submit(any(), anyInt(), any())).thenThrow(new RejectedExecutionException());
+
+        ResponseEntity<CrawlJobDto> response = vacancyController.parseVacancies(
+                new ParseRequest(Arrays.asList("https://hh.ru/search/vacancy?text=java"), null, null));
+
+        assertEquals(429, response.getStatusCode().value());
+    }
 }
@@ -0,0 +1,30 @@
+package com.vacancyparser.fetch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakerHealthIndicatorTest {
+
+    @Test
+    void testOpenBreakersAreReportedWithoutTakingApplicationDown() {
+        ResilientFetcher resilientFetcher = mock(ResilientFetcher.class);
+        when(resilientFetcher.getBreakerStatuses()).thenReturn(Map.of(
+                "hh", new ResilientFetcher.BreakerStatus("OPEN", 5, 20000),
+                "hh-detail", new ResilientFetcher.BreakerStatus("OPEN", 5, 10000)));
+
+        Health health = new CircuitBreakerHealthIndicator(resilientFetcher).health();
+
+        // Недоступны внешние сайты, а не приложение
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(List.of("hh", "hh-detail"), ((List<?>) health.getDetails().get("open")).stream().sorted().toList());
+        assertNotNull(health.getDetails().get("hh"));
+    }
+}
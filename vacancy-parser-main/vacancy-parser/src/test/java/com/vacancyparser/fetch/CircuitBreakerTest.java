@@ -0,0 +1,48 @@
+package com.vacancyparser.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1000, clock::get);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1000, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    void testHalfOpenAllowsSingleProbe() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+}
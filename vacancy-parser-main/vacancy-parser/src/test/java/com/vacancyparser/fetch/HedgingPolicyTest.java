@@ -0,0 +1,55 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.service.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HedgingPolicyTest {
+
+    private static final String HOST = "hh.ru";
+
+    private final HostLatencyTracker latencyTracker = new HostLatencyTracker(mock(MetricsService.class), 30000, 1000, 3, 20);
+
+    @Test
+    void testDelayIsHostP95AfterEnoughSamples() {
+        HedgingPolicy policy = new HedgingPolicy(mock(MetricsService.class), latencyTracker, true, 1.0, 10);
+        for (int i = 0; i < 19; i++) {
+            latencyTracker.record(HOST, HostLatencyTracker.Phase.TTFB, 100);
+        }
+        assertEquals(-1, policy.hedgeDelayMillis(HOST));
+
+        latencyTracker.record(HOST, HostLatencyTracker.Phase.TTFB, 100);
+        assertEquals(latencyTracker.percentile(HOST, HostLatencyTracker.Phase.TTFB, 0.95), policy.hedgeDelayMillis(HOST));
+        assertTrue(policy.hedgeDelayMillis(HOST) >= 100);
+        assertEquals(-1, policy.hedgeDelayMillis("superjob.ru"));
+    }
+
+    @Test
+    void testBudgetCapsHedgedFraction() {
+        HedgingPolicy policy = new HedgingPolicy(mock(MetricsService.class), latencyTracker, true, 0.125, 10);
+        for (int i = 0; i < 20; i++) {
+            latencyTracker.record(HOST, HostLatencyTracker.Phase.TTFB, 100);
+        }
+
+        int hedged = 0;
+        for (int i = 0; i < 100; i++) {
+            if (policy.hedgeDelayMillis(HOST) > 0 && policy.tryHedge(HOST)) {
+                hedged++;
+            }
+        }
+
+        assertEquals(12, hedged);
+    }
+
+    @Test
+    void testDisabledPolicyNeverHedges() {
+        HedgingPolicy policy = new HedgingPolicy(mock(MetricsService.class), latencyTracker, false, 1.0, 10);
+        for (int i = 0; i < 20; i++) {
+            latencyTracker.record(HOST, HostLatencyTracker.Phase.TTFB, 100);
+        }
+
+        assertEquals(-1, policy.hedgeDelayMillis(HOST));
+    }
+}
@@ -0,0 +1,53 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.service.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HostLatencyTrackerTest {
+
+    private final HostLatencyTracker tracker = new HostLatencyTracker(mock(MetricsService.class), 30000, 1000, 3, 10);
+
+    @Test
+    void testTimeoutFollowsHostP99() {
+        assertEquals(30000, tracker.timeoutMillis("hh.ru", HostLatencyTracker.Phase.TTFB));
+
+        for (int i = 0; i < 100; i++) {
+            tracker.record("hh.ru", HostLatencyTracker.Phase.TTFB, 300);
+            tracker.record("www.superjob.ru", HostLatencyTracker.Phase.TTFB, 3000);
+        }
+
+        long hh = tracker.timeoutMillis("hh.ru", HostLatencyTracker.Phase.TTFB);
+        long superJob = tracker.timeoutMillis("www.superjob.ru", HostLatencyTracker.Phase.TTFB);
+        // p99 округляется вверх до границы корзины (шаг 25%)
+        assertTrue(hh >= 900 && hh <= 900 * 1.25, "hh timeout " + hh);
+        assertTrue(superJob >= 9000 && superJob <= 9000 * 1.25, "superjob timeout " + superJob);
+        assertEquals(30000, tracker.timeoutMillis("hh.ru", HostLatencyTracker.Phase.TOTAL));
+    }
+
+    @Test
+    void testTimeoutIsClamped() {
+        for (int i = 0; i < 100; i++) {
+            tracker.record("fast", HostLatencyTracker.Phase.TOTAL, 5);
+            tracker.record("slow", HostLatencyTracker.Phase.TOTAL, 60000);
+        }
+
+        assertEquals(1000, tracker.timeoutMillis("fast", HostLatencyTracker.Phase.TOTAL));
+        assertEquals(30000, tracker.timeoutMillis("slow", HostLatencyTracker.Phase.TOTAL));
+    }
+
+    @Test
+    void testRecentSamplesOutweighOldOnes() {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 500; i++) {
+            histogram.record(2000);
+        }
+
+        assertTrue(histogram.percentile(0.5) >= 2000);
+    }
+}
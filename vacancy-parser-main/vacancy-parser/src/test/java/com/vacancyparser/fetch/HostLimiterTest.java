@@ -0,0 +1,119 @@
+package com.vacancyparser.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private HostLimiter limiter(double rate, double burst, double initialLimit) {
+        return new HostLimiter(rate, burst, initialLimit, 1, 8, 0.5, 1000, clock::get);
+    }
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void testTokenBucketPacesRequests() {
+        HostLimiter limiter = limiter(2, 2, 8);
+
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+        long wait = limiter.tryAcquire();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait, TimeUnit.MILLISECONDS.toNanos(1));
+
+        advanceMillis(500);
+        assertEquals(0, limiter.tryAcquire());
+    }
+
+    @Test
+    void testThrottlingHalvesLimitAndHonoursRetryAfter() {
+        HostLimiter limiter = limiter(100, 100, 4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limiter.tryAcquire());
+        }
+        assertEquals(Long.MAX_VALUE, limiter.tryAcquire());
+
+        limiter.onThrottled(2000);
+        // Ответы той же волны перегрузки снижают предел только один раз
+        limiter.onThrottled(0);
+        assertEquals(2, limiter.getLimit(), 1e-9);
+        limiter.onCancelled();
+        limiter.onCancelled();
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2000), limiter.tryAcquire());
+        advanceMillis(2000);
+        assertEquals(0, limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimitGrowsOnFastResponsesAndDropsOnSlowOnes() {
+        HostLimiter limiter = limiter(1000, 1000, 2);
+        for (int round = 0; round < 20; round++) {
+            // Все слоты заняты: быстрые ответы поднимают предел
+            int slots = (int) limiter.getLimit();
+            for (int i = 0; i < slots; i++) {
+                assertEquals(0, limiter.tryAcquire());
+            }
+            for (int i = 0; i < slots; i++) {
+                limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+        double grown = limiter.getLimit();
+        assertTrue(grown > 5, "limit should probe upward, was " + grown);
+
+        assertEquals(0, limiter.tryAcquire());
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertEquals(grown / 2, limiter.getLimit(), 1e-9);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhileSlotsAreIdle() {
+        HostLimiter limiter = limiter(1000, 1000, 4);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire());
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        // Один запрос при пределе 4 не проверяет, выдержит ли хост больше
+        assertEquals(4, limiter.getLimit(), 1e-9);
+    }
+
+    @Test
+    void testHedgeTakesTokenWithoutSlot() {
+        HostLimiter limiter = limiter(2, 2, 1);
+
+        assertEquals(0, limiter.tryAcquire());
+        assertTrue(limiter.tryTakeToken());
+        // Оба токена потрачены: дубль не обходит темп запросов к хосту
+        assertFalse(limiter.tryTakeToken());
+        assertEquals(1, limiter.getInFlight());
+
+        advanceMillis(500);
+        assertTrue(limiter.tryTakeToken());
+    }
+
+    @Test
+    void testBackgroundRequestsLeaveSlotAndTokenForDiscovery() {
+        HostLimiter limiter = limiter(2, 2, 2);
+
+        assertEquals(0, limiter.tryAcquire(true));
+        // Второй слот и последний токен остаются запросам выдачи
+        assertEquals(Long.MAX_VALUE, limiter.tryAcquire(true));
+        assertEquals(0, limiter.tryAcquire());
+
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        advanceMillis(500);
+        // Токенов меньше двух: фоновый запрос ждёт, запрос выдачи — нет
+        assertTrue(limiter.tryAcquire(true) > 0);
+        assertEquals(0, limiter.tryAcquire());
+    }
+}
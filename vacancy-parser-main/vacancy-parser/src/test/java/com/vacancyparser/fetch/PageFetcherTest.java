@@ -0,0 +1,205 @@
+package com.vacancyparser.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vacancyparser.archive.PageArchive;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PageFetcherTest {
+
+    private static final String PAGE = "<html><head><title>serp</title></head><body>"
+            + "<div data-qa=\"vacancy-serp__vacancy\"><a href=\"/vacancy/1\">Разработчик Java</a></div>"
+            + "</body></html>";
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private ResponseCache responseCache;
+    private PageArchive pageArchive;
+    private HostLatencyTracker latencyTracker;
+    private PageFetcher pageFetcher;
+    private final AtomicInteger slowRequests = new AtomicInteger();
+    private final AtomicInteger throttledRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        server.createContext("/big", exchange -> {
+            byte[] body = "x".repeat(4096).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            // Первый запрос зависает, дубль отвечает сразу
+            if (slowRequests.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/throttled", exchange -> {
+            // Первый запрос отвечает медленно, но успешно; дубль сразу получает 503
+            if (throttledRequests.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/hang", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        responseCache = new ResponseCache(true, dir.resolve("cache").toString(), 1 << 20, 0, true, 1000);
+        pageArchive = new PageArchive(true, dir.resolve("archive").toString(), 1 << 20, 0, 6);
+        pageArchive.open();
+        HostRateLimiter rateLimiter = new HostRateLimiter(mock(MetricsService.class), 100, 100, 4, 1, 8, 0.5, 5000);
+        latencyTracker = new HostLatencyTracker(mock(MetricsService.class), 5000, 1000, 3, 1);
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(mock(MetricsService.class), latencyTracker, true, 1.0, 50);
+        pageFetcher = new PageFetcher(rateLimiter, hedgingPolicy, latencyTracker, responseCache, pageArchive, 5000, 1024, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        pageArchive.close();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    void testGzipBodyIsParsedFromStreamAndCaptured() throws Exception {
+        Document doc = pageFetcher.fetch(url("/gzip"), "http://127.0.0.1", CrawlContext.unbounded());
+
+        assertEquals("Разработчик Java", doc.selectFirst("div[data-qa=vacancy-serp__vacancy] a").text());
+        assertEquals(url("/vacancy/1"), doc.selectFirst("a").attr("abs:href"));
+        byte[] expected = PAGE.getBytes(StandardCharsets.UTF_8);
+        assertEquals("\"v1\"", responseCache.get(url("/gzip")).orElseThrow().etag());
+        assertArrayEquals(expected, responseCache.body(url("/gzip")).orElseThrow());
+        assertArrayEquals(expected, pageArchive.read(pageArchive.entries().get(0)).body());
+    }
+
+    @Test
+    void testSlowRequestIsHedged() throws Exception {
+        latencyTracker.record("127.0.0.1", HostLatencyTracker.Phase.TTFB, 50);
+
+        long startedAt = System.nanoTime();
+        Document doc = pageFetcher.fetch(url("/slow"), "http://127.0.0.1", CrawlContext.unbounded());
+
+        assertEquals("Разработчик Java", doc.selectFirst("a").text());
+        assertEquals(2, slowRequests.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 2000);
+    }
+
+    @Test
+    void testFastErrorOfHedgeDoesNotBeatSlowSuccess() throws Exception {
+        latencyTracker.record("127.0.0.1", HostLatencyTracker.Phase.TTFB, 50);
+
+        Document doc = pageFetcher.fetch(url("/throttled"), "http://127.0.0.1", CrawlContext.unbounded());
+
+        assertEquals("Разработчик Java", doc.selectFirst("a").text());
+        assertEquals(2, throttledRequests.get());
+    }
+
+    @Test
+    void testRepeatedTimeoutsDoNotRaiseTimeout() {
+        latencyTracker.record("127.0.0.1", HostLatencyTracker.Phase.TTFB, 50);
+        assertEquals(1000, latencyTracker.timeoutMillis("127.0.0.1", HostLatencyTracker.Phase.TTFB));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpTimeoutException.class,
+                    () -> pageFetcher.fetch(url("/hang"), "http://127.0.0.1", CrawlContext.unbounded()));
+        }
+
+        // Зависшие запросы не попадают в p99, таймаут остаётся прежним
+        assertEquals(1000, latencyTracker.timeoutMillis("127.0.0.1", HostLatencyTracker.Phase.TTFB));
+    }
+
+    @Test
+    void testIdenticalBodyOfProcessedPageIsNotParsedAgain() throws Exception {
+        String url = url("/gzip");
+        try (FetchedPage page = pageFetcher.fetchBody(url, "http://127.0.0.1", CrawlContext.unbounded())) {
+            assertTrue(page.isDownloaded());
+        }
+        // Вакансии страницы не сохранены — та же версия разбирается снова
+        try (FetchedPage page = pageFetcher.fetchBody(url, "http://127.0.0.1", CrawlContext.unbounded())) {
+            assertEquals(PAGE.getBytes(StandardCharsets.UTF_8).length, page.getLength());
+        }
+        responseCache.markProcessed(url);
+
+        PageNotModifiedException e = assertThrows(PageNotModifiedException.class,
+                () -> pageFetcher.fetchBody(url, "http://127.0.0.1", CrawlContext.unbounded()));
+
+        assertEquals(PageNotModifiedException.Reason.IDENTICAL, e.getReason());
+        assertEquals(PAGE.getBytes(StandardCharsets.UTF_8).length, e.getBytesSaved());
+        assertTrue(responseCache.get(url).orElseThrow().processed());
+    }
+
+    @Test
+    void testBodyLargerThanLimitIsRejected() {
+        assertThrows(BodyBufferPool.BodyTooLargeException.class,
+                () -> pageFetcher.fetch(url("/big"), "http://127.0.0.1", CrawlContext.unbounded()));
+        assertTrue(responseCache.get(url("/big")).isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientFetcherTest {
+
+    private static final String URL = "https://hh.ru/search/vacancy?text=java";
+
+    @Mock
+    private PageFetcher pageFetcher;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ResilientFetcher resilientFetcher;
+
+    @BeforeEach
+    void setUp() {
+        resilientFetcher = new ResilientFetcher(pageFetcher, metricsService, 3, 1, 5, 4, 60000);
+    }
+
+    @Test
+    void testTransientErrorsAreRetried() throws Exception {
+        Document doc = new Document(URL);
+        when(pageFetcher.fetch(anyString(), anyString(), any(), any()))
+                .thenThrow(new HttpStatusException("HTTP error fetching URL", 503, URL))
+                .thenThrow(new HttpTimeoutException("request timed out"))
+                .thenReturn(doc);
+
+        assertSame(doc, resilientFetcher.fetch("hh", URL, "https://hh.ru", CrawlContext.unbounded(), null));
+
+        verify(pageFetcher, times(3)).fetch(anyString(), anyString(), any(), any());
+        verify(metricsService).incrementFetchRetries("hh", "503");
+        verify(metricsService).incrementFetchRetries("hh", "timeout");
+        assertEquals("CLOSED", resilientFetcher.getBreakerStatuses().get("hh").state());
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() throws Exception {
+        when(pageFetcher.fetch(anyString(), anyString(), any(), any()))
+                .thenThrow(new HttpStatusException("HTTP error fetching URL", 404, URL));
+
+        assertThrows(HttpStatusException.class,
+                () -> resilientFetcher.fetch("hh", URL, "https://hh.ru", CrawlContext.unbounded(), null));
+
+        verify(pageFetcher, times(1)).fetch(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testOpenBreakerFailsFast() throws Exception {
+        when(pageFetcher.fetch(anyString(), anyString(), any(), any()))
+                .thenThrow(new ConnectException("Connection refused"));
+
+        // 3 попытки первой страницы и 1 второй — выключатель открывается на четвёртом сбое
+        assertThrows(ConnectException.class,
+                () -> resilientFetcher.fetch("hh", URL, "https://hh.ru", CrawlContext.unbounded(), null));
+        assertThrows(CircuitOpenException.class,
+                () -> resilientFetcher.fetch("hh", URL, "https://hh.ru", CrawlContext.unbounded(), null));
+        assertThrows(CircuitOpenException.class,
+                () -> resilientFetcher.fetch("hh", URL, "https://hh.ru", CrawlContext.unbounded(), null));
+
+        verify(pageFetcher, times(4)).fetch(anyString(), anyString(), any(), any());
+        verify(metricsService).incrementBreakerOpened("hh");
+        assertEquals("OPEN", resilientFetcher.getBreakerStatuses().get("hh").state());
+    }
+}
@@ -0,0 +1,67 @@
+package com.vacancyparser.fetch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] body(int size) {
+        return "x".repeat(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStoredPageIsServedUntilProcessed() {
+        ResponseCache cache = new ResponseCache(true, dir.toString(), 1024, 60000, true, 1000);
+        String url = "https://hh.ru/search/vacancy?text=java&page=0";
+
+        cache.store(url, "\"v1\"", null, "text/html; charset=utf-8", url, body(100));
+
+        ResponseCache.Entry entry = cache.get(url).orElseThrow();
+        assertEquals("\"v1\"", entry.etag());
+        assertTrue(cache.isFresh(entry));
+        assertFalse(entry.processed());
+        assertArrayEquals(body(100), cache.body(url).orElseThrow());
+
+        cache.markProcessed(url);
+        assertTrue(cache.get(url).orElseThrow().processed());
+
+        // Новая версия страницы снова требует обработки
+        cache.store(url, "\"v2\"", null, "text/html", url, body(120));
+        assertFalse(cache.get(url).orElseThrow().processed());
+        assertEquals(120, cache.getTotalBytes());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() {
+        ResponseCache cache = new ResponseCache(true, dir.toString(), 250, 60000, true, 1000);
+
+        cache.store("a", "1", null, "text/html", "a", body(100));
+        cache.store("b", "1", null, "text/html", "b", body(100));
+        cache.get("a");
+        cache.store("c", "1", null, "text/html", "c", body(100));
+
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.body("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(200, cache.getTotalBytes());
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        ResponseCache cache = new ResponseCache(false, dir.toString(), 1024, 60000, true, 1000);
+
+        cache.store("a", "1", null, "text/html", "a", body(10));
+
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(0, cache.getTotalBytes());
+    }
+}
@@ -0,0 +1,66 @@
+package com.vacancyparser.fetch;
+
+import com.vacancyparser.job.CrawlContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<SingleFlight.Outcome<String>> leader = executor.submit(() ->
+                    flights.execute("hh#0", CrawlContext.unbounded(), () -> {
+                        loads.incrementAndGet();
+                        started.countDown();
+                        release.await();
+                        return "page";
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<SingleFlight.Outcome<String>> follower = executor.submit(() ->
+                    flights.execute("hh#0", CrawlContext.unbounded(), () -> {
+                        loads.incrementAndGet();
+                        return "other";
+                    }));
+            // Даём второму вызову встать в ожидание идущей загрузки
+            Thread.sleep(200);
+            release.countDown();
+
+            assertFalse(leader.get(5, TimeUnit.SECONDS).shared());
+            SingleFlight.Outcome<String> joined = follower.get(5, TimeUnit.SECONDS);
+            assertEquals("page", joined.value());
+            assertTrue(joined.shared());
+            assertEquals(1, loads.get());
+            assertEquals(0, flights.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsNotCachedForNextCall() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+
+        assertThrows(IOException.class, () -> flights.execute("hh#0", CrawlContext.unbounded(), () -> {
+            throw new IOException("connection reset");
+        }));
+        SingleFlight.Outcome<String> retry = flights.execute("hh#0", CrawlContext.unbounded(), () -> "page");
+
+        assertEquals("page", retry.value());
+        assertFalse(retry.shared());
+    }
+}
@@ -0,0 +1,38 @@
+package com.vacancyparser.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XxHash64Test {
+
+    @Test
+    void testMatchesReferenceValues() {
+        assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(new byte[0], 0, 0));
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x44BC2CF5AD770999L, XxHash64.hash(abc, 0, abc.length));
+    }
+
+    @Test
+    void testStreamingEqualsOneShot() {
+        byte[] data = new byte[5000];
+        new Random(7).nextBytes(data);
+        long expected = XxHash64.hash(data, 0, data.length);
+
+        Random chunks = new Random(11);
+        XxHash64 hash = new XxHash64();
+        for (int offset = 0; offset < data.length; ) {
+            int length = Math.min(data.length - offset, 1 + chunks.nextInt(70));
+            hash.update(data, offset, length);
+            offset += length;
+        }
+
+        assertEquals(expected, hash.digest());
+        hash.reset();
+        hash.update(data, 0, 10);
+        assertEquals(XxHash64.hash(data, 0, 10), hash.digest());
+    }
+}
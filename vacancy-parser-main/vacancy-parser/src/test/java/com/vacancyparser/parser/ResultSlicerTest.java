@@ -0,0 +1,69 @@
+package com.vacancyparser.parser;
+
+import com.vacancyparser.fetch.BodySlicer;
+import com.vacancyparser.fetch.PageFetcher;
+import com.vacancyparser.model.Vacancy;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSlicerTest {
+
+    private static final String HH_PAGE = "<html><head><meta charset=\"utf-8\">"
+            + "<script>var s = '<div data-qa=\"vacancy-serp__results\">';</script></head><body>"
+            + "<header><div class=\"menu\"><div>Меню</div></div></header>"
+            + "<div id=\"main\" data-qa=\"vacancy-serp__results\">"
+            + "<div data-qa=\"vacancy-serp__vacancy\">"
+            + "<a data-qa=\"vacancy-serp__vacancy-title\" href=\"/vacancy/1\">Java разработчик</a>"
+            + "<!-- </div> --><div data-qa=\"vacancy-serp__vacancy-address\">Москва</div>"
+            + "<script>document.write('</div>')</script>"
+            + "</div></div>"
+            + "<footer><div>Подвал</div></footer></body></html>";
+
+    @Test
+    void testFindsResultContainer() throws Exception {
+        byte[] body = HH_PAGE.getBytes(StandardCharsets.UTF_8);
+
+        BodySlicer.Range range = ResultSlicer.HH.find(body, body.length).orElseThrow();
+        String slice = new String(body, range.start(), range.length(), StandardCharsets.UTF_8);
+
+        assertTrue(slice.startsWith("<div id=\"main\""));
+        assertTrue(slice.endsWith("</div></div>"));
+
+        Document doc = PageFetcher.parse(body, body.length, "text/html", "https://hh.ru/search/vacancy", ResultSlicer.HH);
+        assertTrue(doc.select("header, footer").isEmpty());
+        List<Vacancy> vacancies = new VacancyParser().extract("hh", doc);
+        assertEquals(1, vacancies.size());
+        assertEquals("Java разработчик", vacancies.get(0).getTitle());
+        assertEquals("https://hh.ru/vacancy/1", vacancies.get(0).getSourceUrl());
+    }
+
+    @Test
+    void testSlicesFromFirstToLastCard() {
+        byte[] body = ("<body><nav class=\"job-card-nav\">x</nav><div class=\"list\">"
+                + "<div class=\"job-card\"><div class=\"job-card__title\">A</div></div>"
+                + "<div class=\"job-card\"><div class=\"job-card__title\">B</div></div>"
+                + "</div><footer>f</footer></body>").getBytes(StandardCharsets.UTF_8);
+
+        BodySlicer.Range range = ResultSlicer.HABR.find(body, body.length).orElseThrow();
+        String slice = new String(body, range.start(), range.length(), StandardCharsets.UTF_8);
+
+        assertEquals("<div class=\"job-card\"><div class=\"job-card__title\">A</div></div>"
+                + "<div class=\"job-card\"><div class=\"job-card__title\">B</div></div>", slice);
+    }
+
+    @Test
+    void testFallsBackWithoutMarkersOrOnBrokenMarkup() {
+        byte[] noMarkers = "<html><body><div>Нет вакансий</div></body></html>".getBytes(StandardCharsets.UTF_8);
+        byte[] unclosed = "<div data-qa=\"vacancy-serp__results\"><div>обрыв".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Optional.empty(), ResultSlicer.HH.find(noMarkers, noMarkers.length));
+        assertEquals(Optional.empty(), ResultSlicer.HH.find(unclosed, unclosed.length));
+        assertNull(ResultSlicer.forSource("unknown"));
+    }
+}
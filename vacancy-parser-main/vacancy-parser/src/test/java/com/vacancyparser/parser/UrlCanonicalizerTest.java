@@ -0,0 +1,58 @@
+package com.vacancyparser.parser;
+
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.model.VacancyKey;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    void testHhUrlsWithTrackingParamsShareOneKey() {
+        String plain = UrlCanonicalizer.HH.canonicalize("https://hh.ru/vacancy/98765432");
+        String tracked = UrlCanonicalizer.HH.canonicalize(
+                "https://spb.hh.ru/vacancy/98765432?query=java&hhtmFrom=vacancy_search_list&from=share#contacts");
+
+        assertEquals("https://hh.ru/vacancy/98765432", plain);
+        assertEquals(plain, tracked);
+        assertEquals(98765432L, UrlCanonicalizer.HH.externalId(tracked));
+    }
+
+    @Test
+    void testSuperJobAndHabrIds() {
+        String superJob = UrlCanonicalizer.SUPERJOB.canonicalize(
+                "https://russia.superjob.ru/vakansii/java-razrabotchik-46234567.html?utm_source=sj&pos=3");
+        assertEquals("https://www.superjob.ru/vakansii/java-razrabotchik-46234567.html", superJob);
+        assertEquals(46234567L, UrlCanonicalizer.SUPERJOB.externalId(superJob));
+
+        String habr = UrlCanonicalizer.HABR.canonicalize("https://career.habr.com/vacancies/1000123456?from=list");
+        assertEquals("https://career.habr.com/vacancies/1000123456", habr);
+        assertEquals(1000123456L, UrlCanonicalizer.HABR.externalId(habr));
+    }
+
+    @Test
+    void testUrlWithoutIdGetsNegativeHashKey() {
+        String canonical = UrlCanonicalizer.GENERIC.canonicalize("HTTPS://Example.com/jobs/java?utm_medium=x&ref=7#top");
+
+        assertEquals("https://example.com/jobs/java?ref=7", canonical);
+        long id = UrlCanonicalizer.GENERIC.externalId(canonical);
+        assertTrue(id < 0);
+        assertEquals(id, UrlCanonicalizer.GENERIC.externalId(canonical));
+    }
+
+    @Test
+    void testIdentifyIsIdempotent() {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setSource("hh");
+        vacancy.setSourceUrl("https://hh.ru/vacancy/123?query=java");
+
+        UrlCanonicalizer.identify(vacancy);
+        VacancyKey key = VacancyKey.of(vacancy);
+        UrlCanonicalizer.identify(vacancy);
+
+        assertEquals("https://hh.ru/vacancy/123", vacancy.getSourceUrl());
+        assertEquals(new VacancyKey("hh", 123L), key);
+        assertEquals(key, VacancyKey.of(vacancy));
+    }
+}
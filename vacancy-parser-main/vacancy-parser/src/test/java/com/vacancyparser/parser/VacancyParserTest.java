@@ -9,6 +9,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +27,16 @@ class VacancyParserTest {
         assertEquals("unknown", vacancyParser.detectSource("https://unknown.com"));
     }
 
+    @Test
+    void testBuildPageUrl() {
+        assertEquals("https://hh.ru/search/vacancy?text=java",
+                vacancyParser.buildPageUrl("https://hh.ru/search/vacancy?text=java", "hh", 0));
+        assertEquals("https://hh.ru/search/vacancy?text=java&page=2",
+                vacancyParser.buildPageUrl("https://hh.ru/search/vacancy?text=java&page=0", "hh", 2));
+        assertEquals("https://career.habr.com/vacancies?q=java&page=3",
+                vacancyParser.buildPageUrl("https://career.habr.com/vacancies?q=java", "habr", 2));
+    }
+
     @Test
     void testParseHhRu() {
         // This test would require mocking Jsoup or using a test HTML file
@@ -35,4 +47,103 @@ class VacancyParserTest {
             // List<Vacancy> vacancies = vacancyParser.parseHhRu("https://hh.ru/search/vacancy?text=java");
         });
     }
+
+    @Test
+    void testExtractHhRuFromDocument() {
+        Document doc = Jsoup.parse(
+                "<div data-qa='vacancy-serp__vacancy'>"
+                        + "<a data-qa='vacancy-serp__vacancy-title' href='/vacancy/123'>Java Developer</a>"
+                        + "<a data-qa='vacancy-serp__vacancy-employer'>Test Company</a>"
+                        + "</div>", "https://hh.ru/search/vacancy?text=java");
+
+        List<Vacancy> vacancies = vacancyParser.extract("hh", doc);
+
+        assertEquals(1, vacancies.size());
+        assertEquals("Java Developer", vacancies.get(0).getTitle());
+        assertEquals("https://hh.ru/vacancy/123", vacancies.get(0).getSourceUrl());
+        assertEquals("Test Company", vacancies.get(0).getCompany());
+        assertEquals("hh", vacancies.get(0).getSource());
+    }
+
+    @Test
+    void testExtractHhRuMarksPremiumCardsPromoted() {
+        Document doc = Jsoup.parse(
+                "<div data-qa='vacancy-serp__vacancy vacancy-serp__vacancy_premium'>"
+                        + "<a data-qa='vacancy-serp__vacancy-title' href='/vacancy/1'>Senior Java</a>"
+                        + "<a data-qa='vacancy-serp__vacancy-employer'>Promo Company</a></div>"
+                        + "<div data-qa='vacancy-serp__vacancy'>"
+                        + "<a data-qa='vacancy-serp__vacancy-title' href='/vacancy/2'>Java Developer</a>"
+                        + "<a data-qa='vacancy-serp__vacancy-employer'>Test Company</a></div>",
+                "https://hh.ru/search/vacancy?text=java");
+
+        List<Vacancy> vacancies = vacancyParser.extract("hh", doc);
+
+        assertEquals(2, vacancies.size());
+        assertTrue(vacancies.get(0).isPromoted());
+        assertFalse(vacancies.get(1).isPromoted());
+    }
+
+    @Test
+    void testParallelCardExtractionKeepsPageOrder() {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            html.append("<div data-qa='vacancy-serp__vacancy'>");
+            // Каждая десятая карточка без названия пропускается
+            if (i % 10 != 0) {
+                html.append("<a data-qa='vacancy-serp__vacancy-title' href='/vacancy/").append(i).append("'>Java ")
+                        .append(i).append("</a>");
+            }
+            html.append("</div>");
+        }
+        Document doc = Jsoup.parse(html.toString(), "https://hh.ru/search/vacancy?text=java");
+
+        List<Vacancy> serial = vacancyParser.extractHhRu(doc);
+        CardExtractor parallel = new CardExtractor(2, 4);
+        try {
+            vacancyParser.setCardExtractor(parallel);
+            List<Vacancy> vacancies = vacancyParser.extractHhRu(doc);
+
+            assertEquals(90, vacancies.size());
+            assertEquals(serial.stream().map(Vacancy::getSourceUrl).toList(),
+                    vacancies.stream().map(Vacancy::getSourceUrl).toList());
+            assertEquals("https://hh.ru/vacancy/1", vacancies.get(0).getSourceUrl());
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void testExtractDetailFromJsonLd() {
+        Document doc = Jsoup.parse("<html><head><script type='application/ld+json'>"
+                + "{\"@context\":\"https://schema.org\",\"@graph\":[{\"@type\":\"Organization\"},"
+                + "{\"@type\":\"JobPosting\",\"description\":\"<p>Пишем <b>сервисы</b> на Java</p>\","
+                + "\"skills\":\"Java, Spring, Kafka\",\"employmentType\":[\"FULL_TIME\",\"CONTRACTOR\"],"
+                + "\"experienceRequirements\":{\"@type\":\"OccupationalExperienceRequirements\",\"monthsOfExperience\":36}}]}"
+                + "</script></head><body></body></html>", "https://career.habr.com/vacancies/1");
+
+        VacancyDetail detail = vacancyParser.extractDetail("habr", doc);
+
+        assertEquals("Пишем сервисы на Java", detail.description());
+        assertEquals(List.of("Java", "Spring", "Kafka"), detail.skills());
+        assertEquals("от 3 лет", detail.experience());
+        assertEquals("FULL_TIME, CONTRACTOR", detail.employmentType());
+    }
+
+    @Test
+    void testExtractDetailFallsBackToMarkup() {
+        Document doc = Jsoup.parse("<script type='application/ld+json'>{broken</script>"
+                + "<div data-qa='vacancy-description'><p>Разработка платформы</p></div>"
+                + "<span data-qa='vacancy-experience'>1–3 года</span>"
+                + "<p data-qa='vacancy-view-employment-mode'>Полная занятость, полный день</p>"
+                + "<li data-qa='skills-element'>Java</li><li data-qa='skills-element'>PostgreSQL</li>",
+                "https://hh.ru/vacancy/123");
+
+        VacancyDetail detail = vacancyParser.extractDetail("hh", doc);
+
+        assertEquals("Разработка платформы", detail.description());
+        assertEquals(List.of("Java", "PostgreSQL"), detail.skills());
+        assertEquals("1–3 года", detail.experience());
+        assertEquals("Полная занятость, полный день", detail.employmentType());
+        assertTrue(vacancyParser.extractDetail("superjob", Jsoup.parse("<p>пусто</p>")).isEmpty());
+    }
 }
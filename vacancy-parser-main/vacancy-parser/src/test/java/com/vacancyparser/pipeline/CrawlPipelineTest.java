@@ -0,0 +1,139 @@
+package com.vacancyparser.pipeline;
+
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.service.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CrawlPipelineTest {
+
+    // fetch: 1 поток и очередь на 1 задание, parse: 2 потока, persist: 1 поток, пачки до 8
+    private final CrawlPipeline pipeline = new CrawlPipeline(mock(MetricsService.class), "platform", 1, 1, 2, 4, 1, 8, 8);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testTaskExceptionReachesCaller() {
+        IOException error = assertThrows(IOException.class, () -> pipeline.fetch(() -> {
+            throw new IOException("connection reset");
+        }, CrawlContext.unbounded()));
+        assertEquals("connection reset", error.getMessage());
+    }
+
+    @Test
+    void testFullQueueBlocksUntilDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Первое задание занимает единственный поток, второе — единственное место в очереди
+        callers.submit(() -> pipeline.fetch(() -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }, CrawlContext.unbounded()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> pipeline.fetch(() -> true, CrawlContext.unbounded()));
+        while (pipeline.getFetchStage().getQueueDepth() == 0) {
+            Thread.sleep(5);
+        }
+        assertEquals(1.0, pipeline.getFetchStage().getUtilization());
+
+        long startedAt = System.nanoTime();
+        assertThrows(CrawlCancelledException.class,
+                () -> pipeline.fetch(() -> true, CrawlContext.withTimeout(Duration.ofMillis(300))));
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(300));
+        release.countDown();
+    }
+
+    @Test
+    void testVirtualModeRunsEachFetchOnItsOwnThread() throws Exception {
+        CrawlPipeline virtual = new CrawlPipeline(mock(MetricsService.class), "virtual", 1, 1, 2, 4, 1, 8, 8);
+        try (ExecutorService crawls = virtual.newCrawlExecutor(1)) {
+            // 2000 загрузок по 200 мс: в пуле из одного потока это 400 с, в виртуальных потоках — доли секунды сверх 200 мс
+            List<Future<Boolean>> fetches = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                fetches.add(crawls.submit(() -> virtual.fetch(() -> {
+                    Thread.sleep(200);
+                    return Thread.currentThread().isVirtual();
+                }, CrawlContext.unbounded())));
+            }
+            for (Future<Boolean> fetch : fetches) {
+                assertTrue(fetch.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(0, virtual.getFetchStage().getThreads());
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    @Test
+    void testCrawlExecutorIsSizedToFetchStage() {
+        CrawlPipeline wide = new CrawlPipeline(mock(MetricsService.class), "platform", 4, 1, 2, 4, 1, 8, 8);
+        ExecutorService crawls = wide.newCrawlExecutor(2);
+        ExecutorService larger = pipeline.newCrawlExecutor(8);
+        try {
+            // Каждый поток загрузки может обслуживать свой проход
+            assertEquals(4, ((ThreadPoolExecutor) crawls).getMaximumPoolSize());
+            assertEquals(8, ((ThreadPoolExecutor) larger).getMaximumPoolSize());
+        } finally {
+            crawls.shutdownNow();
+            larger.shutdownNow();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void testPersistStageCollectsBatches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        BatchingStage<Integer, Integer> stage = pipeline.persistStage(batch -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (batchSizes) {
+                batchSizes.add(batch.size());
+            }
+            batch.forEach(item -> item.complete(item.value() * 2));
+        });
+
+        // Первое задание держит поток, пока остальные копятся в очереди
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(callers.submit(() -> stage.call(0, CrawlContext.unbounded())));
+        while (stage.getUtilization() == 0) {
+            Thread.sleep(5);
+        }
+        for (int i = 1; i <= 5; i++) {
+            int value = i;
+            results.add(callers.submit(() -> stage.call(value, CrawlContext.unbounded())));
+        }
+        while (stage.getQueueDepth() < 5) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i * 2, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1, 5), batchSizes);
+    }
+}
@@ -0,0 +1,144 @@
+package com.vacancyparser.scheduler;
+
+import com.vacancyparser.model.SearchJob;
+import com.vacancyparser.service.CrawlLeaseService;
+import com.vacancyparser.service.SearchJobChangedEvent;
+import com.vacancyparser.service.SearchJobService;
+import com.vacancyparser.service.VacancyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveCrawlSchedulerTest {
+
+    private static final long MINUTE = 60000;
+
+    @Mock
+    private VacancyService vacancyService;
+
+    @Mock
+    private SearchJobService searchJobService;
+
+    @Mock
+    private CrawlLeaseService leaseService;
+
+    @InjectMocks
+    private AdaptiveCrawlScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "minInterval", MINUTE);
+        ReflectionTestUtils.setField(scheduler, "maxInterval", 60 * MINUTE);
+        ReflectionTestUtils.setField(scheduler, "targetNewPerRun", 10.0);
+        ReflectionTestUtils.setField(scheduler, "backoffFactor", 2.0);
+        ReflectionTestUtils.setField(scheduler, "smoothing", 0.5);
+    }
+
+    @Test
+    void testHotSearchGetsShorterInterval() {
+        SearchSchedule schedule = new SearchSchedule(1L, "hot", 5, 0, 5 * MINUTE);
+        scheduler.reschedule(schedule, 100, 1000);
+
+        // 20 новых за 5 минут = 4 в минуту, на 10 вакансий нужно 2.5 минуты
+        scheduler.reschedule(schedule, 20, 1000 + 5 * MINUTE);
+
+        assertEquals(4.0, schedule.getNewPerMinute(), 0.001);
+        assertEquals(150000, schedule.getIntervalMillis());
+        assertEquals(1000 + 5 * MINUTE + 150000, schedule.getNextRunAt());
+    }
+
+    @Test
+    void testQuietSearchBacksOffUpToMax() {
+        SearchSchedule schedule = new SearchSchedule(1L, "quiet", 5, 0, 5 * MINUTE);
+        scheduler.reschedule(schedule, 3, 0);
+
+        long now = 0;
+        for (int i = 0; i < 10; i++) {
+            now += schedule.getIntervalMillis();
+            scheduler.reschedule(schedule, 0, now);
+        }
+
+        assertEquals(60 * MINUTE, schedule.getIntervalMillis());
+    }
+
+    @Test
+    void testIntervalIsClampedToMin() {
+        SearchSchedule schedule = new SearchSchedule(1L, "burst", 5, 0, 5 * MINUTE);
+        scheduler.reschedule(schedule, 0, 0);
+
+        scheduler.reschedule(schedule, 1000, 5 * MINUTE);
+
+        assertEquals(MINUTE, schedule.getIntervalMillis());
+    }
+
+    @Test
+    void testRegistryChangesApplyWithoutRestart() {
+        ReflectionTestUtils.setField(scheduler, "mode", "adaptive");
+        SearchJob hh = job(1L, "https://hh.ru/search/vacancy?text=java");
+        SearchJob habr = job(2L, "https://career.habr.com/vacancies?q=java");
+        when(searchJobService.getEnabledJobs()).thenReturn(Arrays.asList(hh, habr));
+        when(leaseService.rebalance(any())).thenAnswer(invocation -> ownAll(invocation.getArgument(0)));
+        when(leaseService.claim(3L)).thenReturn(true);
+        scheduler.start();
+        assertEquals(2, scheduler.getScheduledCount());
+
+        scheduler.onSearchJobChanged(new SearchJobChangedEvent(3L, job(3L, "https://hh.ru/search/vacancy?text=kotlin")));
+        assertEquals(3, scheduler.getScheduledCount());
+
+        scheduler.onSearchJobChanged(new SearchJobChangedEvent(1L, null));
+        assertEquals(2, scheduler.getScheduledCount());
+        verify(leaseService).release(1L);
+
+        when(searchJobService.getEnabledJobs()).thenReturn(Collections.singletonList(habr));
+        scheduler.syncJobs();
+        assertEquals(1, scheduler.getScheduledCount());
+    }
+
+    @Test
+    void testOnlyLeasedJobsAreScheduled() {
+        ReflectionTestUtils.setField(scheduler, "mode", "adaptive");
+        SearchJob hh = job(1L, "https://hh.ru/search/vacancy?text=java");
+        SearchJob habr = job(2L, "https://career.habr.com/vacancies?q=java");
+        when(searchJobService.getEnabledJobs()).thenReturn(Arrays.asList(hh, habr));
+        // Второе задание держит другой узел
+        when(leaseService.rebalance(any())).thenReturn(Map.of(1L, LocalDateTime.now()));
+        scheduler.start();
+        assertEquals(1, scheduler.getScheduledCount());
+
+        // Узел потерял аренду — задание уходит из локального расписания
+        when(leaseService.rebalance(any())).thenReturn(Collections.emptyMap());
+        scheduler.syncJobs();
+        assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    private static Map<Long, LocalDateTime> ownAll(Collection<Long> jobIds) {
+        Map<Long, LocalDateTime> owned = new LinkedHashMap<>();
+        jobIds.forEach(id -> owned.put(id, null));
+        return owned;
+    }
+
+    private SearchJob job(Long id, String url) {
+        SearchJob job = new SearchJob();
+        job.setId(id);
+        job.setUrl(url);
+        job.setMaxPages(5);
+        job.setEnabled(true);
+        return job;
+    }
+}
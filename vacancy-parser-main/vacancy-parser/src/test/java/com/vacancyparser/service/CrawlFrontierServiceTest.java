@@ -0,0 +1,123 @@
+package com.vacancyparser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vacancyparser.model.CrawlCursor;
+import com.vacancyparser.model.CrawlFrontierPage;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.repository.CrawlCursorRepository;
+import com.vacancyparser.repository.CrawlFrontierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class CrawlFrontierServiceTest {
+
+    private static final String URL = "https://hh.ru/search/vacancy?text=java";
+
+    @Autowired
+    private CrawlCursorRepository cursorRepository;
+
+    @Autowired
+    private CrawlFrontierRepository frontierRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private CrawlFrontierService frontier;
+
+    @BeforeEach
+    void setUp() {
+        frontier = newNode("node-a");
+    }
+
+    @Test
+    void testRestartedNodeResumesFromFirstUnsavedPage() {
+        CrawlCursor cursor = frontier.open(URL, 5).orElseThrow();
+        assertEquals(5, frontierRepository.countByRunIdAndState(cursor.getRunId(), CrawlFrontierPage.State.PENDING));
+
+        frontier.pageFetched(cursor, 0, Collections.singletonList(vacancy("https://hh.ru/vacancy/1")));
+        frontier.pageCompleted(cursor, 0, "https://hh.ru/vacancy/1");
+        frontier.pageFetched(cursor, 1, Collections.singletonList(vacancy("https://hh.ru/vacancy/2")));
+        // Узел упал после загрузки страницы 1, не успев сохранить её вакансии
+
+        CrawlFrontierService restarted = newNode("node-a");
+        CrawlCursor resumed = restarted.open(URL, 5).orElseThrow();
+
+        assertEquals(cursor.getRunId(), resumed.getRunId());
+        assertEquals(1, resumed.getNextPage());
+        assertEquals("https://hh.ru/vacancy/1", resumed.getNewestUrl());
+        Optional<List<Vacancy>> stored = restarted.fetchedPage(resumed, 1);
+        assertTrue(stored.isPresent());
+        assertEquals("https://hh.ru/vacancy/2", stored.get().get(0).getSourceUrl());
+        assertTrue(restarted.fetchedPage(resumed, 2).isEmpty());
+    }
+
+    @Test
+    void testLiveRunOfAnotherNodeIsNotTakenOver() {
+        frontier.open(URL, 3).orElseThrow();
+
+        assertTrue(newNode("node-b").open(URL, 3).isEmpty());
+
+        // Владелец перестал отмечаться — проход забирает другой узел
+        CrawlCursor cursor = cursorRepository.findById(URL).orElseThrow();
+        cursor.setUpdatedAt(LocalDateTime.now().minusMinutes(10));
+        cursorRepository.saveAndFlush(cursor);
+        assertTrue(newNode("node-b").open(URL, 3).isPresent());
+    }
+
+    @Test
+    void testFinishedRunStartsOver() {
+        CrawlCursor cursor = frontier.open(URL, 3).orElseThrow();
+        frontier.pageCompleted(cursor, 0, "https://hh.ru/vacancy/1");
+        frontier.finish(cursor);
+        frontier.release(URL);
+
+        CrawlCursor next = frontier.open(URL, 3).orElseThrow();
+
+        assertNotEquals(cursor.getRunId(), next.getRunId());
+        assertEquals(0, next.getNextPage());
+        assertEquals(0, frontierRepository.countByRunIdAndState(cursor.getRunId(), CrawlFrontierPage.State.DONE));
+    }
+
+    @Test
+    void testFinishedRunIsRestartedByOneNodeOnly() {
+        CrawlCursor cursor = frontier.open(URL, 3).orElseThrow();
+        frontier.finish(cursor);
+        frontier.release(URL);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Оба узла прочитали один и тот же завершённый курсор
+        int first = cursorRepository.restart(URL, cursor.getRunId(), "run-b", "node-b", 3, now,
+                CrawlCursor.State.RUNNING, CrawlCursor.State.DONE);
+        int second = cursorRepository.restart(URL, cursor.getRunId(), "run-c", "node-c", 3, now,
+                CrawlCursor.State.RUNNING, CrawlCursor.State.DONE);
+
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals("node-b", cursorRepository.findById(URL).orElseThrow().getOwner());
+        assertTrue(frontier.open(URL, 3).isEmpty());
+    }
+
+    private CrawlFrontierService newNode(String nodeId) {
+        CrawlLeaseService leaseService = mock(CrawlLeaseService.class);
+        when(leaseService.getNodeId()).thenReturn(nodeId);
+        return new CrawlFrontierService(cursorRepository, frontierRepository, leaseService, objectMapper, 90000);
+    }
+
+    private static Vacancy vacancy(String url) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setTitle("Java Developer");
+        vacancy.setSourceUrl(url);
+        vacancy.setPublishedDate(LocalDateTime.now());
+        return vacancy;
+    }
+}
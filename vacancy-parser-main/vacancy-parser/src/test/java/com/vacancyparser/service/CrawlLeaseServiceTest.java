@@ -0,0 +1,89 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.model.CrawlLease;
+import com.vacancyparser.repository.CrawlLeaseRepository;
+import com.vacancyparser.repository.CrawlNodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Два узла над одной БД: каждый экземпляр сервиса — отдельный узел со своим nodeId
+ */
+@DataJpaTest
+class CrawlLeaseServiceTest {
+
+    private static final List<Long> JOBS = Arrays.asList(1L, 2L, 3L, 4L);
+
+    @Autowired
+    private CrawlLeaseRepository leaseRepository;
+
+    @Autowired
+    private CrawlNodeRepository nodeRepository;
+
+    private CrawlLeaseService nodeA;
+    private CrawlLeaseService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new CrawlLeaseService(leaseRepository, nodeRepository, "node-a", 8080, 90000);
+        nodeB = new CrawlLeaseService(leaseRepository, nodeRepository, "node-b", 8080, 90000);
+    }
+
+    @Test
+    void testEachJobIsOwnedByExactlyOneNode() {
+        Map<Long, LocalDateTime> first = nodeA.rebalance(JOBS);
+        assertEquals(4, first.size());
+
+        // Появился второй узел: первый отдаёт половину, второй её забирает
+        nodeB.rebalance(JOBS);
+        Map<Long, LocalDateTime> a = nodeA.rebalance(JOBS);
+        Map<Long, LocalDateTime> b = nodeB.rebalance(JOBS);
+
+        assertEquals(2, a.size());
+        assertEquals(2, b.size());
+        Set<Long> all = new HashSet<>(a.keySet());
+        all.addAll(b.keySet());
+        assertEquals(new HashSet<>(JOBS), all);
+        assertFalse(nodeB.claim(a.keySet().iterator().next()));
+    }
+
+    @Test
+    void testExpiredLeasesAreReclaimed() {
+        nodeA.rebalance(JOBS);
+        // Узел A упал: аренды и heartbeat просрочены
+        for (CrawlLease lease : leaseRepository.findByOwner("node-a")) {
+            lease.setLeaseUntil(LocalDateTime.now().minusMinutes(5));
+            lease.setNextRunAt(LocalDateTime.now().plusMinutes(3));
+            leaseRepository.save(lease);
+        }
+        nodeRepository.findById("node-a").ifPresent(node -> {
+            node.setHeartbeatAt(LocalDateTime.now().minusMinutes(5));
+            nodeRepository.save(node);
+        });
+
+        Map<Long, LocalDateTime> b = nodeB.rebalance(JOBS);
+
+        assertEquals(4, b.size());
+        assertTrue(b.values().stream().allMatch(next -> next != null));
+        assertTrue(leaseRepository.findByOwner("node-a").isEmpty());
+    }
+
+    @Test
+    void testReleaseAllHandsJobsOver() {
+        nodeA.rebalance(JOBS);
+        nodeA.releaseAll();
+
+        assertEquals(4, nodeB.rebalance(JOBS).size());
+    }
+}
@@ -0,0 +1,122 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.export.ColumnarExportWriter;
+import com.vacancyparser.export.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportServiceTest {
+
+    @TempDir
+    Path exportDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:export-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE vacancies (id BIGINT PRIMARY KEY, title VARCHAR(255), " +
+                "company VARCHAR(255), salary VARCHAR(1000), requirements VARCHAR(5000), city VARCHAR(255), " +
+                "published_date TIMESTAMP, source_url VARCHAR(255), source VARCHAR(255), parsed_at TIMESTAMP, " +
+                "external_id BIGINT NOT NULL, description VARCHAR(20000), skills VARCHAR(2000), " +
+                "experience VARCHAR(255), employment_type VARCHAR(255), enriched_at TIMESTAMP)");
+        insert(1, "Java Developer", "Yandex, LLC");
+        insert(2, "Senior \"Java\" Developer", "Yandex, LLC");
+        jdbcTemplate.update("UPDATE vacancies SET description = ?, skills = ?, experience = ?, employment_type = ?, " +
+                "enriched_at = TIMESTAMP '2024-01-01 11:00:00' WHERE id = 2",
+                "Разработка сервисов, ревью", "Java, Spring", "3–6 лет", "FULL_TIME");
+        exportService = new ExportService(jdbcTemplate, exportDir.toString(), 100, 1);
+    }
+
+    @Test
+    void testCsvExportEscapesValues() throws IOException {
+        String csv = gunzip(export(ExportFormat.CSV));
+
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,title,company,salary,requirements,city,published_date,source_url,source,parsed_at,"
+                + "external_id,description,skills,experience,employment_type", lines[0]);
+        assertTrue(lines[1].startsWith("1,Java Developer,\"Yandex, LLC\",,,Moscow,2024-01-01T10:00,"));
+        assertTrue(lines[1].endsWith(",1,,,,"));
+        assertTrue(lines[2].startsWith("2,\"Senior \"\"Java\"\" Developer\""));
+        assertTrue(lines[2].endsWith(",2,\"Разработка сервисов, ревью\",\"Java, Spring\",3–6 лет,FULL_TIME"));
+    }
+
+    @Test
+    void testExportIsCachedUntilDataVersionChanges() throws IOException {
+        String version = exportService.getDataVersion();
+        byte[] first = export(ExportFormat.CSV);
+        assertEquals(1, cachedFiles());
+        assertArrayEquals(first, export(ExportFormat.CSV));
+
+        // Вакансию сохранил другой узел: версия берётся из таблицы, поэтому кэш устаревает и без уведомления
+        insert(3, "Kotlin Developer", "Sber");
+        assertNotEquals(version, exportService.getDataVersion());
+        String csv = gunzip(export(ExportFormat.CSV));
+        assertTrue(csv.contains("Kotlin Developer"));
+        assertEquals(1, cachedFiles());
+
+        // Запись подробностей тоже меняет версию
+        version = exportService.getDataVersion();
+        jdbcTemplate.update("UPDATE vacancies SET description = 'Backend', enriched_at = TIMESTAMP '2024-01-02 10:00:00' WHERE id = 3");
+        assertNotEquals(version, exportService.getDataVersion());
+        assertTrue(gunzip(export(ExportFormat.CSV)).contains("Backend"));
+    }
+
+    @Test
+    void testColumnarExportUsesDictionaryPerRowGroup() throws IOException {
+        byte[] data = gunzipBytes(export(ExportFormat.COLUMNAR));
+
+        assertArrayEquals(ColumnarExportWriter.MAGIC, Arrays.copyOf(data, 4));
+        // Группы по одной строке: rows=1, id delta=zigzag(1)=2, затем словарь title из одного значения
+        assertEquals(1, data[4]);
+        assertEquals(2, data[5]);
+        assertEquals(1, data[6]);
+        assertEquals(0, data[data.length - 1]);
+    }
+
+    private void insert(long id, String title, String company) {
+        jdbcTemplate.update("INSERT INTO vacancies (id, title, company, city, published_date, source_url, source, " +
+                "parsed_at, external_id) VALUES (?, ?, ?, 'Moscow', TIMESTAMP '2024-01-01 10:00:00', ?, 'hh', " +
+                "TIMESTAMP '2024-01-01 10:05:00', ?)", id, title, company, "https://hh.ru/vacancy/" + id, id);
+    }
+
+    private byte[] export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, out);
+        return out.toByteArray();
+    }
+
+    private long cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(exportDir)) {
+            return files.count();
+        }
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        return new String(gunzipBytes(data), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzipBytes(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.dto.FacetValueDto;
+import com.vacancyparser.dto.FacetsDto;
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.repository.VacancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FacetServiceTest {
+
+    @Mock
+    private VacancyRepository vacancyRepository;
+
+    @InjectMocks
+    private FacetService facetService;
+
+    @BeforeEach
+    void setUp() {
+        when(vacancyRepository.countAndMaxId()).thenReturn(Collections.singletonList(new Object[]{3L, 3L}));
+        when(vacancyRepository.countBySource()).thenReturn(Collections.singletonList(new Object[]{"hh", 3L}));
+        when(vacancyRepository.countByCity()).thenReturn(Collections.singletonList(new Object[]{"Moscow", 3L}));
+        when(vacancyRepository.countByCompany()).thenReturn(Arrays.asList(
+                new Object[]{"Yandex", 2L},
+                new Object[]{"Sber", 1L}
+        ));
+        facetService.init();
+    }
+
+    @Test
+    void testInitLoadsCountsFromRepository() {
+        FacetsDto facets = facetService.getFacets(null, 100);
+
+        assertEquals(1, facets.getSources().size());
+        assertEquals(3L, facets.getSources().get(0).getCount());
+        assertEquals("Yandex", facets.getCompanies().get(0).getValue());
+        verify(vacancyRepository, times(1)).countByCompany();
+    }
+
+    @Test
+    void testRecordUpdatesCountsAndVersion() {
+        long versionBefore = facetService.getVersion();
+
+        facetService.record(Arrays.asList(
+                vacancy("superjob", "Kazan", "Sber"),
+                vacancy("superjob", "Kazan", "Sber")
+        ));
+
+        FacetsDto facets = facetService.getFacets(null, 100);
+        assertTrue(facetService.getVersion() > versionBefore);
+        assertEquals(2, facets.getSources().size());
+        assertEquals(new FacetValueDto("Sber", 3L), facets.getCompanies().get(0));
+    }
+
+    @Test
+    void testCompanyPrefixIsCaseInsensitiveAndLimited() {
+        facetService.record(Collections.singletonList(vacancy("hh", "Moscow", "yadro")));
+
+        List<FacetValueDto> companies = facetService.getFacets("YA", 100).getCompanies();
+        assertEquals(2, companies.size());
+        assertEquals("Yandex", companies.get(0).getValue());
+
+        assertEquals(1, facetService.getFacets("ya", 1).getCompanies().size());
+        assertTrue(facetService.getFacets("zz", 100).getCompanies().isEmpty());
+        assertTrue(facetService.getFacets("ya", -1).getCompanies().isEmpty());
+    }
+
+    @Test
+    void testRefreshReloadsRowsSavedByOtherNodes() {
+        facetService.refresh();
+        // Таблица не менялась — GROUP BY не повторяется
+        verify(vacancyRepository, times(1)).countByCompany();
+
+        when(vacancyRepository.countAndMaxId()).thenReturn(Collections.singletonList(new Object[]{4L, 4L}));
+        when(vacancyRepository.countBySource()).thenReturn(Arrays.asList(
+                new Object[]{"hh", 3L},
+                new Object[]{"habr", 1L}
+        ));
+        long versionBefore = facetService.getVersion();
+
+        facetService.refresh();
+
+        FacetsDto facets = facetService.getFacets(null, 100);
+        assertEquals(2, facets.getSources().size());
+        assertEquals(new FacetValueDto("habr", 1L), facets.getSources().get(1));
+        assertTrue(facetService.getVersion() > versionBefore);
+        verify(vacancyRepository, times(2)).countByCompany();
+    }
+
+    private Vacancy vacancy(String source, String city, String company) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setTitle("Java Developer");
+        vacancy.setSource(source);
+        vacancy.setCity(city);
+        vacancy.setCompany(company);
+        return vacancy;
+    }
+}
@@ -0,0 +1,165 @@
+package com.vacancyparser.service;
+
+import com.vacancyparser.model.Vacancy;
+import com.vacancyparser.parser.VacancyDetail;
+import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.repository.VacancyRepository;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VacancyEnrichmentServiceTest {
+
+    @Mock
+    private VacancyRepository vacancyRepository;
+
+    @Mock
+    private VacancyParser vacancyParser;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VacancyEnrichmentService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new VacancyEnrichmentService(vacancyRepository, vacancyParser, metricsService, transactionManager,
+                true, 2, 10, 10, 100, 5000, 10, 60000, 600000, 900000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static Vacancy vacancy(long id) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setId(id);
+        vacancy.setSource("hh");
+        vacancy.setSourceUrl("https://hh.ru/vacancy/" + id);
+        return vacancy;
+    }
+
+    @Test
+    void testEnqueueSkipsQueuedAndEnrichedVacancies() {
+        Vacancy enriched = vacancy(3);
+        enriched.setEnrichedAt(LocalDateTime.now());
+
+        assertEquals(2, service.enqueue(List.of(vacancy(1), vacancy(2), enriched)));
+        // Вакансия уже в очереди — второй раз не ставится
+        assertEquals(0, service.enqueue(List.of(vacancy(1))));
+        assertEquals(2, service.getQueued());
+    }
+
+    @Test
+    void testFetchesDetailsAndUpdatesRowsInOneBatch() throws Exception {
+        Vacancy first = vacancy(1);
+        Vacancy gone = vacancy(2);
+        when(vacancyParser.parseDetail(eq("hh"), eq(first.getSourceUrl()), any()))
+                .thenReturn(new VacancyDetail("Описание", List.of("Java", "Kafka"), "от 3 лет", "FULL_TIME"));
+        when(vacancyParser.parseDetail(eq("hh"), eq(gone.getSourceUrl()), any()))
+                .thenThrow(new HttpStatusException("Not found", 404, gone.getSourceUrl()));
+        when(vacancyRepository.findAllById(anyIterable())).thenReturn(List.of(first, gone));
+
+        service.enqueue(List.of(vacancy(1), vacancy(2)));
+        service.start();
+
+        verify(vacancyRepository, timeout(5000)).findAllById(anyIterable());
+        verify(transactionManager, timeout(5000)).commit(any());
+        assertEquals("Описание", first.getDescription());
+        assertEquals("Java, Kafka", first.getSkills());
+        assertEquals("от 3 лет", first.getExperience());
+        assertEquals("FULL_TIME", first.getEmploymentType());
+        assertNotNull(first.getEnrichedAt());
+        // Снятая с публикации вакансия больше не дозагружается
+        assertNull(gone.getDescription());
+        assertNotNull(gone.getEnrichedAt());
+        verify(vacancyRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void testFailedFetchPostponesNextAttempt() throws Exception {
+        Vacancy failing = vacancy(1);
+        failing.setEnrichAttempts(2);
+        when(vacancyParser.parseDetail(eq("hh"), eq(failing.getSourceUrl()), any()))
+                .thenThrow(new HttpStatusException("Service unavailable", 503, failing.getSourceUrl()));
+        when(vacancyRepository.findAllById(anyIterable())).thenReturn(List.of(failing));
+
+        LocalDateTime before = LocalDateTime.now();
+        service.enqueue(List.of(vacancy(1)));
+        service.start();
+
+        verify(transactionManager, timeout(5000)).commit(any());
+        assertNull(failing.getEnrichedAt());
+        assertEquals(3, failing.getEnrichAttempts());
+        // Третья неудача подряд: 60 с × 4
+        assertFalse(failing.getEnrichNextAttemptAt().isBefore(before.plusSeconds(240)));
+        assertEquals(600000, service.retryDelayMillis(10));
+    }
+
+    @Test
+    void testSweepTakesOnlyDueVacancies() {
+        when(vacancyRepository.findNotEnriched(any(), any())).thenReturn(List.of(vacancy(7)));
+        when(vacancyRepository.claimEnrichment(eq(7L), any(), any())).thenReturn(1);
+
+        service.sweep();
+
+        verify(vacancyRepository).findNotEnriched(argThat(now -> !now.isAfter(LocalDateTime.now())), any());
+        assertEquals(1, service.getQueued());
+    }
+
+    @Test
+    void testSweepSkipsVacanciesClaimedByAnotherNode() {
+        when(vacancyRepository.findNotEnriched(any(), any())).thenReturn(List.of(vacancy(7), vacancy(8)));
+        when(vacancyRepository.claimEnrichment(eq(7L), any(), any())).thenReturn(0);
+        when(vacancyRepository.claimEnrichment(eq(8L), any(), any())).thenReturn(1);
+
+        service.sweep();
+
+        // Вакансию 7 уже арендовал другой узел
+        assertEquals(1, service.getQueued());
+        verify(vacancyRepository).claimEnrichment(eq(8L), any(), argThat(until -> until.isAfter(LocalDateTime.now().plusMinutes(14))));
+    }
+
+    @Test
+    void testNewVacanciesAreReservedBeforeSave() {
+        Vacancy fresh = vacancy(9);
+
+        service.reserve(List.of(fresh));
+
+        // Проход по таблице других узлов не возьмёт вакансию, пока аренда не истечёт
+        assertTrue(fresh.getEnrichNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+    }
+
+    @Test
+    void testDisabledServiceIgnoresVacancies() {
+        VacancyEnrichmentService disabled = new VacancyEnrichmentService(vacancyRepository, vacancyParser,
+                metricsService, transactionManager, false, 2, 10, 10, 100, 5000, 10, 60000, 600000, 900000);
+
+        assertEquals(0, disabled.enqueue(List.of(vacancy(1))));
+        disabled.sweep();
+        verifyNoInteractions(vacancyRepository);
+    }
+}
@@ -1,21 +1,44 @@
 package com.vacancyparser.service;
 
+import com.vacancyparser.dto.SearchCrawlResult;
+import com.vacancyparser.fetch.CircuitOpenException;
+import com.vacancyparser.fetch.PageFetchFailedException;
+import com.vacancyparser.fetch.PageNotModifiedException;
+import com.vacancyparser.fetch.ResponseCache;
+import com.vacancyparser.job.CrawlCancelledException;
+import com.vacancyparser.job.CrawlContext;
+import com.vacancyparser.model.CrawlCursor;
+import com.vacancyparser.model.SearchWatermark;
 import com.vacancyparser.model.Vacancy;
 import com.vacancyparser.parser.VacancyParser;
+import com.vacancyparser.pipeline.CrawlPipeline;
+import com.vacancyparser.repository.SearchWatermarkRepository;
 import com.vacancyparser.repository.VacancyRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +50,33 @@ class VacancyServiceTest {
     @Mock
     private VacancyParser vacancyParser;
 
+    @Mock
+    private SearchWatermarkRepository watermarkRepository;
+
+    @Mock
+    private LoggingService loggingService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private FacetService facetService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CrawlFrontierService frontierService;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private VacancyEnrichmentService enrichmentService;
+
+    @Spy
+    private CrawlPipeline crawlPipeline = new CrawlPipeline(mock(MetricsService.class), "platform", 2, 4, 1, 4, 1, 4, 4);
+
     @InjectMocks
     private VacancyService vacancyService;
 
@@ -34,6 +84,11 @@ class VacancyServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(vacancyService, "crawlDeadlineMillis", 60000L);
+        ReflectionTestUtils.setField(vacancyService, "threadPoolSize", 2);
+        vacancyService.init();
+        // По умолчанию у каждого прохода свой новый курсор
+        lenient().when(frontierService.open(anyString(), anyInt())).thenAnswer(i -> Optional.of(new CrawlCursor()));
         testVacancy = new Vacancy();
         testVacancy.setId(1L);
         testVacancy.setTitle("Java Developer");
@@ -45,6 +100,11 @@ class VacancyServiceTest {
         testVacancy.setPublishedDate(LocalDateTime.now());
     }
 
+    @AfterEach
+    void tearDown() {
+        crawlPipeline.shutdown();
+    }
+
     @Test
     void testGetAllVacancies() {
         List<Vacancy> vacancies = Arrays.asList(testVacancy);
@@ -92,37 +152,364 @@ class VacancyServiceTest {
         vacancy2.setPublishedDate(LocalDateTime.now().minusDays(1));
 
         List<Vacancy> vacancies = Arrays.asList(testVacancy, vacancy2);
-        when(vacancyRepository.findAll()).thenReturn(vacancies);
+        when(vacancyRepository.findAllOrderByTitleAsc()).thenReturn(vacancies);
 
         List<Vacancy> result = vacancyService.getVacanciesSorted("title", "asc");
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(vacancyRepository, times(1)).findAll();
+        verify(vacancyRepository, times(1)).findAllOrderByTitleAsc();
     }
 
     @Test
     void testGetVacanciesFiltered() {
         List<Vacancy> vacancies = Arrays.asList(testVacancy);
-        when(vacancyRepository.findAll()).thenReturn(vacancies);
+        when(vacancyRepository.findFiltered("hh", "Moscow", null)).thenReturn(vacancies);
 
         List<Vacancy> result = vacancyService.getVacanciesFiltered("hh", "Moscow", null);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(vacancyRepository, times(1)).findAll();
+        verify(vacancyRepository, times(1)).findFiltered("hh", "Moscow", null);
     }
 
     @Test
     void testParseVacancies() {
         List<String> urls = Arrays.asList("https://hh.ru/search/vacancy?text=java");
         when(vacancyParser.detectSource(any())).thenReturn("hh");
-        when(vacancyParser.parseHhRu(any())).thenReturn(Arrays.asList(testVacancy));
+        when(vacancyParser.parseHhRu(any(), any())).thenReturn(Arrays.asList(testVacancy));
         when(vacancyRepository.saveAll(any())).thenReturn(Arrays.asList(testVacancy));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(metricsService).recordParsingTime(any());
+        ReflectionTestUtils.setField(vacancyService, "threadPoolSize", 2);
+        vacancyService.init();
 
         vacancyService.parseVacancies(urls, 1);
 
         verify(vacancyParser, times(1)).detectSource(any());
-        verify(vacancyParser, times(1)).parseHhRu(any());
+        verify(vacancyParser, times(1)).parseHhRu(any(), any());
+        verify(facetService, times(1)).record(any());
+    }
+
+    @Test
+    void testCrawlSearchStopsOnPageWithOnlyKnownVacancies() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(any(), any())).thenReturn(Arrays.asList(testVacancy));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(2, result.getPagesFetched());
+        assertEquals(3, result.getPagesSkipped());
+        assertEquals(1, result.getVacanciesSaved());
+        verify(vacancyRepository, times(1)).saveAll(any());
+        verify(metricsService).recordPagesSkipped("hh", 3);
+        verify(watermarkRepository).save(argThat(w -> testVacancy.getSourceUrl().equals(w.getNewestUrl())));
+    }
+
+    @Test
+    void testCrawlSearchFailsWithoutMovingWatermarkWhenPageCannotBeFetched() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(eq(url + "&page=0"), any())).thenReturn(Arrays.asList(testVacancy));
+        when(vacancyParser.parseHhRu(eq(url + "&page=1"), any())).thenThrow(new PageFetchFailedException(url + "&page=1",
+                new CircuitOpenException("hh", 30000)));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(SearchCrawlResult.Status.FAILED, result.getStatus());
+        assertEquals(1, result.getVacanciesSaved());
+        verify(vacancyRepository, times(1)).saveAll(any());
+        // Страницы после неудачной не должны оказаться за новой отметкой
+        verify(watermarkRepository, never()).save(any());
+        verify(frontierService, never()).finish(any());
+        verify(metricsService, never()).incrementParsingSuccess();
+        verify(metricsService).incrementParsingError();
+    }
+
+    @Test
+    void testCrawlSearchStopsAtWatermark() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        Vacancy fresh = new Vacancy();
+        fresh.setTitle("Kotlin Developer");
+        fresh.setSourceUrl("https://hh.ru/vacancy/456");
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenReturn(url);
+        when(vacancyParser.parseHhRu(eq(url), any())).thenReturn(Arrays.asList(fresh, testVacancy));
+        when(watermarkRepository.findById(url)).thenReturn(Optional.of(
+                new SearchWatermark(url, testVacancy.getSourceUrl(), LocalDateTime.now(), 1)));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(1, result.getPagesFetched());
+        assertEquals(4, result.getPagesSkipped());
+        assertEquals(1, result.getVacanciesSaved());
+        verify(vacancyRepository).saveAll(Arrays.asList(fresh));
+        verify(enrichmentService).enqueue(Arrays.asList(fresh));
+    }
+
+    @Test
+    void testPinnedFirstCardDoesNotStopCrawlAtWatermark() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        Vacancy pinned = new Vacancy();
+        pinned.setSource("hh");
+        pinned.setSourceUrl("https://hh.ru/vacancy/100");
+        pinned.setPromoted(true);
+        Vacancy freshA = new Vacancy();
+        freshA.setSource("hh");
+        freshA.setSourceUrl("https://hh.ru/vacancy/201");
+        Vacancy freshB = new Vacancy();
+        freshB.setSource("hh");
+        freshB.setSourceUrl("https://hh.ru/vacancy/202");
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        // Закреплённая карточка — отметка прошлого прохода (записана до исправления) и стоит первой
+        when(watermarkRepository.findById(url)).thenReturn(Optional.of(
+                new SearchWatermark(url, pinned.getSourceUrl(), LocalDateTime.now(), 1)));
+        when(vacancyParser.parseHhRu(eq(url + "&page=0"), any())).thenReturn(Arrays.asList(pinned, freshA));
+        when(vacancyParser.parseHhRu(eq(url + "&page=1"), any())).thenReturn(Arrays.asList(freshB));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 2);
+
+        assertEquals(2, result.getPagesFetched());
+        assertEquals(2, result.getVacanciesSaved());
+        // Новой отметкой становится первая не рекламная карточка
+        verify(watermarkRepository).save(argThat(w -> freshA.getSourceUrl().equals(w.getNewestUrl())));
+    }
+
+    @Test
+    void testCrawlSearchChecksPageAgainstDatabaseInOneQuery() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        Vacancy saved = new Vacancy();
+        saved.setSource("hh");
+        saved.setSourceUrl("https://hh.ru/vacancy/456?query=java");
+        Vacancy fresh = new Vacancy();
+        fresh.setSource("hh");
+        fresh.setSourceUrl("https://hh.ru/vacancy/789");
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(eq(url + "&page=0"), any())).thenReturn(Arrays.asList(saved, fresh, testVacancy));
+        // Память узла пуста (перезапуск), а две вакансии уже сохранены раньше
+        when(vacancyRepository.findExistingExternalIds(eq("hh"), any())).thenReturn(List.of(456L, 123L));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 1);
+
+        assertEquals(1, result.getVacanciesSaved());
+        verify(vacancyRepository, times(1)).findExistingExternalIds("hh", List.of(456L, 789L, 123L));
+        verify(vacancyRepository).saveAll(Arrays.asList(fresh));
+        verify(metricsService).recordDedupCheck("hh", 3, 2);
+    }
+
+    @Test
+    void testCrawlSearchSkipsUnchangedPageWithoutSaving() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(any(), any())).thenThrow(new PageNotModifiedException(url + "&page=0", true, 2048));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(SearchCrawlResult.Status.COMPLETED, result.getStatus());
+        assertEquals(0, result.getPagesFetched());
+        assertEquals(5, result.getPagesSkipped());
+        verify(metricsService).recordPageNotModified("hh", "revalidated", 2048);
+        verify(vacancyParser, times(1)).parseHhRu(any(), any());
+        verifyNoInteractions(vacancyRepository);
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    void testCrawlSearchMarksSavedPagesProcessed() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(any(), any())).thenReturn(Arrays.asList(testVacancy));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        vacancyService.crawlSearch(url, 5);
+
+        verify(responseCache).markProcessed(url + "&page=0");
+        verify(responseCache).markProcessed(url + "&page=1");
+    }
+
+    @Test
+    void testRunCrawlWithCancelledContextSkipsFetching() {
+        SearchCrawlResult result = new SearchCrawlResult("https://hh.ru/search/vacancy?text=java", "hh");
+        CrawlContext context = CrawlContext.unbounded();
+        context.cancel("Cancelled by user");
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(metricsService).recordParsingTime(any());
+        ReflectionTestUtils.setField(vacancyService, "threadPoolSize", 2);
+        vacancyService.init();
+
+        vacancyService.runCrawl(Arrays.asList(result), 5, context);
+
+        assertEquals(SearchCrawlResult.Status.CANCELLED, result.getStatus());
+        verify(vacancyParser, never()).parseHhRu(any(), any());
+        verify(vacancyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testRunCrawlStopsAtDeadline() throws InterruptedException {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        SearchCrawlResult result = new SearchCrawlResult(url, "hh");
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenReturn(url);
+        when(vacancyParser.parseHhRu(eq(url), any())).thenAnswer(invocation -> {
+            // Зависший запрос: освобождается только отменой прохода
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                throw new CrawlCancelledException("Fetch cancelled");
+            }
+            return Arrays.asList(testVacancy);
+        });
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(metricsService).recordParsingTime(any());
+        ReflectionTestUtils.setField(vacancyService, "threadPoolSize", 2);
+        vacancyService.init();
+
+        CrawlContext context = CrawlContext.withTimeout(Duration.ofMillis(200));
+        long started = System.currentTimeMillis();
+        vacancyService.runCrawl(Arrays.asList(result), 5, context);
+
+        assertTrue(System.currentTimeMillis() - started < 5000);
+        assertTrue(context.isCancelled());
+        verify(vacancyRepository, never()).saveAll(any());
+        // Воркер прерван и отмечает проход отменённым
+        for (int i = 0; i < 100 && result.getStatus() != SearchCrawlResult.Status.CANCELLED; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(SearchCrawlResult.Status.CANCELLED, result.getStatus());
+    }
+
+    @Test
+    void testFlightKeyIgnoresParameterOrderAndPage() {
+        assertEquals(
+                VacancyService.flightKey("https://HH.ru/search/vacancy?text=java&area=1", 2),
+                VacancyService.flightKey("https://hh.ru/search/vacancy?area=1&page=7&text=java", 2));
+        assertNotEquals(
+                VacancyService.flightKey("https://hh.ru/search/vacancy?text=java", 0),
+                VacancyService.flightKey("https://hh.ru/search/vacancy?text=java", 1));
+    }
+
+    @Test
+    void testCrawlSearchResumesFromFrontierWithoutRefetching() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        Vacancy fresh = new Vacancy();
+        fresh.setTitle("Kotlin Developer");
+        fresh.setSourceUrl("https://hh.ru/vacancy/456");
+        CrawlCursor cursor = new CrawlCursor();
+        cursor.setSearchUrl(url);
+        cursor.setRunId("run-1");
+        cursor.setNextPage(2);
+        cursor.setNewestUrl("https://hh.ru/vacancy/001");
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(frontierService.open(url, 5)).thenReturn(Optional.of(cursor));
+        // Страница 2 загружена до падения, но вакансии не сохранены
+        when(frontierService.fetchedPage(cursor, 2)).thenReturn(Optional.of(Arrays.asList(fresh)));
+        when(frontierService.fetchedPage(cursor, 3)).thenReturn(Optional.empty());
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(eq(url + "&page=3"), any())).thenReturn(Arrays.asList(fresh));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(SearchCrawlResult.Status.COMPLETED, result.getStatus());
+        assertEquals(2, result.getPagesFetched());
+        assertEquals(1, result.getVacanciesSaved());
+        verify(vacancyParser, never()).parseHhRu(eq(url + "&page=2"), any());
+        verify(frontierService).pageCompleted(cursor, 2, "https://hh.ru/vacancy/001");
+        verify(frontierService).pageFetched(cursor, 3, Arrays.asList(fresh));
+        verify(frontierService).finish(cursor);
+        verify(frontierService).release(url);
+        verify(watermarkRepository).save(argThat(w -> "https://hh.ru/vacancy/001".equals(w.getNewestUrl())));
+    }
+
+    @Test
+    void testResumedCrawlKeepsCursorWhenPageCannotBeFetched() {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        CrawlCursor cursor = new CrawlCursor();
+        cursor.setSearchUrl(url);
+        cursor.setRunId("run-1");
+        cursor.setNextPage(2);
+        cursor.setNewestUrl("https://hh.ru/vacancy/001");
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        when(frontierService.open(url, 5)).thenReturn(Optional.of(cursor));
+        when(frontierService.fetchedPage(cursor, 2)).thenReturn(Optional.empty());
+        when(vacancyParser.buildPageUrl(eq(url), eq("hh"), anyInt())).thenAnswer(i -> url + "&page=" + i.getArgument(2));
+        when(vacancyParser.parseHhRu(eq(url + "&page=2"), any())).thenThrow(new PageFetchFailedException(url + "&page=2",
+                new HttpTimeoutException("request timed out")));
+        when(metricsService.getParsingTimerForSource("hh")).thenReturn(new SimpleMeterRegistry().timer("test"));
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(SearchCrawlResult.Status.FAILED, result.getStatus());
+        // Курсор не закрыт и не сдвинут: следующий проход снова начнёт со страницы 2
+        verify(frontierService, never()).finish(any());
+        verify(frontierService, never()).pageCompleted(any(), anyInt(), any());
+        verify(frontierService).release(url);
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    void testSearchAlreadyInProgressIsSkipped() throws Exception {
+        String url = "https://hh.ru/search/vacancy?text=java";
+        when(vacancyParser.detectSource(url)).thenReturn("hh");
+        // Курсор держит проход другого узла
+        when(frontierService.open(url, 5)).thenReturn(Optional.empty());
+
+        SearchCrawlResult result = vacancyService.crawlSearch(url, 5);
+
+        assertEquals(SearchCrawlResult.Status.SKIPPED, result.getStatus());
+        verify(vacancyParser, never()).parseHhRu(any(), any());
+        verify(frontierService, never()).release(url);
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    void testRefreshExtractedUpdatesChangedRowsOnly() {
+        Vacancy stored = vacancy("hh", 123L, "Java Developer", "Moscow");
+        stored.setId(1L);
+        Vacancy unchanged = vacancy("hh", 456L, "Kotlin Developer", "Moscow");
+        unchanged.setId(2L);
+        when(vacancyRepository.findBySourceAndExternalIdIn("hh", List.of(123L, 456L, 789L)))
+                .thenReturn(List.of(stored, unchanged));
+
+        int updated = vacancyService.refreshExtracted(List.of(
+                vacancy("hh", 123L, "Senior Java Developer", "Saint Petersburg"),
+                vacancy("hh", 456L, "Kotlin Developer", "Moscow"),
+                vacancy("hh", 789L, "Scala Developer", "Moscow")));
+
+        assertEquals(1, updated);
+        assertEquals("Senior Java Developer", stored.getTitle());
+        assertEquals("Saint Petersburg", stored.getCity());
+        verify(vacancyRepository).saveAll(List.of(stored));
+    }
+
+    private static Vacancy vacancy(String source, long externalId, String title, String city) {
+        Vacancy vacancy = new Vacancy();
+        vacancy.setSource(source);
+        vacancy.setExternalId(externalId);
+        vacancy.setTitle(title);
+        vacancy.setCompany("Test Company");
+        vacancy.setCity(city);
+        vacancy.setSourceUrl("https://hh.ru/vacancy/" + externalId);
+        return vacancy;
     }
 }